@@ -9,6 +9,20 @@ version = "0.1.0"
 
 java.toolchain.languageVersion = JavaLanguageVersion.of(25)
 
+// The opt-in SIMD noise backend uses the incubating Vector API, so it is compiled on its
+// own and shipped in the same jar; the main sources and their Javadoc never see the module
+val vector by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
 mavenPublishing {
     coordinates(group.toString(), project.name, version.toString())
     publishToMavenCentral()
@@ -47,6 +61,29 @@ repositories {
     mavenCentral()
 }
 
+val minestomVersion = "2026.01.08-1.21.11"
+
 dependencies {
-    compileOnly("net.minestom:minestom:2026.01.08-1.21.11")
+    compileOnly("net.minestom:minestom:$minestomVersion")
+
+    testImplementation("net.minestom:minestom:$minestomVersion")
+    testImplementation(platform("org.junit:junit-bom:5.13.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+sourceSets.test {
+    compileClasspath += vector.output
+    runtimeClasspath += vector.output
+}
+
+tasks.compileTestJava {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+tasks.test {
+    useJUnitPlatform()
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+    // Tests over the vanilla noise routers need an extracted data pack: -PdataPack=<path>
+    systemProperty("rocks.minestom.worldgen.dataPack", providers.gradleProperty("dataPack").getOrElse(""))
 }
@@ -0,0 +1,74 @@
+package rocks.minestom.worldgen;
+
+import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.random.RandomSupport;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shares the corner columns on chunk borders between neighbouring {@link NoiseChunk}s.
+ * <p>
+ * A column holds the interpolated function's values at a range of cell corners along Y
+ * for one world cell corner (X, Z). Only the corners a chunk actually filled are stored,
+ * and a column is only loaded into a range it covers, so chunks that culled different
+ * rows never see each other's unfilled corners. The cache is a fixed-size, lossy table:
+ * a new column simply replaces whatever occupied its slot, so memory stays bounded and
+ * lookups and stores need no locking.
+ */
+public final class CellCornerCache {
+    private static final int DEFAULT_SIZE = 4096;
+
+    private final AtomicReferenceArray<Column> columns;
+    private final int mask;
+
+    public CellCornerCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of slots, rounded up to a power of two
+     */
+    public CellCornerCache(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + size);
+        }
+        var capacity = Integer.highestOneBit(size - 1) << 1;
+        this.columns = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.mask = this.columns.length() - 1;
+    }
+
+    /**
+     * Copies the corners {@code offset} to {@code offset + length} of the cached column of
+     * {@code function} at the given world cell corner into the same range of
+     * {@code values}.
+     *
+     * @return whether a column covering that range was present
+     */
+    boolean load(DensityFunction function, int cellX, int cellZ, double[] values, int offset, int length) {
+        var column = this.columns.get(this.slot(function, cellX, cellZ));
+        if (column == null || column.function != function || column.cellX != cellX || column.cellZ != cellZ
+                || offset < column.offset || offset + length > column.offset + column.values.length) {
+            return false;
+        }
+        System.arraycopy(column.values, offset - column.offset, values, offset, length);
+        return true;
+    }
+
+    /**
+     * Stores the corners {@code offset} to {@code offset + length} of {@code values}, the
+     * only ones the caller filled.
+     */
+    void store(DensityFunction function, int cellX, int cellZ, double[] values, int offset, int length) {
+        var stored = new double[length];
+        System.arraycopy(values, offset, stored, 0, length);
+        this.columns.set(this.slot(function, cellX, cellZ), new Column(function, cellX, cellZ, offset, stored));
+    }
+
+    private int slot(DensityFunction function, int cellX, int cellZ) {
+        var key = ((long) cellX << 32 | cellZ & 0xFFFFFFFFL) ^ (long) System.identityHashCode(function) << 16;
+        return (int) RandomSupport.mixStafford13(key) & this.mask;
+    }
+
+    private record Column(DensityFunction function, int cellX, int cellZ, int offset, double[] values) {
+    }
+}
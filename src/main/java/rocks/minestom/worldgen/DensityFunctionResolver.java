@@ -14,6 +14,8 @@ import rocks.minestom.worldgen.random.LegacyRandomSource;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 public final class DensityFunctionResolver {
@@ -22,6 +24,8 @@ public final class DensityFunctionResolver {
     private final Map<Key, DensityFunction> densityFunctionCache;
     private final Codec<DensityFunction> densityCodec;
     private final ThreadLocal<ArrayList<Key>> resolutionStack;
+    private final Map<Object, DensityFunction> internedFunctions;
+    private final Map<Object, DensityFunctions.SplineNode> internedSplines;
 
     public DensityFunctionResolver(DataPack dataPack, RandomState randomState) {
         this.dataPack = dataPack;
@@ -29,12 +33,103 @@ public final class DensityFunctionResolver {
         this.densityFunctionCache = new HashMap<>();
         this.densityCodec = this.createCodec();
         this.resolutionStack = ThreadLocal.withInitial(ArrayList::new);
+        this.internedFunctions = new HashMap<>();
+        this.internedSplines = new HashMap<>();
     }
 
     public Codec<DensityFunction> codec() {
         return this.densityCodec;
     }
 
+    /**
+     * Rebuilds {@code function} bottom-up so that every node structurally equal to a node
+     * interned earlier by this resolver is replaced by that node. Functions decoded
+     * separately, such as the final density and the climate parameters, then share
+     * their common subgraphs as one object graph, which lets per-node caches and memos
+     * serve all of them.
+     */
+    public DensityFunction intern(DensityFunction function) {
+        return this.intern(function, new IdentityHashMap<>());
+    }
+
+    private DensityFunction intern(DensityFunction function, Map<DensityFunction, DensityFunction> visited) {
+        var existing = visited.get(function);
+        if (existing != null) {
+            return existing;
+        }
+
+        var rebuilt = switch (function) {
+            case DensityFunctions.Add(var argument1, var argument2) ->
+                    new DensityFunctions.Add(this.intern(argument1, visited), this.intern(argument2, visited));
+            case DensityFunctions.Mul(var argument1, var argument2) ->
+                    new DensityFunctions.Mul(this.intern(argument1, visited), this.intern(argument2, visited));
+            case DensityFunctions.Min(var argument1, var argument2) ->
+                    new DensityFunctions.Min(this.intern(argument1, visited), this.intern(argument2, visited));
+            case DensityFunctions.Max(var argument1, var argument2) ->
+                    new DensityFunctions.Max(this.intern(argument1, visited), this.intern(argument2, visited));
+            case DensityFunctions.Clamp(var input, var min, var max) ->
+                    new DensityFunctions.Clamp(this.intern(input, visited), min, max);
+            case DensityFunctions.Mapped(var type, var input) ->
+                    new DensityFunctions.Mapped(type, this.intern(input, visited));
+            case DensityFunctions.RangeChoice(var input, var minInclusive, var maxExclusive, var whenInRange, var whenOutOfRange) ->
+                    new DensityFunctions.RangeChoice(
+                            this.intern(input, visited),
+                            minInclusive,
+                            maxExclusive,
+                            this.intern(whenInRange, visited),
+                            this.intern(whenOutOfRange, visited));
+            case DensityFunctions.ShiftedNoise(var shiftX, var shiftY, var shiftZ, var xzScale, var yScale, var noise) ->
+                    new DensityFunctions.ShiftedNoise(
+                            this.intern(shiftX, visited),
+                            this.intern(shiftY, visited),
+                            this.intern(shiftZ, visited),
+                            xzScale,
+                            yScale,
+                            noise);
+            case DensityFunctions.WeirdScaledSampler(var input, var noise, var rarityValueMapper) ->
+                    new DensityFunctions.WeirdScaledSampler(this.intern(input, visited), noise, rarityValueMapper);
+            case DensityFunctions.BlendDensity(var argument) -> new DensityFunctions.BlendDensity(this.intern(argument, visited));
+            case DensityFunctions.Interpolated(var argument) -> new DensityFunctions.Interpolated(this.intern(argument, visited));
+            case DensityFunctions.CacheOnce(var argument) -> new DensityFunctions.CacheOnce(this.intern(argument, visited));
+            case DensityFunctions.Cache2D(var argument) -> new DensityFunctions.Cache2D(this.intern(argument, visited));
+            case DensityFunctions.FlatCache(var argument) -> new DensityFunctions.FlatCache(this.intern(argument, visited));
+            case DensityFunctions.CacheAllInCell(var argument) -> new DensityFunctions.CacheAllInCell(this.intern(argument, visited));
+            case DensityFunctions.Spline spline -> new DensityFunctions.Spline(this.internSpline(spline.spline(), visited));
+            default -> function;
+        };
+
+        // Records compare structurally, and their children are interned already
+        var interned = this.internedFunctions.putIfAbsent(rebuilt, rebuilt);
+        var result = interned != null ? interned : rebuilt;
+        visited.put(function, result);
+        return result;
+    }
+
+    private DensityFunctions.SplineNode internSpline(DensityFunctions.SplineNode node, Map<DensityFunction, DensityFunction> visited) {
+        if (!(node instanceof DensityFunctions.SplineMultipoint(var coordinate, var locations, var values, var derivatives))) {
+            return node;
+        }
+
+        var internedValues = new ArrayList<DensityFunctions.SplineNode>(values.size());
+        for (var value : values) {
+            internedValues.add(this.internSpline(value, visited));
+        }
+        var rebuilt = new DensityFunctions.SplineMultipoint(this.intern(coordinate, visited), locations, internedValues, derivatives);
+
+        // Multipoint splines hold arrays, which records compare by identity
+        var key = List.of(rebuilt.coordinate(), floatList(locations), internedValues, floatList(derivatives));
+        var interned = this.internedSplines.putIfAbsent(key, rebuilt);
+        return interned != null ? interned : rebuilt;
+    }
+
+    private static List<Float> floatList(float[] values) {
+        var list = new ArrayList<Float>(values.length);
+        for (var value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
     private Codec<DensityFunction> createCodec() {
         return Codec.Recursive(self -> {
             var constantCodec = Codec.DOUBLE.transform(
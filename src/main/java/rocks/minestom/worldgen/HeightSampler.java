@@ -0,0 +1,135 @@
+package rocks.minestom.worldgen;
+
+import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.random.RandomSupport;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Finds the highest solid block of a column without generating the chunk around it.
+ * <p>
+ * Heights are sampled a whole noise cell column at a time through a {@link NoiseChunk}
+ * covering that single cell, so the result matches the terrain pass exactly while the
+ * final density is only evaluated at cell corners. Each thread keeps one such chunk and
+ * moves it from cell to cell, so the density tree is wrapped once per thread. Rows and
+ * cells whose bounds prove them empty are skipped without interpolating any block.
+ * Results are kept in a bounded, lossy table keyed by cell column, and neighbouring
+ * cells share corners through a {@link CellCornerCache}. Instances are safe to use
+ * from several threads.
+ */
+public final class HeightSampler {
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private final int minY;
+    private final int height;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final CellCornerCache cornerCache;
+    private final ThreadLocal<NoiseChunk> noiseChunks;
+    private final AtomicReferenceArray<CellHeights> cells;
+    private final int mask;
+
+    public HeightSampler(int minY, int height, int cellWidth, int cellHeight, DensityFunction finalDensity) {
+        this.minY = minY;
+        this.height = height;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.cornerCache = new CellCornerCache();
+        this.noiseChunks = ThreadLocal.withInitial(() -> new NoiseChunk(0, 0, cellWidth, cellWidth, cellWidth, cellHeight,
+                minY, height, finalDensity, this.cornerCache));
+        this.cells = new AtomicReferenceArray<>(DEFAULT_CACHE_SIZE);
+        this.mask = DEFAULT_CACHE_SIZE - 1;
+    }
+
+    /**
+     * Returns the Y coordinate of the highest solid block at the given column, or
+     * {@link Integer#MIN_VALUE} if the column has none.
+     */
+    public int surfaceHeight(int blockX, int blockZ) {
+        var cellX = Math.floorDiv(blockX, this.cellWidth);
+        var cellZ = Math.floorDiv(blockZ, this.cellWidth);
+        var slot = (int) RandomSupport.mixStafford13((long) cellX << 32 | cellZ & 0xFFFFFFFFL) & this.mask;
+
+        var cell = this.cells.get(slot);
+        if (cell == null || cell.cellX != cellX || cell.cellZ != cellZ) {
+            cell = new CellHeights(cellX, cellZ, this.sampleCell(cellX, cellZ));
+            this.cells.set(slot, cell);
+        }
+
+        var inCellX = blockX - cellX * this.cellWidth;
+        var inCellZ = blockZ - cellZ * this.cellWidth;
+        return cell.heights[inCellX * this.cellWidth + inCellZ];
+    }
+
+    private int[] sampleCell(int cellX, int cellZ) {
+        var heights = new int[this.cellWidth * this.cellWidth];
+        Arrays.fill(heights, Integer.MIN_VALUE);
+        var remaining = heights.length;
+
+        var startX = cellX * this.cellWidth;
+        var startZ = cellZ * this.cellWidth;
+        var maxY = this.minY + this.height - 1;
+        var noiseChunk = this.noiseChunks.get();
+        noiseChunk.moveTo(startX, startZ);
+        var minCellY = noiseChunk.minCellY();
+
+        noiseChunk.cullCellRows();
+        noiseChunk.initializeForFirstCellX();
+        try {
+            noiseChunk.advanceCellX(0);
+
+            for (var cellOffsetY = noiseChunk.cellCountY() - 1; cellOffsetY >= 0 && remaining > 0; cellOffsetY--) {
+                var cellClass = noiseChunk.classifyCellRow(cellOffsetY);
+                if (cellClass == 0) {
+                    noiseChunk.selectCellYZ(cellOffsetY, 0);
+                    cellClass = noiseChunk.classifySelectedCell();
+                }
+                if (cellClass < 0) {
+                    continue;
+                }
+
+                for (var inCellY = this.cellHeight - 1; inCellY >= 0 && remaining > 0; inCellY--) {
+                    var blockY = (minCellY + cellOffsetY) * this.cellHeight + inCellY;
+                    if (blockY < this.minY || blockY > maxY) {
+                        continue;
+                    }
+
+                    if (cellClass == 0) {
+                        noiseChunk.updateForY(blockY, (double) inCellY / (double) this.cellHeight);
+                    }
+
+                    for (var inCellX = 0; inCellX < this.cellWidth; inCellX++) {
+                        if (cellClass == 0) {
+                            noiseChunk.updateForX(startX + inCellX, (double) inCellX / (double) this.cellWidth);
+                        }
+
+                        for (var inCellZ = 0; inCellZ < this.cellWidth; inCellZ++) {
+                            var index = inCellX * this.cellWidth + inCellZ;
+                            if (heights[index] != Integer.MIN_VALUE) {
+                                continue;
+                            }
+
+                            if (cellClass == 0) {
+                                noiseChunk.updateForZ(startZ + inCellZ, (double) inCellZ / (double) this.cellWidth);
+                                if (noiseChunk.getInterpolatedDensity() <= 0.0D) {
+                                    continue;
+                                }
+                            }
+
+                            heights[index] = blockY;
+                            remaining--;
+                        }
+                    }
+                }
+            }
+        } finally {
+            // The chunk is reused for the next cell
+            noiseChunk.stopInterpolation();
+        }
+        return heights;
+    }
+
+    private record CellHeights(int cellX, int cellZ, int[] heights) {
+    }
+}
@@ -1,7 +1,10 @@
 package rocks.minestom.worldgen;
 
+import rocks.minestom.worldgen.density.CompiledDensityFunction;
 import rocks.minestom.worldgen.density.DensityFunction;
 import rocks.minestom.worldgen.density.DensityFunctions;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
+import rocks.minestom.worldgen.noise.ScratchArrays;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -17,17 +20,26 @@ import java.util.Map;
  * at
  * every block, we only compute at cell corners and interpolate the rest.
  */
-public final class NoiseChunk implements DensityFunction.Context {
+public final class NoiseChunk implements DensityFunction.Context, DensityFunction.ContextProvider {
+    // Absorbs rounding in the interpolation lerps when classifying whole cells
+    private static final double CELL_BOUND_EPSILON = 1.0E-7D;
+
     private final int cellWidth;
     private final int cellHeight;
-    private final int cellCountXZ;
+    private final int cellCountX;
+    private final int cellCountZ;
     private final int cellCountY;
     private final int cellNoiseMinY;
-    private final int firstCellX;
-    private final int firstCellZ;
+    private int firstCellX;
+    private int firstCellZ;
     private final DensityFunction finalDensity;
+    private final CellCornerCache cornerCache;
+    private final FlatCacheMemo flatCacheMemo;
     private final List<NoiseInterpolator> interpolators = new ArrayList<>();
+    private final List<FlatCache> flatCaches = new ArrayList<>();
+    private final List<CacheAllInCell> cellCaches = new ArrayList<>();
     private final Map<DensityFunction, DensityFunction> wrapped = new HashMap<>();
+    private final ScratchArrays scratch = new ScratchArrays();
 
     private int cellStartBlockX;
     private int cellStartBlockY;
@@ -37,6 +49,18 @@ public final class NoiseChunk implements DensityFunction.Context {
     private int inCellZ;
     private boolean interpolating;
     private long interpolationCounter;
+    private long arrayInterpolationCounter;
+    private boolean fillingColumn;
+    private int arrayIndex;
+    private double boundMin;
+    private double boundMax;
+    private int boundBottomY;
+    private int boundTopY;
+    private boolean boundCorners = true;
+    private byte[] cellRowClasses;
+    private int firstFilledCellY;
+    private int filledCornerCount;
+    private double[] cornerScratch;
 
     public NoiseChunk(
             int chunkStartX,
@@ -46,11 +70,59 @@ public final class NoiseChunk implements DensityFunction.Context {
             int minY,
             int height,
             DensityFunction finalDensity) {
+        this(chunkStartX, chunkStartZ, 16, 16, cellWidth, cellHeight, minY, height, finalDensity, null);
+    }
+
+    /**
+     * Creates a noise chunk covering {@code sizeX} by {@code sizeZ} blocks, which must be
+     * multiples of the cell width.
+     *
+     * @param cornerCache shares the corner columns on this chunk's borders with its
+     *                    neighbours, or {@code null} to compute every corner
+     */
+    public NoiseChunk(
+            int chunkStartX,
+            int chunkStartZ,
+            int sizeX,
+            int sizeZ,
+            int cellWidth,
+            int cellHeight,
+            int minY,
+            int height,
+            DensityFunction finalDensity,
+            CellCornerCache cornerCache) {
+        this(chunkStartX, chunkStartZ, sizeX, sizeZ, cellWidth, cellHeight, minY, height, finalDensity, cornerCache, null);
+    }
+
+    /**
+     * @param flatCacheMemo shares flat cache columns with climate sampling of the same
+     *                      generation unit, or {@code null} to keep them to this chunk
+     */
+    public NoiseChunk(
+            int chunkStartX,
+            int chunkStartZ,
+            int sizeX,
+            int sizeZ,
+            int cellWidth,
+            int cellHeight,
+            int minY,
+            int height,
+            DensityFunction finalDensity,
+            CellCornerCache cornerCache,
+            FlatCacheMemo flatCacheMemo) {
+        if (sizeX % cellWidth != 0 || sizeZ % cellWidth != 0) {
+            throw new IllegalArgumentException("Size " + sizeX + "x" + sizeZ + " is not a multiple of the cell width " + cellWidth);
+        }
+
+        this.cornerCache = cornerCache;
+        this.flatCacheMemo = flatCacheMemo;
         this.cellWidth = cellWidth;
         this.cellHeight = cellHeight;
-        this.cellCountXZ = 16 / cellWidth;
+        this.cellCountX = sizeX / cellWidth;
+        this.cellCountZ = sizeZ / cellWidth;
         this.cellCountY = height / cellHeight;
         this.cellNoiseMinY = Math.floorDiv(minY, cellHeight);
+        this.filledCornerCount = this.cellCountY + 1;
         this.firstCellX = Math.floorDiv(chunkStartX, cellWidth);
         this.firstCellZ = Math.floorDiv(chunkStartZ, cellWidth);
         this.finalDensity = this.wrap(finalDensity);
@@ -71,6 +143,42 @@ public final class NoiseChunk implements DensityFunction.Context {
         return this.cellStartBlockZ + this.inCellZ;
     }
 
+    /**
+     * Positions the context on the corner at Y index {@code index} of the slice
+     * column currently being filled.
+     */
+    @Override
+    public DensityFunction.Context forIndex(int index) {
+        this.cellStartBlockY = (this.cellNoiseMinY + this.firstFilledCellY + index) * this.cellHeight;
+        this.inCellY = 0;
+        this.arrayIndex = index;
+        this.interpolationCounter++;
+        return this;
+    }
+
+    /**
+     * Slice columns only vary in Y, one cell height per index.
+     */
+    @Override
+    public boolean isColumn() {
+        return true;
+    }
+
+    @Override
+    public int columnStepY() {
+        return this.cellHeight;
+    }
+
+    @Override
+    public FlatCacheMemo flatCacheMemo() {
+        return this.flatCacheMemo;
+    }
+
+    @Override
+    public ScratchArrays scratch() {
+        return this.scratch;
+    }
+
     public int cellWidth() {
         return this.cellWidth;
     }
@@ -79,8 +187,12 @@ public final class NoiseChunk implements DensityFunction.Context {
         return this.cellHeight;
     }
 
-    public int cellCountXZ() {
-        return this.cellCountXZ;
+    public int cellCountX() {
+        return this.cellCountX;
+    }
+
+    public int cellCountZ() {
+        return this.cellCountZ;
     }
 
     public int cellCountY() {
@@ -91,6 +203,30 @@ public final class NoiseChunk implements DensityFunction.Context {
         return this.cellNoiseMinY;
     }
 
+    /**
+     * Moves this chunk to the area of the same size starting at the given block, keeping
+     * the wrapped density tree so it need not be built again. Flat caches are refilled
+     * and cell rows have to be culled again. Must not be called while interpolating.
+     */
+    public void moveTo(int chunkStartX, int chunkStartZ) {
+        if (this.interpolating) {
+            throw new IllegalStateException("Cannot move while interpolating");
+        }
+
+        this.firstCellX = Math.floorDiv(chunkStartX, this.cellWidth);
+        this.firstCellZ = Math.floorDiv(chunkStartZ, this.cellWidth);
+        this.cellRowClasses = null;
+        this.firstFilledCellY = 0;
+        this.filledCornerCount = this.cellCountY + 1;
+        this.cornerScratch = null;
+        for (var flatCache : this.flatCaches) {
+            flatCache.fill();
+        }
+        for (var cellCache : this.cellCaches) {
+            cellCache.invalidate();
+        }
+    }
+
     /**
      * Wraps density functions to use our interpolation and caching system.
      * The Interpolated marker is the key - it tells us to sample corners and
@@ -110,24 +246,24 @@ public final class NoiseChunk implements DensityFunction.Context {
     }
 
     private DensityFunction wrapNew(DensityFunction function) {
-        if (function instanceof DensityFunctions.Interpolated(var argument4)) {
-            return new NoiseInterpolator(argument4);
+        if (function instanceof DensityFunctions.Interpolated interpolated) {
+            return new NoiseInterpolator(interpolated.argument());
         }
 
-        if (function instanceof DensityFunctions.CacheOnce(var argument3)) {
-            return new CacheOnce(this.wrap(argument3));
+        if (function instanceof DensityFunctions.CacheOnce cacheOnce) {
+            return new CacheOnce(this.wrap(cacheOnce.argument()));
         }
 
-        if (function instanceof DensityFunctions.Cache2D(var argument2)) {
-            return new Cache2D(this.wrap(argument2));
+        if (function instanceof DensityFunctions.Cache2D cache2D) {
+            return new Cache2D(this.wrap(cache2D.argument()));
         }
 
-        if (function instanceof DensityFunctions.FlatCache(var argument1)) {
-            return new FlatCache(this.wrap(argument1));
+        if (function instanceof DensityFunctions.FlatCache flatCache) {
+            return new FlatCache(flatCache, this.wrap(flatCache.argument()));
         }
 
-        if (function instanceof DensityFunctions.CacheAllInCell(var argument)) {
-            return new CacheAllInCell(this.wrap(argument));
+        if (function instanceof DensityFunctions.CacheAllInCell cacheAllInCell) {
+            return new CacheAllInCell(this.wrap(cacheAllInCell.argument()));
         }
 
         // Recursively wrap child functions
@@ -179,8 +315,16 @@ public final class NoiseChunk implements DensityFunction.Context {
         if (function instanceof DensityFunctions.BlendDensity(var argument)) {
             return new DensityFunctions.BlendDensity(this.wrap(argument));
         }
-        if (function instanceof DensityFunctions.Spline(var spline1)) {
-            return new DensityFunctions.Spline(this.wrapSplineNode(spline1));
+        if (function instanceof DensityFunctions.Spline(var spline, var evaluator)) {
+            // Rebinding the flattened coordinates avoids flattening the spline again per chunk
+            var coordinates = evaluator.coordinates();
+            var changed = false;
+            for (var index = 0; index < coordinates.length; index++) {
+                var wrappedCoordinate = this.wrap(coordinates[index]);
+                changed |= wrappedCoordinate != coordinates[index];
+                coordinates[index] = wrappedCoordinate;
+            }
+            return changed ? new DensityFunctions.Spline(spline, evaluator.withCoordinates(coordinates)) : function;
         }
         if (function instanceof DensityFunctions.WeirdScaledSampler(
                 var input, var noise,
@@ -191,30 +335,73 @@ public final class NoiseChunk implements DensityFunction.Context {
                     noise,
                     rarityValueMapper);
         }
+        if (function instanceof CompiledDensityFunction compiled) {
+            // Compiled trees keep their markers as externals; rebinding them reuses the generated class
+            var externals = compiled.externals();
+            var externalSources = compiled.externalSources();
+            var wrappedExternals = new ArrayList<DensityFunction>(externals.size());
+            var changed = false;
+            for (var index = 0; index < externals.size(); index++) {
+                var wrappedExternal = this.wrap(externals.get(index));
+                changed |= wrappedExternal != externals.get(index);
+                wrappedExternals.add(wrappedExternal);
+                // The interpreted source then reaches the same interpolators and caches
+                this.wrapped.put(externalSources.get(index), wrappedExternal);
+            }
+            return changed ? compiled.withExternals(wrappedExternals, this.wrap(compiled.source())) : compiled;
+        }
 
         // Leaf nodes that don't need wrapping
         return function;
     }
 
-    private DensityFunctions.SplineNode wrapSplineNode(DensityFunctions.SplineNode node) {
-        if (node instanceof DensityFunctions.SplineConstant) {
-            return node;
+    /**
+     * Classifies every cell row from the static bounds of the final density over the
+     * row's Y range, which holds for any X and Z. Corner filling is then limited to the
+     * rows between the lowest and highest row that could contain a sign change, and
+     * {@link #classifyCellRow} reports the rows that are uniformly solid or empty.
+     * Must be called before {@link #initializeForFirstCellX()}.
+     */
+    public void cullCellRows() {
+        if (this.interpolating) {
+            throw new IllegalStateException("Cannot cull cell rows while interpolating");
         }
-        if (node instanceof DensityFunctions.SplineMultipoint(
-                var coordinate, var locations, var values,
-                var derivatives
-        )) {
-            var wrappedValues = new ArrayList<DensityFunctions.SplineNode>(values.size());
-            for (var value : values) {
-                wrappedValues.add(this.wrapSplineNode(value));
+
+        var rowClasses = new byte[this.cellCountY];
+        var firstActive = this.cellCountY;
+        var lastActive = -1;
+        this.boundCorners = false;
+        for (var cellY = 0; cellY < this.cellCountY; cellY++) {
+            // Interpolated values span the corners, so the row includes its top corner
+            this.boundBottomY = (this.cellNoiseMinY + cellY) * this.cellHeight;
+            this.boundTopY = this.boundBottomY + this.cellHeight;
+            this.computeBounds(this.finalDensity);
+            rowClasses[cellY] = (byte) this.classifyBounds();
+            if (rowClasses[cellY] == 0) {
+                firstActive = Math.min(firstActive, cellY);
+                lastActive = cellY;
             }
-            return new DensityFunctions.SplineMultipoint(
-                    this.wrap(coordinate),
-                    locations,
-                    wrappedValues,
-                    derivatives);
         }
-        return node;
+        this.boundCorners = true;
+        this.cellRowClasses = rowClasses;
+
+        if (lastActive < 0) {
+            this.firstFilledCellY = 0;
+            this.filledCornerCount = 0;
+        } else {
+            this.firstFilledCellY = firstActive;
+            this.filledCornerCount = lastActive - firstActive + 2;
+        }
+        this.cornerScratch = this.filledCornerCount < this.cellCountY + 1 ? new double[this.filledCornerCount] : null;
+    }
+
+    /**
+     * Returns {@code 1} if the cell row at {@code cellY} is solid for every X and Z,
+     * {@code -1} if it is empty, and {@code 0} if its cells have to be classified
+     * individually. Only rows left at {@code 0} have their corners filled.
+     */
+    public int classifyCellRow(int cellY) {
+        return this.cellRowClasses == null ? 0 : this.cellRowClasses[cellY];
     }
 
     /**
@@ -226,7 +413,6 @@ public final class NoiseChunk implements DensityFunction.Context {
             throw new IllegalStateException("Starting interpolation twice");
         }
         this.interpolating = true;
-        this.interpolationCounter = 0L;
         this.fillSlice(true, this.firstCellX);
     }
 
@@ -240,26 +426,45 @@ public final class NoiseChunk implements DensityFunction.Context {
 
     /**
      * Fill a slice (either slice0 or slice1) with density values at cell corners.
+     * Each Z column of corners is filled in one batch through
+     * {@link DensityFunction#fillArray}, with this chunk mapping array indices to
+     * cell Y positions. Columns on the chunk border go through the corner cache, if
+     * there is one, since the neighbouring chunk needs the same values.
      */
     private void fillSlice(boolean useSlice0, int cellX) {
         this.cellStartBlockX = cellX * this.cellWidth;
         this.inCellX = 0;
+        var borderX = cellX == this.firstCellX || cellX == this.firstCellX + this.cellCountX;
 
-        for (var cellZ = 0; cellZ <= this.cellCountXZ; cellZ++) {
+        for (var cellZ = 0; cellZ <= this.cellCountZ; cellZ++) {
             var actualCellZ = this.firstCellZ + cellZ;
             this.cellStartBlockZ = actualCellZ * this.cellWidth;
             this.inCellZ = 0;
+            this.arrayInterpolationCounter++;
+            var cached = this.cornerCache != null && (borderX || cellZ == 0 || cellZ == this.cellCountZ);
 
+            this.fillingColumn = true;
             for (var interpolator : this.interpolators) {
-                var slice = useSlice0 ? interpolator.slice0 : interpolator.slice1;
+                var column = (useSlice0 ? interpolator.slice0 : interpolator.slice1)[cellZ];
+                if (this.filledCornerCount == 0
+                        || cached && this.cornerCache.load(interpolator.source, cellX, actualCellZ, column,
+                        this.firstFilledCellY, this.filledCornerCount)) {
+                    continue;
+                }
 
-                for (var cellY = 0; cellY <= this.cellCountY; cellY++) {
-                    this.cellStartBlockY = (this.cellNoiseMinY + cellY) * this.cellHeight;
-                    this.inCellY = 0;
-                    this.interpolationCounter++;
-                    slice[cellZ][cellY] = interpolator.noiseFiller.compute(this);
+                if (this.cornerScratch == null) {
+                    interpolator.noiseFiller.fillArray(column, this);
+                } else {
+                    // Culled rows keep stale corners; they are never selected
+                    interpolator.noiseFiller.fillArray(this.cornerScratch, this);
+                    System.arraycopy(this.cornerScratch, 0, column, this.firstFilledCellY, this.filledCornerCount);
+                }
+                if (cached) {
+                    this.cornerCache.store(interpolator.source, cellX, actualCellZ, column,
+                            this.firstFilledCellY, this.filledCornerCount);
                 }
             }
+            this.fillingColumn = false;
         }
     }
 
@@ -275,6 +480,127 @@ public final class NoiseChunk implements DensityFunction.Context {
         this.cellStartBlockZ = (this.firstCellZ + cellZ) * this.cellWidth;
     }
 
+    /**
+     * Classifies the selected cell by bounding the final density over it. Interpolators
+     * contribute the range of their eight corners, and every other node its static value
+     * range, so a definite answer holds for every block in the cell.
+     *
+     * @return {@code 1} if every block is solid, {@code -1} if every block is empty,
+     * and {@code 0} if the cell has to be evaluated block by block
+     */
+    public int classifySelectedCell() {
+        this.boundBottomY = this.cellStartBlockY;
+        this.boundTopY = this.cellStartBlockY + this.cellHeight - 1;
+        this.computeBounds(this.finalDensity);
+        return this.classifyBounds();
+    }
+
+    private int classifyBounds() {
+        if (this.boundMin > CELL_BOUND_EPSILON) {
+            return 1;
+        }
+        if (this.boundMax < -CELL_BOUND_EPSILON) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Computes conservative bounds of {@code function} between {@link #boundBottomY} and
+     * {@link #boundTopY} into {@link #boundMin} and {@link #boundMax}. Interpolators use
+     * their selected corners unless {@link #boundCorners} is off.
+     */
+    private void computeBounds(DensityFunction function) {
+        switch (function) {
+            case NoiseInterpolator interpolator -> {
+                if (this.boundCorners) {
+                    this.boundMin = interpolator.cornerMin();
+                    this.boundMax = interpolator.cornerMax();
+                } else {
+                    this.computeBounds(interpolator.noiseFiller);
+                }
+            }
+            case CacheOnce cacheOnce -> this.computeBounds(cacheOnce.function);
+            case Cache2D cache2D -> this.computeBounds(cache2D.function);
+            case FlatCache flatCache -> this.computeBounds(flatCache.function);
+            case CacheAllInCell cacheAllInCell -> this.computeBounds(cacheAllInCell.function);
+            case DensityFunctions.Add(var argument1, var argument2) -> {
+                this.computeBounds(argument1);
+                var min = this.boundMin;
+                var max = this.boundMax;
+                this.computeBounds(argument2);
+                this.boundMin += min;
+                this.boundMax += max;
+            }
+            case DensityFunctions.Mul(var argument1, var argument2) -> {
+                this.computeBounds(argument1);
+                var min = this.boundMin;
+                var max = this.boundMax;
+                this.computeBounds(argument2);
+                var otherMin = this.boundMin;
+                var otherMax = this.boundMax;
+                this.boundMin = DensityFunctions.Mul.productMin(min, max, otherMin, otherMax);
+                this.boundMax = DensityFunctions.Mul.productMax(min, max, otherMin, otherMax);
+            }
+            case DensityFunctions.Min(var argument1, var argument2) -> {
+                this.computeBounds(argument1);
+                var min = this.boundMin;
+                var max = this.boundMax;
+                this.computeBounds(argument2);
+                this.boundMin = Math.min(min, this.boundMin);
+                this.boundMax = Math.min(max, this.boundMax);
+            }
+            case DensityFunctions.Max(var argument1, var argument2) -> {
+                this.computeBounds(argument1);
+                var min = this.boundMin;
+                var max = this.boundMax;
+                this.computeBounds(argument2);
+                this.boundMin = Math.max(min, this.boundMin);
+                this.boundMax = Math.max(max, this.boundMax);
+            }
+            case DensityFunctions.Clamp(var input, var min, var max) -> {
+                this.computeBounds(input);
+                this.boundMin = VMath.clamp(this.boundMin, min, max);
+                this.boundMax = VMath.clamp(this.boundMax, min, max);
+            }
+            case DensityFunctions.Mapped(var type, var input) -> {
+                this.computeBounds(input);
+                var min = this.boundMin;
+                var max = this.boundMax;
+                this.boundMin = type.minValue(min, max);
+                this.boundMax = type.maxValue(min, max);
+            }
+            case DensityFunctions.YClampedGradient(var fromY, var toY, var fromValue, var toValue) -> {
+                // Monotonic in Y, so the bottom and top of the range bound it
+                var bottom = VMath.clampedMap((double) this.boundBottomY, (double) fromY, (double) toY, fromValue, toValue);
+                var top = VMath.clampedMap((double) this.boundTopY, (double) fromY, (double) toY, fromValue, toValue);
+                this.boundMin = Math.min(bottom, top);
+                this.boundMax = Math.max(bottom, top);
+            }
+            case DensityFunctions.RangeChoice(var input, var minInclusive, var maxExclusive, var whenInRange, var whenOutOfRange) -> {
+                this.computeBounds(input);
+                if (this.boundMin >= minInclusive && this.boundMax < maxExclusive) {
+                    this.computeBounds(whenInRange);
+                } else if (this.boundMax < minInclusive || this.boundMin >= maxExclusive) {
+                    this.computeBounds(whenOutOfRange);
+                } else {
+                    this.computeBounds(whenInRange);
+                    var min = this.boundMin;
+                    var max = this.boundMax;
+                    this.computeBounds(whenOutOfRange);
+                    this.boundMin = Math.min(min, this.boundMin);
+                    this.boundMax = Math.max(max, this.boundMax);
+                }
+            }
+            case DensityFunctions.BlendDensity(var argument) -> this.computeBounds(argument);
+            case CompiledDensityFunction compiled -> this.computeBounds(compiled.source());
+            default -> {
+                this.boundMin = function.minValue();
+                this.boundMax = function.maxValue();
+            }
+        }
+    }
+
     /**
      * Update interpolation for the given Y position within the cell.
      */
@@ -338,6 +664,8 @@ public final class NoiseChunk implements DensityFunction.Context {
      * This is the core optimization.
      */
     private final class NoiseInterpolator implements DensityFunction {
+        // The unwrapped function, which is shared by every chunk using the same tree
+        private final DensityFunction source;
         private final DensityFunction noiseFiller;
         double[][] slice0;
         double[][] slice1;
@@ -352,6 +680,7 @@ public final class NoiseChunk implements DensityFunction.Context {
         private double value;
 
         NoiseInterpolator(DensityFunction noiseFiller) {
+            this.source = noiseFiller;
             this.noiseFiller = NoiseChunk.this.wrap(noiseFiller);
             this.slice0 = this.allocateSlice();
             this.slice1 = this.allocateSlice();
@@ -359,7 +688,7 @@ public final class NoiseChunk implements DensityFunction.Context {
         }
 
         private double[][] allocateSlice() {
-            var zSize = NoiseChunk.this.cellCountXZ + 1;
+            var zSize = NoiseChunk.this.cellCountZ + 1;
             var ySize = NoiseChunk.this.cellCountY + 1;
             var slice = new double[zSize][ySize];
             return slice;
@@ -398,6 +727,28 @@ public final class NoiseChunk implements DensityFunction.Context {
             this.slice1 = temp;
         }
 
+        double cornerMin() {
+            return Math.min(
+                    Math.min(Math.min(this.noise000, this.noise001), Math.min(this.noise010, this.noise011)),
+                    Math.min(Math.min(this.noise100, this.noise101), Math.min(this.noise110, this.noise111)));
+        }
+
+        double cornerMax() {
+            return Math.max(
+                    Math.max(Math.max(this.noise000, this.noise001), Math.max(this.noise010, this.noise011)),
+                    Math.max(Math.max(this.noise100, this.noise101), Math.max(this.noise110, this.noise111)));
+        }
+
+        @Override
+        public double minValue() {
+            return this.noiseFiller.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.noiseFiller.maxValue();
+        }
+
         @Override
         public double compute(Context context) {
             if (context != NoiseChunk.this) {
@@ -408,6 +759,15 @@ public final class NoiseChunk implements DensityFunction.Context {
             }
             return this.value;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            if (provider != NoiseChunk.this) {
+                this.noiseFiller.fillArray(values, provider);
+                return;
+            }
+            provider.fillAllDirectly(values, this);
+        }
     }
 
     /**
@@ -418,16 +778,33 @@ public final class NoiseChunk implements DensityFunction.Context {
         private final DensityFunction function;
         private long lastCounter = -1L;
         private double lastValue;
+        private long lastArrayCounter = -1L;
+        private double[] lastArray;
 
         CacheOnce(DensityFunction function) {
             this.function = function;
         }
 
+        @Override
+        public double minValue() {
+            return this.function.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.function.maxValue();
+        }
+
         @Override
         public double compute(Context context) {
             if (context != NoiseChunk.this) {
                 return this.function.compute(context);
             }
+            // Branches reached per index after a batch fill read the column filled for them
+            if (NoiseChunk.this.fillingColumn && this.lastArray != null
+                    && this.lastArrayCounter == NoiseChunk.this.arrayInterpolationCounter) {
+                return this.lastArray[NoiseChunk.this.arrayIndex];
+            }
             if (this.lastCounter == NoiseChunk.this.interpolationCounter) {
                 return this.lastValue;
             }
@@ -435,6 +812,25 @@ public final class NoiseChunk implements DensityFunction.Context {
             this.lastValue = this.function.compute(context);
             return this.lastValue;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            if (provider != NoiseChunk.this) {
+                this.function.fillArray(values, provider);
+                return;
+            }
+            if (this.lastArray != null && this.lastArray.length == values.length
+                    && this.lastArrayCounter == NoiseChunk.this.arrayInterpolationCounter) {
+                System.arraycopy(this.lastArray, 0, values, 0, values.length);
+                return;
+            }
+            this.function.fillArray(values, provider);
+            if (this.lastArray == null || this.lastArray.length != values.length) {
+                this.lastArray = new double[values.length];
+            }
+            System.arraycopy(values, 0, this.lastArray, 0, values.length);
+            this.lastArrayCounter = NoiseChunk.this.arrayInterpolationCounter;
+        }
     }
 
     /**
@@ -449,6 +845,16 @@ public final class NoiseChunk implements DensityFunction.Context {
             this.function = function;
         }
 
+        @Override
+        public double minValue() {
+            return this.function.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.function.maxValue();
+        }
+
         @Override
         public double compute(Context context) {
             var x = context.blockX();
@@ -471,36 +877,69 @@ public final class NoiseChunk implements DensityFunction.Context {
      * Pre-computes values at quart positions for the whole chunk once.
      */
     private final class FlatCache implements DensityFunction {
+        private final DensityFunctions.FlatCache source;
         private final DensityFunction function;
         private final double[] values;
-        private final int sizeXZ;
-        private final int firstNoiseX;
-        private final int firstNoiseZ;
+        private final int sizeX;
+        private final int sizeZ;
+        private int firstNoiseX;
+        private int firstNoiseZ;
 
-        FlatCache(DensityFunction function) {
+        FlatCache(DensityFunctions.FlatCache source, DensityFunction function) {
+            this.source = source;
             this.function = function;
-            this.sizeXZ = 5; // 16 blocks / 4 quarts + 1
-            this.values = new double[this.sizeXZ * this.sizeXZ];
+            // One quart per 4 blocks, plus the far edge
+            this.sizeX = NoiseChunk.this.cellCountX * NoiseChunk.this.cellWidth / 4 + 1;
+            this.sizeZ = NoiseChunk.this.cellCountZ * NoiseChunk.this.cellWidth / 4 + 1;
+            this.values = new double[this.sizeX * this.sizeZ];
+            this.fill();
+            NoiseChunk.this.flatCaches.add(this);
+        }
+
+        /**
+         * Pre-computes values at the chunk's quart positions, reusing columns climate
+         * sampling already computed.
+         */
+        void fill() {
             this.firstNoiseX = NoiseChunk.this.firstCellX * NoiseChunk.this.cellWidth / 4;
             this.firstNoiseZ = NoiseChunk.this.firstCellZ * NoiseChunk.this.cellWidth / 4;
 
-            // Pre-compute values at quart positions
-            for (var quartX = 0; quartX < this.sizeXZ; quartX++) {
+            var memo = NoiseChunk.this.flatCacheMemo;
+            for (var quartX = 0; quartX < this.sizeX; quartX++) {
                 var blockX = (this.firstNoiseX + quartX) * 4;
-                for (var quartZ = 0; quartZ < this.sizeXZ; quartZ++) {
+                for (var quartZ = 0; quartZ < this.sizeZ; quartZ++) {
                     var blockZ = (this.firstNoiseZ + quartZ) * 4;
-                    this.values[quartX + quartZ * this.sizeXZ] = function
-                            .compute(new SinglePointContext(blockX, 0, blockZ));
+                    var slot = memo == null ? -1 : memo.find(this.source, blockX, blockZ);
+                    if (slot >= 0) {
+                        this.values[quartX + quartZ * this.sizeX] = memo.value(slot);
+                        continue;
+                    }
+
+                    var value = this.function.compute(new SinglePointContext(blockX, 0, blockZ));
+                    if (memo != null) {
+                        memo.store(this.source, blockX, blockZ, value);
+                    }
+                    this.values[quartX + quartZ * this.sizeX] = value;
                 }
             }
         }
 
+        @Override
+        public double minValue() {
+            return this.function.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.function.maxValue();
+        }
+
         @Override
         public double compute(Context context) {
             var quartX = context.blockX() / 4 - this.firstNoiseX;
             var quartZ = context.blockZ() / 4 - this.firstNoiseZ;
-            if (quartX >= 0 && quartZ >= 0 && quartX < this.sizeXZ && quartZ < this.sizeXZ) {
-                return this.values[quartX + quartZ * this.sizeXZ];
+            if (quartX >= 0 && quartZ >= 0 && quartX < this.sizeX && quartZ < this.sizeZ) {
+                return this.values[quartX + quartZ * this.sizeX];
             }
             return this.function.compute(context);
         }
@@ -519,6 +958,22 @@ public final class NoiseChunk implements DensityFunction.Context {
             this.function = function;
             this.values = new double[NoiseChunk.this.cellWidth * NoiseChunk.this.cellWidth
                     * NoiseChunk.this.cellHeight];
+            NoiseChunk.this.cellCaches.add(this);
+        }
+
+        void invalidate() {
+            this.lastCellY = Integer.MIN_VALUE;
+            this.lastCellZ = Integer.MIN_VALUE;
+        }
+
+        @Override
+        public double minValue() {
+            return this.function.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.function.maxValue();
         }
 
         @Override
@@ -6,14 +6,29 @@ import net.minestom.server.codec.Transcoder;
 import rocks.minestom.worldgen.biome.ClimateSampler;
 import rocks.minestom.worldgen.datapack.DataPack;
 import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.DensityFunctionCompiler;
+import rocks.minestom.worldgen.density.DensityFunctionSimplifier;
 import rocks.minestom.worldgen.surface.SurfaceRules;
 import rocks.minestom.worldgen.surface.SurfaceSystem;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public final class NoiseGeneratorSettingsLoader {
     private final DataPack dataPack;
+    private final boolean compileDensityFunctions;
 
     public NoiseGeneratorSettingsLoader(DataPack dataPack) {
+        this(dataPack, false);
+    }
+
+    /**
+     * @param compileDensityFunctions whether decoded density functions are compiled into
+     *                                generated classes by {@link DensityFunctionCompiler}
+     */
+    public NoiseGeneratorSettingsLoader(DataPack dataPack, boolean compileDensityFunctions) {
         this.dataPack = dataPack;
+        this.compileDensityFunctions = compileDensityFunctions;
     }
 
     public NoiseGeneratorSettingsRuntime load(Key id, long seed) {
@@ -22,20 +37,22 @@ public final class NoiseGeneratorSettingsLoader {
 
         var randomState = new RandomState(this.dataPack, seed, settings.legacyRandomSource());
         var densityResolver = new DensityFunctionResolver(this.dataPack, randomState);
+        // One memo for every router function, so nodes they share stay shared once compiled
+        var compiled = new IdentityHashMap<DensityFunction, DensityFunction>();
         var finalDensityJson = settings.noiseRouter().finalDensity().convertTo(Transcoder.JSON).orElseThrow();
-        var finalDensity = densityResolver.codec().decode(Transcoder.JSON, finalDensityJson).orElseThrow();
+        var finalDensity = this.optimize(densityResolver, compiled, densityResolver.codec().decode(Transcoder.JSON, finalDensityJson).orElseThrow());
 
         var climateSampler = new ClimateSampler(
-                decodeDensity(densityResolver, settings.noiseRouter().temperature()),
-                decodeDensity(densityResolver, settings.noiseRouter().vegetation()),
-                decodeDensity(densityResolver, settings.noiseRouter().continents()),
-                decodeDensity(densityResolver, settings.noiseRouter().erosion()),
-                decodeDensity(densityResolver, settings.noiseRouter().depth()),
-                decodeDensity(densityResolver, settings.noiseRouter().ridges())
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().temperature()),
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().vegetation()),
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().continents()),
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().erosion()),
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().depth()),
+                this.decodeDensity(densityResolver, compiled, settings.noiseRouter().ridges())
         );
 
         var surfaceRuleJson = settings.surfaceRule().convertTo(Transcoder.JSON).orElseThrow();
-        var surfaceRule = SurfaceRules.CODEC.decode(Transcoder.JSON, surfaceRuleJson).orElseThrow();
+        var surfaceRule = SurfaceRules.compile(SurfaceRules.CODEC.decode(Transcoder.JSON, surfaceRuleJson).orElseThrow(), randomState);
 
         var minY = settings.noise().minY();
         var height = settings.noise().height();
@@ -58,12 +75,22 @@ public final class NoiseGeneratorSettingsLoader {
                 climateSampler,
                 randomState,
                 surfaceSystem,
-                surfaceRule
+                surfaceRule,
+                new HeightSampler(minY, height, cellWidth, cellHeight, finalDensity)
         );
     }
 
-    private static DensityFunction decodeDensity(DensityFunctionResolver resolver, Codec.RawValue value) {
+    private DensityFunction decodeDensity(DensityFunctionResolver resolver, Map<DensityFunction, DensityFunction> compiled, Codec.RawValue value) {
         var json = value.convertTo(Transcoder.JSON).orElseThrow();
-        return resolver.codec().decode(Transcoder.JSON, json).orElseThrow();
+        return this.optimize(resolver, compiled, resolver.codec().decode(Transcoder.JSON, json).orElseThrow());
+    }
+
+    private DensityFunction optimize(DensityFunctionResolver resolver, Map<DensityFunction, DensityFunction> compiled, DensityFunction function) {
+        // Interning after simplification lets the final density and climate functions share nodes
+        var simplified = resolver.intern(DensityFunctionSimplifier.simplify(function));
+        if (!this.compileDensityFunctions) {
+            return simplified;
+        }
+        return DensityFunctionCompiler.compile(simplified, compiled);
     }
 }
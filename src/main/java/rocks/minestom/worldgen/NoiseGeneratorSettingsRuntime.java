@@ -18,7 +18,8 @@ public record NoiseGeneratorSettingsRuntime(
         ClimateSampler climateSampler,
         RandomState randomState,
         SurfaceSystem surfaceSystem,
-        SurfaceRules.RuleSource surfaceRule
+        SurfaceRules.RuleSource surfaceRule,
+        HeightSampler heightSampler
 ) {
     public int maxYInclusive() {
         return this.minY + this.height - 1;
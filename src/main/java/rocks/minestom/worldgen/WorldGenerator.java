@@ -6,17 +6,18 @@ import net.minestom.server.instance.generator.GenerationUnit;
 import net.minestom.server.instance.generator.Generator;
 import net.minestom.server.registry.RegistryKey;
 import net.minestom.server.world.biome.Biome;
+import rocks.minestom.worldgen.biome.BiomeGrid;
 import rocks.minestom.worldgen.biome.BiomeSource;
 import rocks.minestom.worldgen.biome.BiomeZoomer;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 import rocks.minestom.worldgen.feature.*;
 import rocks.minestom.worldgen.feature.placement.PlacementContext;
+import rocks.minestom.worldgen.random.PositionalRandomFactory;
 import rocks.minestom.worldgen.structure.placement.StructurePlacer;
 import rocks.minestom.worldgen.surface.BiomeResolver;
 import rocks.minestom.worldgen.surface.SurfaceRules;
 import rocks.minestom.worldgen.terrain.TerrainGenerator;
 
-import java.util.Arrays;
-
 /**
  * Orchestrates chunk generation by filling biomes, evaluating density to place
  * base blocks and fluids, applying surface rules, and placing features.
@@ -24,7 +25,13 @@ import java.util.Arrays;
  * in a chunk.
  */
 public final class WorldGenerator implements Generator {
+    // Stone further than this below a floor or above a ceiling is never resurfaced
+    private static final int SURFACE_STONE_DEPTH = 32;
+    // Rows at the bottom and top of the world that the surface rule always sees
+    private static final int SURFACE_EDGE_ROWS = 8;
+
     private final NoiseGeneratorSettingsRuntime settings;
+    private final TerrainGenerator terrainGenerator;
     private final BiomeSource biomeSource;
     private final BiomeZoomer biomeZoomer;
     private final BiomeResolver biomeResolver;
@@ -36,6 +43,7 @@ public final class WorldGenerator implements Generator {
             BiomeResolver biomeResolver, FeatureLoader featureLoader, StructurePlacer structurePlacer,
             boolean generateEndStructures) {
         this.settings = settings;
+        this.terrainGenerator = new TerrainGenerator(settings);
         this.biomeSource = biomeSource;
         this.biomeZoomer = new BiomeZoomer(biomeSource, biomeZoomSeed);
         this.biomeResolver = biomeResolver;
@@ -47,7 +55,6 @@ public final class WorldGenerator implements Generator {
     @Override
     public void generate(GenerationUnit unit) {
         var modifier = unit.modifier();
-        fillBiomesFromNoise(unit, this.biomeSource, this.settings.minY(), this.settings.maxYInclusive());
         var startX = unit.absoluteStart().blockX();
         var startY = unit.absoluteStart().blockY();
         var startZ = unit.absoluteStart().blockZ();
@@ -55,11 +62,18 @@ public final class WorldGenerator implements Generator {
         var sizeZ = unit.size().blockZ();
         var minY = this.settings.minY();
         var maxY = this.settings.maxYInclusive();
+
+        // Every biome lookup of this unit goes through one quart grid, and climate
+        // sampling shares flat cache columns with the terrain pass
+        var flatCacheMemo = new FlatCacheMemo(sizeX, sizeZ);
+        var biomeSource = this.biomeSource.withFlatCacheMemo(flatCacheMemo);
+        var biomeGrid = BiomeGrid.forBlocks(biomeSource, startX, minY, startZ, startX + sizeX - 1, maxY, startZ + sizeZ - 1);
+        var biomeZoomer = this.biomeZoomer.withSource(biomeGrid);
+        fillBiomesFromNoise(unit, biomeGrid, minY, maxY);
         var height = maxY - minY + 1;
         var defaultBlock = this.settings.defaultBlock();
 
-        var terrainGenerator = new TerrainGenerator(this.settings);
-        var terrainData = terrainGenerator.generate(unit);
+        var terrainData = this.terrainGenerator.generatePooled(unit, flatCacheMemo);
         var surfaceHeights = terrainData.surfaceHeights();
         var waterHeights = terrainData.waterHeights();
         var stoneMask = terrainData.stoneMask();
@@ -70,11 +84,10 @@ public final class WorldGenerator implements Generator {
                 this.settings.surfaceSystem(),
                 this.settings.randomState(),
                 this.biomeResolver,
-                this.biomeZoomer,
+                biomeZoomer,
                 minY,
-                maxY);
-        var stoneDepthAbove = new int[height];
-        var stoneDepthBelow = new int[height];
+                maxY,
+                surfaceRule);
 
         var shouldApplySurface = constantSurface == null || !constantSurface.equals(defaultBlock);
         for (var localX = 0; localX < sizeX; localX++) {
@@ -83,7 +96,6 @@ public final class WorldGenerator implements Generator {
             for (var localZ = 0; localZ < sizeZ; localZ++) {
                 var blockZ = startZ + localZ;
                 var surfaceIndex = localX * sizeZ + localZ;
-                var maskIndex = surfaceIndex * height;
                 var preliminarySurfaceLevel = surfaceHeights[surfaceIndex];
                 if (preliminarySurfaceLevel == Integer.MIN_VALUE) {
                     continue;
@@ -93,86 +105,60 @@ public final class WorldGenerator implements Generator {
                     continue;
                 }
 
-                Arrays.fill(stoneDepthAbove, 0);
-                Arrays.fill(stoneDepthBelow, 0);
-
-                for (var yIndex = height - 1; yIndex >= 0; yIndex--) {
-                    if (stoneMask[maskIndex + yIndex] == 0) {
-                        continue;
-                    }
-
-                    var aboveIndex = yIndex + 1;
-                    if (aboveIndex >= height || stoneMask[maskIndex + aboveIndex] == 0) {
-                        stoneDepthAbove[yIndex] = 1;
-                    } else {
-                        stoneDepthAbove[yIndex] = stoneDepthAbove[aboveIndex] + 1;
-                    }
-                }
-
-                for (var yIndex = 0; yIndex < height; yIndex++) {
-                    if (stoneMask[maskIndex + yIndex] == 0) {
-                        continue;
-                    }
-
-                    var belowIndex = yIndex - 1;
-                    if (belowIndex < 0 || stoneMask[maskIndex + belowIndex] == 0) {
-                        stoneDepthBelow[yIndex] = 1;
-                    } else {
-                        stoneDepthBelow[yIndex] = stoneDepthBelow[belowIndex] + 1;
-                    }
-                }
-
-                var steep = isSteep(surfaceHeights, sizeZ, localX, localZ);
+                var steep = isSteep(surfaceHeights, sizeX, sizeZ, localX, localZ);
                 surfaceContext.updateXZ(blockX, blockZ, preliminarySurfaceLevel, steep, waterHeights[surfaceIndex]);
+                var floorDepth = Math.min(SURFACE_STONE_DEPTH, surfaceContext.maxStoneDepth(SurfaceRules.SurfaceType.FLOOR));
+                var ceilingDepth = Math.min(SURFACE_STONE_DEPTH, surfaceContext.maxStoneDepth(SurfaceRules.SurfaceType.CEILING));
+
+                // Walk stone runs top-down; depths follow from each run's bounds
+                var yIndex = stoneMask.previousStone(surfaceIndex, height - 1);
+                while (yIndex >= 0) {
+                    var runTop = yIndex;
+                    var runBottom = stoneMask.runBottom(surfaceIndex, runTop);
+
+                    for (; yIndex >= runBottom; yIndex--) {
+                        var depthAbove = runTop - yIndex + 1;
+                        var depthBelow = yIndex - runBottom + 1;
+                        if (depthAbove > floorDepth && depthBelow > ceilingDepth
+                                && yIndex > SURFACE_EDGE_ROWS && yIndex < height - SURFACE_EDGE_ROWS) {
+                            // Skip the run's interior, down to its ceiling band or the bottom rows
+                            yIndex = Math.max(runBottom + ceilingDepth, SURFACE_EDGE_ROWS + 1);
+                            continue;
+                        }
 
-                for (var yIndex = height - 1; yIndex >= 0; yIndex--) {
-                    if (stoneMask[maskIndex + yIndex] == 0) {
-                        continue;
-                    }
-
-                    var depthAbove = stoneDepthAbove[yIndex];
-                    var depthBelow = stoneDepthBelow[yIndex];
-                    if (!shouldApplySurfaceRule(yIndex, height, depthAbove, depthBelow)) {
-                        continue;
+                        var blockY = minY + yIndex;
+                        surfaceContext.updateY(blockY, depthAbove, depthBelow);
+                        var newBlock = surfaceRule.tryApply(surfaceContext);
+                        if (newBlock != null && !newBlock.equals(defaultBlock)) {
+                            modifier.setRelative(localX, blockY - startY, localZ, newBlock);
+                        }
                     }
 
-                    var blockY = minY + yIndex;
-                    surfaceContext.updateY(blockY, depthAbove, depthBelow);
-                    var newBlock = surfaceRule.tryApply(surfaceContext);
-                    if (newBlock != null && !newBlock.equals(defaultBlock)) {
-                        modifier.setRelative(localX, blockY - startY, localZ, newBlock);
-                    }
+                    yIndex = stoneMask.previousStone(surfaceIndex, runBottom - 1);
                 }
             }
         }
 
         if (this.structurePlacer != null) {
-            this.structurePlacer.placeStructures(unit, surfaceHeights, this.biomeZoomer, this.settings);
+            this.structurePlacer.placeStructures(unit, surfaceHeights, biomeZoomer, this.settings);
         }
 
         if (this.generateEndStructures) {
             this.placeEndPodium(unit, surfaceHeights);
         }
 
-        this.placeFeatures(unit, surfaceHeights, waterHeights);
+        this.placeFeatures(unit, biomeZoomer, surfaceHeights, waterHeights);
     }
 
-    @SuppressWarnings("unchecked")
-    private void placeFeatures(GenerationUnit unit, int[] surfaceHeights, int[] waterHeights) {
+    /**
+     * Places features chunk by chunk, so every 16x16 chunk of the unit gets its own
+     * placement origin and the features of the biome at its centre.
+     */
+    private void placeFeatures(GenerationUnit unit, BiomeZoomer biomeZoomer, int[] surfaceHeights, int[] waterHeights) {
         var startX = unit.absoluteStart().blockX();
         var startZ = unit.absoluteStart().blockZ();
         var sizeX = unit.size().blockX();
         var sizeZ = unit.size().blockZ();
-        var centerLocalX = sizeX / 2;
-        var centerLocalZ = sizeZ / 2;
-        var centerSurfaceY = surfaceHeights[centerLocalX * sizeZ + centerLocalZ];
-
-        if (centerSurfaceY == Integer.MIN_VALUE) {
-            centerSurfaceY = this.settings.seaLevel();
-        }
-
-        var biomeKey = this.biomeZoomer.biome(startX + centerLocalX, centerSurfaceY, startZ + centerLocalZ);
-        var biomeFeatures = this.featureLoader.getBiomeFeatures(biomeKey);
 
         var forkPadding = 16;
         var forkStart = new BlockVec(startX - forkPadding, this.settings.minY(), startZ - forkPadding);
@@ -182,19 +168,38 @@ public final class WorldGenerator implements Generator {
         var levelAdapter = new GenerationUnitAdapter(featureUnit);
         var randomFactory = this.settings.randomState().getOrCreateRandomFactory(Key.key("minecraft:feature"));
 
-        var placementContext = new PlacementContext(
-                levelAdapter,
-                startX,
-                startZ,
-                sizeX,
-                sizeZ,
-                surfaceHeights,
-                waterHeights,
-                this.settings.minY(),
-                this.settings.maxYInclusive(),
-                this.settings.seaLevel(),
-                this.biomeZoomer,
-                biomeKey);
+        for (var chunkLocalX = 0; chunkLocalX < sizeX; chunkLocalX += 16) {
+            for (var chunkLocalZ = 0; chunkLocalZ < sizeZ; chunkLocalZ += 16) {
+                var centerLocalX = chunkLocalX + Math.min(8, (sizeX - chunkLocalX) / 2);
+                var centerLocalZ = chunkLocalZ + Math.min(8, (sizeZ - chunkLocalZ) / 2);
+                var centerSurfaceY = surfaceHeights[centerLocalX * sizeZ + centerLocalZ];
+                if (centerSurfaceY == Integer.MIN_VALUE) {
+                    centerSurfaceY = this.settings.seaLevel();
+                }
+
+                var biomeKey = biomeZoomer.biome(startX + centerLocalX, centerSurfaceY, startZ + centerLocalZ);
+                var placementContext = new PlacementContext(
+                        levelAdapter,
+                        startX,
+                        startZ,
+                        sizeX,
+                        sizeZ,
+                        surfaceHeights,
+                        waterHeights,
+                        this.settings.minY(),
+                        this.settings.maxYInclusive(),
+                        this.settings.seaLevel(),
+                        biomeZoomer,
+                        biomeKey);
+                this.placeChunkFeatures(placementContext, levelAdapter, randomFactory, biomeKey, startX + chunkLocalX, startZ + chunkLocalZ);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void placeChunkFeatures(PlacementContext placementContext, GenerationUnitAdapter levelAdapter,
+            PositionalRandomFactory randomFactory, Key biomeKey, int chunkX, int chunkZ) {
+        var biomeFeatures = this.featureLoader.getBiomeFeatures(biomeKey);
 
         for (var stepIndex = 0; stepIndex < biomeFeatures.size(); stepIndex++) {
             var step = biomeFeatures.get(stepIndex);
@@ -209,20 +214,22 @@ public final class WorldGenerator implements Generator {
                 var placementRandom = randomFactory
                         .fromHashOf(placedFeatureKey.asString() + ":" + stepIndex + ":" + featureIndex)
                         .forkPositional()
-                        .at(startX, 0, startZ);
+                        .at(chunkX, 0, chunkZ);
 
-                var origin = new BlockVec(startX, 0, startZ);
-                var placementPositions = placedFeature.getPositions(placementContext, placementRandom, origin);
+                var placementPositions = placedFeature.getPositions(placementContext, placementRandom, chunkX, 0, chunkZ);
 
-                for (var position : placementPositions) {
-                    if (position.blockY() < this.settings.minY() || position.blockY() > this.settings.maxYInclusive()) {
+                for (var positionIndex = 0; positionIndex < placementPositions.size(); positionIndex++) {
+                    var blockX = placementPositions.blockX(positionIndex);
+                    var blockY = placementPositions.blockY(positionIndex);
+                    var blockZ = placementPositions.blockZ(positionIndex);
+                    if (blockY < this.settings.minY() || blockY > this.settings.maxYInclusive()) {
                         continue;
                     }
 
                     var featureRandom = randomFactory
                             .fromHashOf(placedFeatureKey.asString() + ":" + stepIndex + ":" + featureIndex)
                             .forkPositional()
-                            .at(position.blockX(), position.blockY(), position.blockZ());
+                            .at(blockX, blockY, blockZ);
 
                     var configuredFeature = placedFeature.configuredFeature(this.featureLoader);
                     if (configuredFeature == null) {
@@ -232,7 +239,7 @@ public final class WorldGenerator implements Generator {
                     var context = new FeaturePlaceContext<>(
                             levelAdapter,
                             featureRandom,
-                            position,
+                            new BlockVec(blockX, blockY, blockZ),
                             configuredFeature.config(),
                             this.settings.randomState().seed(),
                             this.settings.minY(),
@@ -249,17 +256,21 @@ public final class WorldGenerator implements Generator {
         }
     }
 
-    private static boolean isSteep(int[] surfaceHeights, int sizeZ, int localX, int localZ) {
-        var southZ = Math.max(localZ - 1, 0);
-        var northZ = Math.min(localZ + 1, sizeZ - 1);
+    /**
+     * Neighbours are clamped to the column's own 16x16 chunk, so the result does not
+     * depend on how many chunks the generation unit spans.
+     */
+    private static boolean isSteep(int[] surfaceHeights, int sizeX, int sizeZ, int localX, int localZ) {
+        var southZ = Math.max(localZ - 1, localZ & ~15);
+        var northZ = Math.min(localZ + 1, Math.min(localZ | 15, sizeZ - 1));
         var southHeight = surfaceHeights[localX * sizeZ + southZ];
         var northHeight = surfaceHeights[localX * sizeZ + northZ];
         if (northHeight >= southHeight + 4) {
             return true;
         }
 
-        var westX = Math.max(localX - 1, 0);
-        var eastX = Math.min(localX + 1, surfaceHeights.length / sizeZ - 1);
+        var westX = Math.max(localX - 1, localX & ~15);
+        var eastX = Math.min(localX + 1, Math.min(localX | 15, sizeX - 1));
         var westHeight = surfaceHeights[westX * sizeZ + localZ];
         var eastHeight = surfaceHeights[eastX * sizeZ + localZ];
         return westHeight >= eastHeight + 4;
@@ -294,14 +305,6 @@ public final class WorldGenerator implements Generator {
         EndPodiumFeature.place(levelAdapter, new BlockVec(0, surfaceY, 0), false);
     }
 
-    private static boolean shouldApplySurfaceRule(int yIndex, int height, int stoneDepthAbove, int stoneDepthBelow) {
-        if (yIndex <= 8 || yIndex >= height - 8) {
-            return true;
-        }
-
-        return stoneDepthAbove <= 32 || stoneDepthBelow <= 32;
-    }
-
     private static void fillBiomesFromNoise(GenerationUnit unit, BiomeSource biomes, int minY, int maxY) {
         var startX = unit.absoluteStart().blockX();
         var startZ = unit.absoluteStart().blockZ();
@@ -33,6 +33,14 @@ public final class WorldGenerators {
     private final long biomeZoomSeed;
 
     public WorldGenerators(Path rootPath, long seed) {
+        this(rootPath, seed, false);
+    }
+
+    /**
+     * @param compileDensityFunctions whether noise router density functions are compiled
+     *                                into generated classes instead of being interpreted
+     */
+    public WorldGenerators(Path rootPath, long seed, boolean compileDensityFunctions) {
         this.dataPack = new DataPack(rootPath);
         this.biomeResolver = new DataPackBiomeResolver(this.dataPack);
         this.featureLoader = new FeatureLoader(this.dataPack);
@@ -63,7 +71,7 @@ public final class WorldGenerators {
         this.biomeZoomSeed = BiomeZoomer.obfuscateSeed(seed);
         var worldPresetJson = this.dataPack.readWorldPreset(Key.key("minecraft:normal"));
         var worldPreset = WorldPreset.CODEC.decode(Transcoder.JSON, worldPresetJson).orElseThrow();
-        var loader = new NoiseGeneratorSettingsLoader(this.dataPack);
+        var loader = new NoiseGeneratorSettingsLoader(this.dataPack, compileDensityFunctions);
 
         var overworld = getDimension(worldPreset, Key.key("minecraft:overworld"));
         this.overworldSettings = loader.load(overworld.generator().settings(), seed);
@@ -0,0 +1,67 @@
+package rocks.minestom.worldgen.biome;
+
+import net.kyori.adventure.key.Key;
+
+/**
+ * Quart-resolution biomes of one generation unit, resolved at most once each.
+ * <p>
+ * The grid covers the unit's quarts plus the one-quart border below each axis that
+ * {@link BiomeZoomer} reaches into, so noise biome filling, surface rules, feature
+ * placement and structure placement all share the same lookups. Quarts outside the grid
+ * fall through to the wrapped source. A grid is meant for the thread generating its unit.
+ */
+public final class BiomeGrid implements BiomeSource {
+    private final BiomeSource source;
+    private final int minQuartX;
+    private final int minQuartY;
+    private final int minQuartZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final Key[] biomes;
+
+    public BiomeGrid(BiomeSource source, int minQuartX, int minQuartY, int minQuartZ, int sizeX, int sizeY, int sizeZ) {
+        this.source = source;
+        this.minQuartX = minQuartX;
+        this.minQuartY = minQuartY;
+        this.minQuartZ = minQuartZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.biomes = new Key[sizeX * sizeY * sizeZ];
+    }
+
+    /**
+     * Creates the grid for the blocks from ({@code startX}, {@code minY}, {@code startZ})
+     * to ({@code endX}, {@code maxY}, {@code endZ}), inclusive, including the border
+     * {@link BiomeZoomer} needs.
+     */
+    public static BiomeGrid forBlocks(BiomeSource source, int startX, int minY, int startZ, int endX, int maxY, int endZ) {
+        var minQuartX = (startX - 2) >> 2;
+        var minQuartY = (minY - 2) >> 2;
+        var minQuartZ = (startZ - 2) >> 2;
+        var maxQuartX = ((endX - 2) >> 2) + 1;
+        var maxQuartY = ((maxY - 2) >> 2) + 1;
+        var maxQuartZ = ((endZ - 2) >> 2) + 1;
+        return new BiomeGrid(source, minQuartX, minQuartY, minQuartZ,
+                maxQuartX - minQuartX + 1, maxQuartY - minQuartY + 1, maxQuartZ - minQuartZ + 1);
+    }
+
+    @Override
+    public Key biome(int quartX, int quartY, int quartZ) {
+        var x = quartX - this.minQuartX;
+        var y = quartY - this.minQuartY;
+        var z = quartZ - this.minQuartZ;
+        if (x < 0 || x >= this.sizeX || y < 0 || y >= this.sizeY || z < 0 || z >= this.sizeZ) {
+            return this.source.biome(quartX, quartY, quartZ);
+        }
+
+        var index = (x * this.sizeZ + z) * this.sizeY + y;
+        var biome = this.biomes[index];
+        if (biome == null) {
+            biome = this.source.biome(quartX, quartY, quartZ);
+            this.biomes[index] = biome;
+        }
+        return biome;
+    }
+}
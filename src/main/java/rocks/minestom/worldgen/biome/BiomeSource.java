@@ -1,6 +1,7 @@
 package rocks.minestom.worldgen.biome;
 
 import net.kyori.adventure.key.Key;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 
 /**
  * Chooses a biome for a coordinate based on climate sampling inputs.
@@ -9,4 +10,12 @@ import net.kyori.adventure.key.Key;
  */
 public interface BiomeSource {
     Key biome(int quartX, int quartY, int quartZ);
+
+    /**
+     * Returns a source for one generation unit whose climate sampling shares flat cache
+     * columns with the unit's terrain pass through {@code flatCacheMemo}.
+     */
+    default BiomeSource withFlatCacheMemo(FlatCacheMemo flatCacheMemo) {
+        return this;
+    }
 }
@@ -18,6 +18,14 @@ public final class BiomeZoomer {
         this.zoomSeed = zoomSeed;
     }
 
+    /**
+     * Returns a zoomer with the same seed that resolves quarts through {@code source},
+     * such as a {@link BiomeGrid} wrapping this zoomer's source.
+     */
+    public BiomeZoomer withSource(BiomeSource source) {
+        return new BiomeZoomer(source, this.zoomSeed);
+    }
+
     public static long obfuscateSeed(long seed) {
         try {
             var digest = MessageDigest.getInstance("SHA-256");
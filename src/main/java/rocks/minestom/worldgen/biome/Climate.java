@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
 
 /**
  * Holds the climate parameter space and lookup structures used to map noise samples to biomes.
@@ -116,9 +118,6 @@ public final class Climate {
             long depth,
             long weirdness
     ) {
-        private long[] toParameterArray() {
-            return new long[]{this.temperature, this.humidity, this.continentalness, this.erosion, this.depth, this.weirdness, 0L};
-        }
     }
 
     public record ParameterPoint(
@@ -159,17 +158,23 @@ public final class Climate {
         }
     }
 
-    private interface DistanceMetric<T> {
-        long distance(RTree.Node<T> node, long[] parameters);
-    }
-
     public static final class ParameterList<T> {
         private final List<Pair<ParameterPoint, T>> values;
         private final RTree<T> index;
+        private final LookupGrid<T> grid;
 
         public ParameterList(List<Pair<ParameterPoint, T>> values) {
+            this(values, false);
+        }
+
+        /**
+         * Creates a parameter list, optionally answering {@link #findValue} through a
+         * {@link LookupGrid}. Worth it for large lists that are looked up many times.
+         */
+        public ParameterList(List<Pair<ParameterPoint, T>> values, boolean lookupGrid) {
             this.values = values;
             this.index = RTree.create(values);
+            this.grid = lookupGrid ? new LookupGrid<>(this.index) : null;
         }
 
         public List<Pair<ParameterPoint, T>> values() {
@@ -177,27 +182,225 @@ public final class Climate {
         }
 
         public T findValue(TargetPoint targetPoint) {
-            return this.findValueIndex(targetPoint);
+            if (this.grid != null) {
+                return this.grid.findValue(targetPoint);
+            }
+
+            return this.index.value(this.index.search(targetPoint));
+        }
+    }
+
+    /**
+     * Coarse grid over the quantized climate space, splitting every axis at the bounds of
+     * the list's parameters and extending one span past the outermost bounds.
+     * <p>
+     * Each grid cell lists the entries that can be closest to some point of the cell,
+     * found once by bounding every entry's distance over the cell. When they all share a
+     * value, lookups in the cell return it directly; otherwise only those candidates are
+     * compared, and the tree is searched only for points that lie outside the grid, on a
+     * bound, or equally close to candidates with different values. Results always match a search of
+     * the tree. Cells are built on first use, and racing threads build identical cells.
+     */
+    private static final class LookupGrid<T> {
+        private static final int AXES = PARAMETER_COUNT - 1;
+
+        private final RTree<T> tree;
+        private final long[][] bounds;
+        private final long[] spans;
+        private final int[] strides;
+        private final GridCell[] cells;
+
+        private LookupGrid(RTree<T> tree) {
+            this.tree = tree;
+            this.bounds = new long[AXES][];
+            this.spans = new long[AXES];
+            this.strides = new int[AXES];
+
+            var cellCount = 1;
+            for (var axis = AXES - 1; axis >= 0; axis--) {
+                var axisBounds = new TreeSet<Long>();
+                for (var node = 0; node < tree.values.length; node++) {
+                    if (tree.childCounts[node] == 0) {
+                        axisBounds.add(tree.minimums[node * PARAMETER_COUNT + axis]);
+                        axisBounds.add(tree.maximums[node * PARAMETER_COUNT + axis]);
+                    }
+                }
+
+                this.bounds[axis] = axisBounds.stream().mapToLong(Long::longValue).toArray();
+                this.spans[axis] = Math.max(axisBounds.last() - axisBounds.first(), quantizeCoord(1.0F));
+                this.strides[axis] = cellCount;
+                cellCount = Math.multiplyExact(cellCount, this.bounds[axis].length + 1);
+            }
+
+            this.cells = new GridCell[cellCount];
+        }
+
+        private T findValue(TargetPoint target) {
+            var cellIndex = this.cellIndex(target);
+            if (cellIndex < 0) {
+                return this.tree.values[this.tree.search(target)];
+            }
+
+            var cell = this.cells[cellIndex];
+            if (cell == null) {
+                cell = this.buildCell(cellIndex);
+                this.cells[cellIndex] = cell;
+            }
+
+            var candidates = cell.candidates();
+            if (candidates == null) {
+                return this.tree.values[cell.leaf()];
+            }
+
+            var best = candidates[0];
+            var bestDistance = this.tree.distance(best, target);
+            var tied = false;
+            for (var index = 1; index < candidates.length; index++) {
+                var candidate = candidates[index];
+                var distance = this.tree.distance(candidate, target);
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                    tied = false;
+                } else if (distance == bestDistance && !Objects.equals(this.tree.values[candidate], this.tree.values[best])) {
+                    tied = true;
+                }
+            }
+
+            // Which of several equally close values wins depends on the tree's traversal order
+            return tied ? this.tree.values[this.tree.search(target)] : this.tree.values[best];
         }
 
-        private T findValueIndex(TargetPoint targetPoint) {
-            return this.findValueIndex(targetPoint, RTree.Node::distance);
+        private int cellIndex(TargetPoint target) {
+            var temperature = this.interval(0, target.temperature);
+            var humidity = this.interval(1, target.humidity);
+            var continentalness = this.interval(2, target.continentalness);
+            var erosion = this.interval(3, target.erosion);
+            var depth = this.interval(4, target.depth);
+            var weirdness = this.interval(5, target.weirdness);
+            if ((temperature | humidity | continentalness | erosion | depth | weirdness) < 0) {
+                return -1;
+            }
+
+            return temperature * this.strides[0] + humidity * this.strides[1] + continentalness * this.strides[2]
+                    + erosion * this.strides[3] + depth * this.strides[4] + weirdness * this.strides[5];
         }
 
-        private T findValueIndex(TargetPoint targetPoint, DistanceMetric<T> metric) {
-            return this.index.search(targetPoint, metric);
+        /**
+         * Returns the interval of {@code value} on an axis, or -1 outside the grid. Interval
+         * {@code i} lies strictly between bound {@code i - 1} and bound {@code i}; values on
+         * a bound are left to the tree, since entries meeting there are equally close.
+         */
+        private int interval(int axis, long value) {
+            var axisBounds = this.bounds[axis];
+            var span = this.spans[axis];
+            if (value < axisBounds[0] - span || value > axisBounds[axisBounds.length - 1] + span) {
+                return -1;
+            }
+
+            var index = 0;
+            while (index < axisBounds.length && axisBounds[index] < value) {
+                index++;
+            }
+            return index < axisBounds.length && axisBounds[index] == value ? -1 : index;
+        }
+
+        private GridCell buildCell(int cellIndex) {
+            var lows = new long[PARAMETER_COUNT];
+            var highs = new long[PARAMETER_COUNT];
+            for (var axis = 0; axis < AXES; axis++) {
+                var interval = cellIndex / this.strides[axis] % (this.bounds[axis].length + 1);
+                var axisBounds = this.bounds[axis];
+                lows[axis] = interval == 0 ? axisBounds[0] - this.spans[axis] : axisBounds[interval - 1] + 1L;
+                highs[axis] = interval == axisBounds.length ? axisBounds[axisBounds.length - 1] + this.spans[axis] : axisBounds[interval] - 1L;
+            }
+
+            // Entries that lose everywhere in the cell to the one closest to its center are
+            // skipped while walking the tree; of the rest, entries that lose to another
+            // everywhere are dropped, trying the closest ones first
+            var center = new TargetPoint((lows[0] + highs[0]) / 2L, (lows[1] + highs[1]) / 2L, (lows[2] + highs[2]) / 2L,
+                    (lows[3] + highs[3]) / 2L, (lows[4] + highs[4]) / 2L, (lows[5] + highs[5]) / 2L);
+            var reachable = new ArrayList<Integer>();
+            this.tree.collect(0, this.tree.search(center), lows, highs, reachable);
+            reachable.sort(Comparator.comparingLong(leaf -> this.tree.distance(leaf, center)));
+
+            var candidates = new ArrayList<Integer>();
+            for (var leaf : reachable) {
+                if (!this.beaten(leaf, candidates, lows, highs)) {
+                    candidates.add(leaf);
+                }
+            }
+            candidates.removeIf(leaf -> this.beaten(leaf, candidates, lows, highs));
+
+            var first = candidates.getFirst();
+            for (var candidate : candidates) {
+                if (!Objects.equals(this.tree.values[candidate], this.tree.values[first])) {
+                    return new GridCell(-1, candidates.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+            return new GridCell(first, null);
+        }
+
+        private boolean beaten(int leaf, List<Integer> others, long[] lows, long[] highs) {
+            for (var other : others) {
+                if (other != leaf && this.tree.closerInside(other, leaf, lows, highs)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
+    /**
+     * A cell of a {@link LookupGrid}: either the leaf whose value wins everywhere in the
+     * cell, or the leaves that can win somewhere in it.
+     */
+    private record GridCell(int leaf, int[] candidates) {
+    }
+
     private static final class RTree<T> {
         private static final int CHILDREN_PER_NODE = 6;
 
-        private final Node<T> root;
-        private final ThreadLocal<Leaf<T>> lastResult;
+        // Nodes in breadth-first order, so the children of a node are contiguous
+        private final long[] minimums;
+        private final long[] maximums;
+        private final int[] childStarts;
+        private final int[] childCounts;
+        private final T[] values;
 
         private RTree(Node<T> root) {
-            this.root = root;
-            this.lastResult = new ThreadLocal<>();
+            var nodes = new ArrayList<Node<T>>();
+            nodes.add(root);
+            for (var index = 0; index < nodes.size(); index++) {
+                if (nodes.get(index) instanceof SubTree<T> subTree) {
+                    nodes.addAll(Arrays.asList(subTree.children));
+                }
+            }
+
+            this.minimums = new long[nodes.size() * PARAMETER_COUNT];
+            this.maximums = new long[nodes.size() * PARAMETER_COUNT];
+            this.childStarts = new int[nodes.size()];
+            this.childCounts = new int[nodes.size()];
+            @SuppressWarnings("unchecked")
+            var values = (T[]) new Object[nodes.size()];
+            this.values = values;
+
+            var nextChild = 1;
+            for (var index = 0; index < nodes.size(); index++) {
+                var node = nodes.get(index);
+                for (var axis = 0; axis < PARAMETER_COUNT; axis++) {
+                    this.minimums[index * PARAMETER_COUNT + axis] = node.parameterSpace[axis].min;
+                    this.maximums[index * PARAMETER_COUNT + axis] = node.parameterSpace[axis].max;
+                }
+
+                if (node instanceof SubTree<T> subTree) {
+                    this.childStarts[index] = nextChild;
+                    this.childCounts[index] = subTree.children.length;
+                    nextChild += subTree.children.length;
+                } else if (node instanceof Leaf<T> leaf) {
+                    this.values[index] = leaf.value;
+                }
+            }
         }
 
         private static <T> RTree<T> create(List<Pair<ParameterPoint, T>> values) {
@@ -339,11 +542,100 @@ public final class Climate {
             return parameters;
         }
 
-        private T search(TargetPoint targetPoint, DistanceMetric<T> metric) {
-            var target = targetPoint.toParameterArray();
-            var leaf = this.root.search(target, this.lastResult.get(), metric);
-            this.lastResult.set(leaf);
-            return leaf.value;
+        private T value(int index) {
+            if (index < 0 || index >= this.values.length || this.childCounts[index] != 0) {
+                throw new IllegalArgumentException("Not a leaf index: " + index);
+            }
+
+            return this.values[index];
+        }
+
+        private int search(TargetPoint target) {
+            if (this.childCounts[0] == 0) {
+                return 0;
+            }
+
+            return this.search(0, target, -1);
+        }
+
+        private int search(int node, TargetPoint target, int previousBest) {
+            var bestDistance = previousBest < 0 ? Long.MAX_VALUE : this.distance(previousBest, target);
+            var bestLeaf = previousBest;
+            var end = this.childStarts[node] + this.childCounts[node];
+
+            for (var child = this.childStarts[node]; child < end; child++) {
+                var childDistance = this.distance(child, target);
+                if (childDistance >= bestDistance) {
+                    continue;
+                }
+
+                var leaf = this.childCounts[child] == 0 ? child : this.search(child, target, bestLeaf);
+                var leafDistance = child == leaf ? childDistance : this.distance(leaf, target);
+                if (leafDistance < bestDistance) {
+                    bestDistance = leafDistance;
+                    bestLeaf = leaf;
+                }
+            }
+
+            return bestLeaf;
+        }
+
+        private long distance(int node, TargetPoint target) {
+            var offset = node * PARAMETER_COUNT;
+            return this.distance(offset, target.temperature)
+                    + this.distance(offset + 1, target.humidity)
+                    + this.distance(offset + 2, target.continentalness)
+                    + this.distance(offset + 3, target.erosion)
+                    + this.distance(offset + 4, target.depth)
+                    + this.distance(offset + 5, target.weirdness)
+                    + this.distance(offset + 6, 0L);
+        }
+
+        /**
+         * Returns whether leaf {@code first} is strictly closer than every leaf under
+         * {@code second} to every point of a box that no parameter bound cuts through.
+         * Each axis then adds a quadratic or zero distance to both leaves, so their
+         * difference peaks at a corner, and a node is never further than its leaves.
+         */
+        private boolean closerInside(int first, int second, long[] lows, long[] highs) {
+            var firstOffset = first * PARAMETER_COUNT;
+            var secondOffset = second * PARAMETER_COUNT;
+            var sum = 0L;
+            for (var axis = 0; axis < PARAMETER_COUNT; axis++) {
+                var low = this.distance(firstOffset + axis, lows[axis]) - this.distance(secondOffset + axis, lows[axis]);
+                var high = this.distance(firstOffset + axis, highs[axis]) - this.distance(secondOffset + axis, highs[axis]);
+                sum += Math.max(low, high);
+            }
+            return sum < 0L;
+        }
+
+        /**
+         * Adds the leaves below {@code node} that {@code nearest} is not closer than everywhere in the box.
+         */
+        private void collect(int node, int nearest, long[] lows, long[] highs, List<Integer> leaves) {
+            if (this.closerInside(nearest, node, lows, highs)) {
+                return;
+            }
+
+            if (this.childCounts[node] == 0) {
+                leaves.add(node);
+                return;
+            }
+
+            var end = this.childStarts[node] + this.childCounts[node];
+            for (var child = this.childStarts[node]; child < end; child++) {
+                this.collect(child, nearest, lows, highs, leaves);
+            }
+        }
+
+        /**
+         * Squared distance from {@code value} to one bound of a node, as {@link Parameter#distance(long)}.
+         */
+        private long distance(int index, long value) {
+            var above = value - this.maximums[index];
+            var below = this.minimums[index] - value;
+            var distance = above > 0L ? above : Math.max(below, 0L);
+            return distance * distance;
         }
 
         private abstract static class Node<T> {
@@ -352,17 +644,6 @@ public final class Climate {
             protected Node(List<Parameter> parameterSpace) {
                 this.parameterSpace = parameterSpace.toArray(new Parameter[0]);
             }
-
-            protected abstract Leaf<T> search(long[] target, Leaf<T> previousBest, DistanceMetric<T> metric);
-
-            protected long distance(long[] target) {
-                var sum = 0L;
-                for (var index = 0; index < PARAMETER_COUNT; index++) {
-                    var distance = this.parameterSpace[index].distance(target[index]);
-                    sum += distance * distance;
-                }
-                return sum;
-            }
         }
 
         private static final class Leaf<T> extends Node<T> {
@@ -372,11 +653,6 @@ public final class Climate {
                 super(parameters.parameterSpace());
                 this.value = value;
             }
-
-            @Override
-            protected Leaf<T> search(long[] target, Leaf<T> previousBest, DistanceMetric<T> metric) {
-                return this;
-            }
         }
 
         private static final class SubTree<T> extends Node<T> {
@@ -392,28 +668,6 @@ public final class Climate {
                 var array = (Node<T>[]) children.toArray(new Node[0]);
                 this.children = array;
             }
-
-            @Override
-            protected Leaf<T> search(long[] target, Leaf<T> previousBest, DistanceMetric<T> metric) {
-                var bestDistance = previousBest == null ? Long.MAX_VALUE : metric.distance(previousBest, target);
-                var bestLeaf = previousBest;
-
-                for (var child : this.children) {
-                    var childDistance = metric.distance(child, target);
-                    if (childDistance >= bestDistance) {
-                        continue;
-                    }
-
-                    var leaf = child.search(target, bestLeaf, metric);
-                    var leafDistance = child == leaf ? childDistance : metric.distance(leaf, target);
-                    if (leafDistance < bestDistance) {
-                        bestDistance = leafDistance;
-                        bestLeaf = leaf;
-                    }
-                }
-
-                return bestLeaf;
-            }
         }
     }
 }
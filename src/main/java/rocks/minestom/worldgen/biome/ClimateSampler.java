@@ -1,6 +1,7 @@
 package rocks.minestom.worldgen.biome;
 
 import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 
 public final class ClimateSampler {
     private final DensityFunction temperature;
@@ -9,7 +10,7 @@ public final class ClimateSampler {
     private final DensityFunction erosion;
     private final DensityFunction depth;
     private final DensityFunction weirdness;
-    private final SinglePointContext context;
+    private final FlatCacheMemo flatCacheMemo;
 
     public ClimateSampler(
             DensityFunction temperature,
@@ -18,6 +19,18 @@ public final class ClimateSampler {
             DensityFunction erosion,
             DensityFunction depth,
             DensityFunction weirdness
+    ) {
+        this(temperature, humidity, continentalness, erosion, depth, weirdness, null);
+    }
+
+    private ClimateSampler(
+            DensityFunction temperature,
+            DensityFunction humidity,
+            DensityFunction continentalness,
+            DensityFunction erosion,
+            DensityFunction depth,
+            DensityFunction weirdness,
+            FlatCacheMemo flatCacheMemo
     ) {
         this.temperature = temperature;
         this.humidity = humidity;
@@ -25,53 +38,44 @@ public final class ClimateSampler {
         this.erosion = erosion;
         this.depth = depth;
         this.weirdness = weirdness;
-        this.context = new SinglePointContext();
+        this.flatCacheMemo = flatCacheMemo;
+    }
+
+    /**
+     * Returns a sampler over the same functions whose flat caches share columns through
+     * {@code flatCacheMemo}, which must only be used by one thread.
+     */
+    public ClimateSampler withFlatCacheMemo(FlatCacheMemo flatCacheMemo) {
+        return new ClimateSampler(this.temperature, this.humidity, this.continentalness, this.erosion, this.depth, this.weirdness, flatCacheMemo);
     }
 
     public DensityFunction erosion() {
         return this.erosion;
     }
 
+    public FlatCacheMemo flatCacheMemo() {
+        return this.flatCacheMemo;
+    }
+
+    /**
+     * Samples the climate at a quart position. Safe to call from several threads at once,
+     * since the point context is created per call and never escapes it, unless the sampler
+     * carries a flat cache memo.
+     */
     public Climate.TargetPoint sample(int quartX, int quartY, int quartZ) {
-        var blockX = quartX << 2;
-        var blockY = quartY << 2;
-        var blockZ = quartZ << 2;
-        this.context.setBlock(blockX, blockY, blockZ);
+        var context = new SinglePointContext(quartX << 2, quartY << 2, quartZ << 2, this.flatCacheMemo);
 
         return Climate.target(
-                (float) this.temperature.compute(this.context),
-                (float) this.humidity.compute(this.context),
-                (float) this.continentalness.compute(this.context),
-                (float) this.erosion.compute(this.context),
-                (float) this.depth.compute(this.context),
-                (float) this.weirdness.compute(this.context)
+                (float) this.temperature.compute(context),
+                (float) this.humidity.compute(context),
+                (float) this.continentalness.compute(context),
+                (float) this.erosion.compute(context),
+                (float) this.depth.compute(context),
+                (float) this.weirdness.compute(context)
         );
     }
 
-    private static final class SinglePointContext implements DensityFunction.Context {
-        private int blockX;
-        private int blockY;
-        private int blockZ;
-
-        private void setBlock(int blockX, int blockY, int blockZ) {
-            this.blockX = blockX;
-            this.blockY = blockY;
-            this.blockZ = blockZ;
-        }
-
-        @Override
-        public int blockX() {
-            return this.blockX;
-        }
-
-        @Override
-        public int blockY() {
-            return this.blockY;
-        }
-
-        @Override
-        public int blockZ() {
-            return this.blockZ;
-        }
+    private record SinglePointContext(int blockX, int blockY, int blockZ, FlatCacheMemo flatCacheMemo)
+            implements DensityFunction.Context {
     }
 }
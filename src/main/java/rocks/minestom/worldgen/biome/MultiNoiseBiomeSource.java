@@ -1,6 +1,7 @@
 package rocks.minestom.worldgen.biome;
 
 import net.kyori.adventure.key.Key;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 
 /**
  * Biome source that selects biomes by comparing multi-noise climate samples to parameter ranges.
@@ -12,4 +13,9 @@ public record MultiNoiseBiomeSource(ClimateSampler sampler, Climate.ParameterLis
     public Key biome(int quartX, int quartY, int quartZ) {
         return this.parameters.findValue(this.sampler.sample(quartX, quartY, quartZ));
     }
+
+    @Override
+    public BiomeSource withFlatCacheMemo(FlatCacheMemo flatCacheMemo) {
+        return new MultiNoiseBiomeSource(this.sampler.withFlatCacheMemo(flatCacheMemo), this.parameters);
+    }
 }
@@ -31,6 +31,6 @@ public final class MultiNoiseBiomeSourceParameterList {
         var parameters = new ArrayList<Pair<Climate.ParameterPoint, Key>>();
         var builder = new OverworldBiomeBuilder();
         builder.addBiomes(parameters::add);
-        return new Climate.ParameterList<>(parameters);
+        return new Climate.ParameterList<>(parameters, true);
     }
 }
@@ -2,6 +2,7 @@ package rocks.minestom.worldgen.biome;
 
 import net.kyori.adventure.key.Key;
 import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 
 public final class TheEndBiomeSource implements BiomeSource {
     private static final Key THE_END = Key.key("minecraft:the_end");
@@ -11,11 +12,14 @@ public final class TheEndBiomeSource implements BiomeSource {
     private static final Key END_BARRENS = Key.key("minecraft:end_barrens");
 
     private final ClimateSampler climateSampler;
-    private final DensityFunction.Context context;
 
     public TheEndBiomeSource(ClimateSampler climateSampler) {
         this.climateSampler = climateSampler;
-        this.context = new SinglePointContext();
+    }
+
+    @Override
+    public BiomeSource withFlatCacheMemo(FlatCacheMemo flatCacheMemo) {
+        return new TheEndBiomeSource(this.climateSampler.withFlatCacheMemo(flatCacheMemo));
     }
 
     @Override
@@ -31,8 +35,8 @@ public final class TheEndBiomeSource implements BiomeSource {
         } else {
             var centerBlockX = (sectionX * 2 + 1) * 8;
             var centerBlockZ = (sectionZ * 2 + 1) * 8;
-            ((SinglePointContext) this.context).setBlock(centerBlockX, blockY, centerBlockZ);
-            var erosion = this.climateSampler.erosion().compute(this.context);
+            var context = new SinglePointContext(centerBlockX, blockY, centerBlockZ, this.climateSampler.flatCacheMemo());
+            var erosion = this.climateSampler.erosion().compute(context);
 
             if (erosion > 0.25D) {
                 return END_HIGHLANDS;
@@ -44,30 +48,7 @@ public final class TheEndBiomeSource implements BiomeSource {
         }
     }
 
-    private static final class SinglePointContext implements DensityFunction.Context {
-        private int blockX;
-        private int blockY;
-        private int blockZ;
-
-        private void setBlock(int blockX, int blockY, int blockZ) {
-            this.blockX = blockX;
-            this.blockY = blockY;
-            this.blockZ = blockZ;
-        }
-
-        @Override
-        public int blockX() {
-            return this.blockX;
-        }
-
-        @Override
-        public int blockY() {
-            return this.blockY;
-        }
-
-        @Override
-        public int blockZ() {
-            return this.blockZ;
-        }
+    private record SinglePointContext(int blockX, int blockY, int blockZ, FlatCacheMemo flatCacheMemo)
+            implements DensityFunction.Context {
     }
 }
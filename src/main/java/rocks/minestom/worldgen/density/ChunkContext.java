@@ -2,19 +2,55 @@ package rocks.minestom.worldgen.density;
 
 import rocks.minestom.worldgen.VMath;
 import rocks.minestom.worldgen.density.DensityFunctions.Interpolated;
+import rocks.minestom.worldgen.random.RandomSupport;
 
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.function.Supplier;
 
+/**
+ * Evaluation context that honours the cache markers of a density function tree outside
+ * of a {@link rocks.minestom.worldgen.NoiseChunk}.
+ * <p>
+ * The context gives every marker it meets a dense slot, by identity, and the per-marker
+ * state lives in primitive arrays indexed by that slot. Markers therefore never share
+ * state, whichever resolver produced them. Interpolated corners and
+ * per-cell values are kept in small direct-mapped tables per slot, so a long-lived
+ * context stays bounded: a new cell simply evicts whatever occupied its entry.
+ * <p>
+ * Nothing in the generator creates one any more, since structure height lookups moved to
+ * {@link rocks.minestom.worldgen.HeightSampler}; it remains for callers that evaluate
+ * marked trees point by point.
+ */
 public final class ChunkContext implements DensityFunction.Context {
+    private static final int CELL_ENTRIES = 64;
+    private static final long NO_CELL = -1L;
+    private static final long PACKED_XZ_MASK = (1L << 26) - 1L;
+    private static final long PACKED_Y_MASK = (1L << 11) - 1L;
+
     private final int cellWidth;
     private final int cellHeight;
-    private final Map<Interpolated, LongObjectCache<double[]>> interpolationCache;
-    private final Map<DensityFunctions.CacheOnce, CacheOnceState> cacheOnce;
-    private final Map<DensityFunctions.Cache2D, Cache2DState> cache2D;
-    private final Map<DensityFunctions.FlatCache, Cache2DState> flatCache;
-    private final Map<DensityFunctions.CacheAllInCell, LongObjectCache<Double>> cacheAllInCell;
+    private final Map<DensityFunction, Integer> slots = new IdentityHashMap<>();
+
+    private boolean[] onceValid = new boolean[0];
+    private int[] onceX = new int[0];
+    private int[] onceY = new int[0];
+    private int[] onceZ = new int[0];
+    private double[] onceValues = new double[0];
+
+    private boolean[] cache2DValid = new boolean[0];
+    private long[] cache2DColumns = new long[0];
+    private double[] cache2DValues = new double[0];
+
+    private boolean[] flatValid = new boolean[0];
+    private long[] flatColumns = new long[0];
+    private double[] flatValues = new double[0];
+
+    private long[][] cornerCells = new long[0][];
+    private double[][] corners = new double[0][];
+
+    private long[][] cellKeys = new long[0][];
+    private double[][] cellValues = new double[0][];
 
     private int blockX;
     private int blockY;
@@ -23,11 +59,6 @@ public final class ChunkContext implements DensityFunction.Context {
     public ChunkContext(int cellWidth, int cellHeight) {
         this.cellWidth = cellWidth;
         this.cellHeight = cellHeight;
-        this.interpolationCache = new IdentityHashMap<>();
-        this.cacheOnce = new IdentityHashMap<>();
-        this.cache2D = new IdentityHashMap<>();
-        this.flatCache = new IdentityHashMap<>();
-        this.cacheAllInCell = new IdentityHashMap<>();
     }
 
     public int cellWidth() {
@@ -71,84 +102,171 @@ public final class ChunkContext implements DensityFunction.Context {
         var x0 = cellX * this.cellWidth;
         var y0 = cellY * this.cellHeight;
         var z0 = cellZ * this.cellWidth;
-        var x1 = x0 + this.cellWidth;
-        var y1 = y0 + this.cellHeight;
-        var z1 = z0 + this.cellWidth;
 
         var deltaX = (double) (x - x0) / (double) this.cellWidth;
         var deltaY = (double) (y - y0) / (double) this.cellHeight;
         var deltaZ = (double) (z - z0) / (double) this.cellWidth;
 
-        var perFunction = this.interpolationCache.computeIfAbsent(interpolated, key -> new LongObjectCache<>());
+        var slot = this.slot(interpolated);
+        if (slot >= this.cornerCells.length || this.cornerCells[slot] == null) {
+            this.growCellTables(slot);
+            this.cornerCells[slot] = newCellKeys();
+            this.corners[slot] = new double[CELL_ENTRIES * 8];
+        }
+
+        var cells = this.cornerCells[slot];
+        var values = this.corners[slot];
         var cellKey = pack(cellX, cellY, cellZ);
-        var corners = perFunction.getOrCompute(cellKey, () -> this.sampleCorners(interpolated, x0, y0, z0, x1, y1, z1));
+        var entry = entry(cellKey);
+        var offset = entry * 8;
+        if (cells[entry] != cellKey) {
+            this.sampleCorners(interpolated.argument(), x0, y0, z0, values, offset);
+            cells[entry] = cellKey;
+        }
 
-        return VMath.lerp3(deltaX, deltaY, deltaZ, corners[0], corners[1], corners[2], corners[3], corners[4], corners[5], corners[6], corners[7]);
+        return VMath.lerp3(deltaX, deltaY, deltaZ,
+                values[offset], values[offset + 1], values[offset + 2], values[offset + 3],
+                values[offset + 4], values[offset + 5], values[offset + 6], values[offset + 7]);
     }
 
     public double cacheOnceValue(DensityFunctions.CacheOnce function) {
-        var state = this.cacheOnce.computeIfAbsent(function, key -> new CacheOnceState());
-        if (state.hasValue && state.blockX == this.blockX && state.blockY == this.blockY && state.blockZ == this.blockZ) {
-            return state.value;
+        var slot = this.slot(function);
+        if (slot >= this.onceValid.length) {
+            var length = grownLength(this.onceValid.length, slot);
+            this.onceValid = Arrays.copyOf(this.onceValid, length);
+            this.onceX = Arrays.copyOf(this.onceX, length);
+            this.onceY = Arrays.copyOf(this.onceY, length);
+            this.onceZ = Arrays.copyOf(this.onceZ, length);
+            this.onceValues = Arrays.copyOf(this.onceValues, length);
+        }
+
+        if (this.onceValid[slot] && this.onceX[slot] == this.blockX && this.onceY[slot] == this.blockY && this.onceZ[slot] == this.blockZ) {
+            return this.onceValues[slot];
         }
 
+        var x = this.blockX;
+        var y = this.blockY;
+        var z = this.blockZ;
         var value = function.argument().compute(this);
-        state.blockX = this.blockX;
-        state.blockY = this.blockY;
-        state.blockZ = this.blockZ;
-        state.value = value;
-        state.hasValue = true;
+        this.onceX[slot] = x;
+        this.onceY[slot] = y;
+        this.onceZ[slot] = z;
+        this.onceValues[slot] = value;
+        this.onceValid[slot] = true;
         return value;
     }
 
     public double cache2DValue(DensityFunctions.Cache2D function) {
-        var state = this.cache2D.computeIfAbsent(function, key -> new Cache2DState());
-        if (state.hasValue && state.blockX == this.blockX && state.blockZ == this.blockZ) {
-            return state.value;
+        var slot = this.slot(function);
+        if (slot >= this.cache2DValid.length) {
+            var length = grownLength(this.cache2DValid.length, slot);
+            this.cache2DValid = Arrays.copyOf(this.cache2DValid, length);
+            this.cache2DColumns = Arrays.copyOf(this.cache2DColumns, length);
+            this.cache2DValues = Arrays.copyOf(this.cache2DValues, length);
+        }
+
+        var column = packColumn(this.blockX, this.blockZ);
+        if (this.cache2DValid[slot] && this.cache2DColumns[slot] == column) {
+            return this.cache2DValues[slot];
         }
 
         var value = function.argument().compute(this);
-        state.blockX = this.blockX;
-        state.blockZ = this.blockZ;
-        state.value = value;
-        state.hasValue = true;
+        this.cache2DColumns[slot] = column;
+        this.cache2DValues[slot] = value;
+        this.cache2DValid[slot] = true;
         return value;
     }
 
     public double flatCacheValue(DensityFunctions.FlatCache function) {
-        var state = this.flatCache.computeIfAbsent(function, key -> new Cache2DState());
-        if (state.hasValue && state.blockX == this.blockX && state.blockZ == this.blockZ) {
-            return state.value;
+        var slot = this.slot(function);
+        if (slot >= this.flatValid.length) {
+            var length = grownLength(this.flatValid.length, slot);
+            this.flatValid = Arrays.copyOf(this.flatValid, length);
+            this.flatColumns = Arrays.copyOf(this.flatColumns, length);
+            this.flatValues = Arrays.copyOf(this.flatValues, length);
+        }
+
+        var column = packColumn(this.blockX, this.blockZ);
+        if (this.flatValid[slot] && this.flatColumns[slot] == column) {
+            return this.flatValues[slot];
         }
 
         var value = function.argument().compute(this);
-        state.blockX = this.blockX;
-        state.blockZ = this.blockZ;
-        state.value = value;
-        state.hasValue = true;
+        this.flatColumns[slot] = column;
+        this.flatValues[slot] = value;
+        this.flatValid[slot] = true;
         return value;
     }
 
     public double cacheAllInCellValue(DensityFunctions.CacheAllInCell function) {
-        var perFunction = this.cacheAllInCell.computeIfAbsent(function, key -> new LongObjectCache<>());
+        var slot = this.slot(function);
+        if (slot >= this.cellKeys.length || this.cellKeys[slot] == null) {
+            this.growCellTables(slot);
+            this.cellKeys[slot] = newCellKeys();
+            this.cellValues[slot] = new double[CELL_ENTRIES];
+        }
+
         var cellX = Math.floorDiv(this.blockX, this.cellWidth);
         var cellY = Math.floorDiv(this.blockY, this.cellHeight);
         var cellZ = Math.floorDiv(this.blockZ, this.cellWidth);
         var cellKey = pack(cellX, cellY, cellZ);
-        return perFunction.getOrCompute(cellKey, () -> function.argument().compute(this));
+        var entry = entry(cellKey);
+
+        var keys = this.cellKeys[slot];
+        var values = this.cellValues[slot];
+        if (keys[entry] == cellKey) {
+            return values[entry];
+        }
+
+        var value = function.argument().compute(this);
+        keys[entry] = cellKey;
+        values[entry] = value;
+        return value;
     }
 
-    private double[] sampleCorners(Interpolated interpolated, int x0, int y0, int z0, int x1, int y1, int z1) {
-        var values = new double[8];
-        values[0] = this.sample(interpolated.argument(), x0, y0, z0);
-        values[1] = this.sample(interpolated.argument(), x1, y0, z0);
-        values[2] = this.sample(interpolated.argument(), x0, y1, z0);
-        values[3] = this.sample(interpolated.argument(), x1, y1, z0);
-        values[4] = this.sample(interpolated.argument(), x0, y0, z1);
-        values[5] = this.sample(interpolated.argument(), x1, y0, z1);
-        values[6] = this.sample(interpolated.argument(), x0, y1, z1);
-        values[7] = this.sample(interpolated.argument(), x1, y1, z1);
-        return values;
+    private int slot(DensityFunction marker) {
+        var slot = this.slots.get(marker);
+        if (slot == null) {
+            slot = this.slots.size();
+            this.slots.put(marker, slot);
+        }
+        return slot;
+    }
+
+    private void growCellTables(int slot) {
+        if (slot >= this.cornerCells.length) {
+            this.cornerCells = Arrays.copyOf(this.cornerCells, grownLength(this.cornerCells.length, slot));
+            this.corners = Arrays.copyOf(this.corners, this.cornerCells.length);
+        }
+        if (slot >= this.cellKeys.length) {
+            this.cellKeys = Arrays.copyOf(this.cellKeys, grownLength(this.cellKeys.length, slot));
+            this.cellValues = Arrays.copyOf(this.cellValues, this.cellKeys.length);
+        }
+    }
+
+    private void sampleCorners(DensityFunction function, int x0, int y0, int z0, double[] values, int offset) {
+        var x1 = x0 + this.cellWidth;
+        var y1 = y0 + this.cellHeight;
+        var z1 = z0 + this.cellWidth;
+
+        // Sampled into locals first, since the argument may evaluate other interpolated markers
+        var value0 = this.sample(function, x0, y0, z0);
+        var value1 = this.sample(function, x1, y0, z0);
+        var value2 = this.sample(function, x0, y1, z0);
+        var value3 = this.sample(function, x1, y1, z0);
+        var value4 = this.sample(function, x0, y0, z1);
+        var value5 = this.sample(function, x1, y0, z1);
+        var value6 = this.sample(function, x0, y1, z1);
+        var value7 = this.sample(function, x1, y1, z1);
+
+        values[offset] = value0;
+        values[offset + 1] = value1;
+        values[offset + 2] = value2;
+        values[offset + 3] = value3;
+        values[offset + 4] = value4;
+        values[offset + 5] = value5;
+        values[offset + 6] = value6;
+        values[offset + 7] = value7;
     }
 
     private double sample(DensityFunction function, int x, int y, int z) {
@@ -161,119 +279,30 @@ public final class ChunkContext implements DensityFunction.Context {
         return value;
     }
 
-    private static long pack(int x, int y, int z) {
-        return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x3FFFFF) << 20) | (long) (z & 0xFFFFF);
+    private static long[] newCellKeys() {
+        var keys = new long[CELL_ENTRIES];
+        Arrays.fill(keys, NO_CELL);
+        return keys;
     }
 
-    private static final class CacheOnceState {
-        private boolean hasValue;
-        private int blockX;
-        private int blockY;
-        private int blockZ;
-        private double value;
+    private static int grownLength(int length, int slot) {
+        return Math.max(slot + 1, Math.max(length * 2, 16));
     }
 
-    private static final class Cache2DState {
-        private boolean hasValue;
-        private int blockX;
-        private int blockZ;
-        private double value;
+    private static int entry(long cellKey) {
+        return (int) RandomSupport.mixStafford13(cellKey) & (CELL_ENTRIES - 1);
     }
 
-    private static final class LongObjectCache<T> {
-        private static final float LOAD_FACTOR = 0.7F;
-
-        private long[] keys;
-        private Object[] values;
-        private boolean[] occupied;
-        private int size;
-        private int threshold;
-
-        private LongObjectCache() {
-            this.keys = new long[16];
-            this.values = new Object[16];
-            this.occupied = new boolean[16];
-            this.size = 0;
-            this.threshold = (int) ((float) this.keys.length * LOAD_FACTOR);
-        }
-
-        @SuppressWarnings("unchecked")
-        private T get(long key) {
-            var index = this.findIndex(key);
-            if (index < 0) {
-                return null;
-            }
-            return (T) this.values[index];
-        }
-
-        private void put(long key, T value) {
-            if (this.size >= this.threshold) {
-                this.rehash(this.keys.length * 2);
-            }
-
-            var mask = this.keys.length - 1;
-            var index = (int) mix64(key) & mask;
-            while (this.occupied[index]) {
-                if (this.keys[index] == key) {
-                    this.values[index] = value;
-                    return;
-                }
-                index = (index + 1) & mask;
-            }
-
-            this.occupied[index] = true;
-            this.keys[index] = key;
-            this.values[index] = value;
-            this.size++;
-        }
-
-        private int findIndex(long key) {
-            var mask = this.keys.length - 1;
-            var index = (int) mix64(key) & mask;
-            while (this.occupied[index]) {
-                if (this.keys[index] == key) {
-                    return index;
-                }
-                index = (index + 1) & mask;
-            }
-            return -1;
-        }
-
-        private void rehash(int newCapacity) {
-            var oldKeys = this.keys;
-            var oldValues = this.values;
-            var oldOccupied = this.occupied;
-
-            this.keys = new long[newCapacity];
-            this.values = new Object[newCapacity];
-            this.occupied = new boolean[newCapacity];
-            this.size = 0;
-            this.threshold = (int) ((float) newCapacity * LOAD_FACTOR);
-
-            for (var index = 0; index < oldKeys.length; index++) {
-                if (!oldOccupied[index]) {
-                    continue;
-                }
-                @SuppressWarnings("unchecked")
-                var value = (T) oldValues[index];
-                this.put(oldKeys[index], value);
-            }
-        }
-
-        private static long mix64(long value) {
-            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
-            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
-            return value ^ (value >>> 33);
-        }
+    /**
+     * Packs cell coordinates into a non-negative key, so {@link #NO_CELL} never matches.
+     * Cells are at least four blocks on each side, so 26 bits of x and z and 11 bits of y
+     * hold every cell of the vanilla block position range without two colliding.
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) x & PACKED_XZ_MASK) << 37 | ((long) y & PACKED_Y_MASK) << 26 | (long) z & PACKED_XZ_MASK;
+    }
 
-        private T getOrCompute(long key, Supplier<T> supplier) {
-            var cached = this.get(key);
-            if (cached != null) {
-                return cached;
-            }
-            var value = supplier.get();
-            this.put(key, value);
-            return value;
-        }
+    private static long packColumn(int x, int z) {
+        return (long) x << 32 | z & 0xFFFFFFFFL;
     }
 }
@@ -0,0 +1,73 @@
+package rocks.minestom.worldgen.density;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+/**
+ * Base type of the classes generated by {@link DensityFunctionCompiler}.
+ * Nodes the compiler does not inline, such as cache markers, are kept as external
+ * references so a chunk can rebind them to its own caches without recompiling the tree.
+ * Both {@code compute} and {@code fillArray} are generated.
+ */
+public abstract class CompiledDensityFunction implements DensityFunction {
+    private final DensityFunction source;
+    private final DensityFunction[] externalSources;
+    private final DensityFunction[] externals;
+    private final Object[] constants;
+    private final MethodHandle constructor;
+
+    protected CompiledDensityFunction(DensityFunction source, DensityFunction[] externalSources, DensityFunction[] externals, Object[] constants, MethodHandle constructor) {
+        this.source = source;
+        this.externalSources = externalSources;
+        this.externals = externals;
+        this.constants = constants;
+        this.constructor = constructor;
+    }
+
+    /**
+     * The interpreted tree this function computes, over the current externals. Callers
+     * that walk the tree, such as bounds analysis, use it in place of the generated code.
+     */
+    public DensityFunction source() {
+        return this.source;
+    }
+
+    @Override
+    public double minValue() {
+        return this.source.minValue();
+    }
+
+    @Override
+    public double maxValue() {
+        return this.source.maxValue();
+    }
+
+    public List<DensityFunction> externals() {
+        return List.of(this.externals);
+    }
+
+    /**
+     * The nodes of the compiled tree each external stands in for, in the same order as
+     * {@link #externals()}.
+     */
+    public List<DensityFunction> externalSources() {
+        return List.of(this.externalSources);
+    }
+
+    /**
+     * Creates another instance of the same generated class that calls {@code externals}
+     * in place of the current external references. {@code source} is the interpreted tree
+     * over the new externals, which must compute the same values.
+     */
+    public CompiledDensityFunction withExternals(List<DensityFunction> externals, DensityFunction source) {
+        if (externals.size() != this.externals.length) {
+            throw new IllegalArgumentException("Expected " + this.externals.length + " externals, got " + externals.size());
+        }
+
+        try {
+            return (CompiledDensityFunction) this.constructor.invoke(source, this.externalSources, externals.toArray(new DensityFunction[0]), this.constants, this.constructor);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to instantiate compiled density function", throwable);
+        }
+    }
+}
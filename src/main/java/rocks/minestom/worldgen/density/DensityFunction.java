@@ -1,5 +1,7 @@
 package rocks.minestom.worldgen.density;
 
+import rocks.minestom.worldgen.noise.ScratchArrays;
+
 /**
  * A scalar field sampled across the world to drive terrain and climate decisions.
  * Density functions are the fundamental building blocks for landmasses, caves,
@@ -8,11 +10,75 @@ package rocks.minestom.worldgen.density;
 public interface DensityFunction {
     double compute(Context context);
 
+    /**
+     * Fills {@code values} with one sample per index, where each index maps to a position
+     * supplied by {@code provider}. Nodes override this to evaluate their children over the
+     * whole array at once instead of walking the tree once per position.
+     */
+    default void fillArray(double[] values, ContextProvider provider) {
+        provider.fillAllDirectly(values, this);
+    }
+
+    /**
+     * A lower bound for every value this function can return. Bounds are conservative and
+     * may be infinite when nothing useful is known.
+     */
+    default double minValue() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * An upper bound for every value this function can return.
+     */
+    default double maxValue() {
+        return Double.POSITIVE_INFINITY;
+    }
+
     interface Context {
         int blockX();
 
         int blockY();
 
         int blockZ();
+
+        /**
+         * The memo that {@link DensityFunctions.FlatCache} nodes share quart column values
+         * through, or {@code null} if the caller keeps none.
+         */
+        default FlatCacheMemo flatCacheMemo() {
+            return null;
+        }
+    }
+
+    /**
+     * Maps array indices to sample positions for {@link #fillArray(double[], ContextProvider)}.
+     */
+    interface ContextProvider {
+        Context forIndex(int index);
+
+        /**
+         * Whether every index shares the X and Z of index 0 while Y grows by
+         * {@link #columnStepY()} blocks per index, so noise nodes can sample the whole
+         * array as one column.
+         */
+        default boolean isColumn() {
+            return false;
+        }
+
+        default int columnStepY() {
+            return 0;
+        }
+
+        /**
+         * Temporary arrays for intermediate results of a fill. Providers return the same
+         * pool every time, owned by the thread filling, so the arrays are reused.
+         */
+        ScratchArrays scratch();
+
+        default void fillAllDirectly(double[] values, DensityFunction function) {
+            for (var index = 0; index < values.length; index++) {
+                values[index] = function.compute(this.forIndex(index));
+            }
+        }
     }
 }
@@ -0,0 +1,471 @@
+package rocks.minestom.worldgen.density;
+
+import rocks.minestom.worldgen.VMath;
+import rocks.minestom.worldgen.noise.BlendedNoise;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.noise.ScratchArrays;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassHierarchyResolver;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles density function trees into generated hidden classes with a single
+ * {@code compute} method, so the JIT sees straight-line arithmetic instead of a
+ * deep graph of polymorphic {@code compute} calls.
+ * <p>
+ * Arithmetic, gradient and noise nodes are inlined. Cache markers, splines and
+ * unknown node types stay as external references, with their own inputs compiled
+ * separately, so {@link rocks.minestom.worldgen.NoiseChunk} can still find and
+ * rebind them. The interpreted tree remains available through
+ * {@link CompiledDensityFunction#source()}.
+ * <p>
+ * The generated {@code fillArray} runs the same inlined code once per index. Externals
+ * and plain noise leaves that every index evaluates are filled as whole arrays first,
+ * so cache markers still batch and noise is still sampled a column at a time; nodes
+ * only reached through a {@link DensityFunctions.RangeChoice} branch are computed per
+ * index, as the interpreter does.
+ */
+public final class DensityFunctionCompiler {
+    private static final int MAX_INLINED_NODES = 512;
+
+    private static final ClassDesc CD_GENERATED = ClassDesc.of("rocks.minestom.worldgen.density.GeneratedDensityFunction");
+    private static final ClassDesc CD_COMPILED = ClassDesc.of(CompiledDensityFunction.class.getName());
+    private static final ClassDesc CD_DENSITY_FUNCTION = ClassDesc.of(DensityFunction.class.getName());
+    private static final ClassDesc CD_CONTEXT = ClassDesc.of(DensityFunction.Context.class.getName());
+    private static final ClassDesc CD_CONTEXT_PROVIDER = ClassDesc.of(DensityFunction.ContextProvider.class.getName());
+    private static final ClassDesc CD_SCRATCH_ARRAYS = ClassDesc.of(ScratchArrays.class.getName());
+    private static final ClassDesc CD_MAPPED_TYPE = ClassDesc.of(DensityFunctions.Mapped.Type.class.getName());
+    private static final ClassDesc CD_WEIRD_SCALED_SAMPLER = ClassDesc.of(DensityFunctions.WeirdScaledSampler.class.getName());
+    private static final ClassDesc CD_NORMAL_NOISE = ClassDesc.of(NormalNoise.class.getName());
+    private static final ClassDesc CD_BLENDED_NOISE = ClassDesc.of(BlendedNoise.class.getName());
+    private static final ClassDesc CD_VMATH = ClassDesc.of(VMath.class.getName());
+    private static final ClassDesc CD_MATH = ClassDesc.of(Math.class.getName());
+
+    private static final MethodTypeDesc MTD_COMPUTE = MethodTypeDesc.of(ConstantDescs.CD_double, CD_CONTEXT);
+    private static final MethodTypeDesc MTD_FILL_ARRAY = MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_double.arrayType(), CD_CONTEXT_PROVIDER);
+    private static final MethodTypeDesc MTD_FOR_INDEX = MethodTypeDesc.of(CD_CONTEXT, ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_SCRATCH = MethodTypeDesc.of(CD_SCRATCH_ARRAYS);
+    private static final MethodTypeDesc MTD_BORROW = MethodTypeDesc.of(ConstantDescs.CD_double.arrayType(), ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_RELEASE = MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_double.arrayType());
+    private static final MethodTypeDesc MTD_BLOCK_COORDINATE = MethodTypeDesc.of(ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_UNARY = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_BINARY = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_TERNARY = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_CLAMPED_MAP = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_BLENDED_COMPUTE = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_int, ConstantDescs.CD_int, ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_WEIRD_SAMPLE = MethodTypeDesc.of(ConstantDescs.CD_double, CD_CONTEXT, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_CONSTRUCTOR = MethodTypeDesc.of(
+            ConstantDescs.CD_void,
+            CD_DENSITY_FUNCTION,
+            CD_DENSITY_FUNCTION.arrayType(),
+            CD_DENSITY_FUNCTION.arrayType(),
+            ConstantDescs.CD_Object.arrayType(),
+            ConstantDescs.CD_MethodHandle
+    );
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, DensityFunction.class, DensityFunction[].class, DensityFunction[].class, Object[].class, MethodHandle.class);
+
+    private DensityFunctionCompiler() {
+    }
+
+    /**
+     * Compiles {@code function} into a generated class. Markers and leaf nodes with nothing
+     * worth inlining are returned as-is, with their inputs compiled.
+     */
+    public static DensityFunction compile(DensityFunction function) {
+        return compile(function, new IdentityHashMap<>());
+    }
+
+    /**
+     * Compiles {@code function}, reusing the results in {@code compiled}, which maps nodes
+     * by identity to their compiled form. Roots compiled with the same map keep sharing
+     * their common nodes, so markers cached by identity still match across them.
+     */
+    public static DensityFunction compile(DensityFunction function, Map<DensityFunction, DensityFunction> compiled) {
+        var existing = compiled.get(function);
+        if (existing != null) {
+            return existing;
+        }
+        var result = compileNew(function, compiled);
+        compiled.put(function, result);
+        return result;
+    }
+
+    private static DensityFunction compileNew(DensityFunction function, Map<DensityFunction, DensityFunction> compiled) {
+        return switch (function) {
+            case CompiledDensityFunction compiledFunction -> compiledFunction;
+            case DensityFunctions.Constant constant -> constant;
+            case DensityFunctions.Interpolated(var argument) -> new DensityFunctions.Interpolated(compile(argument, compiled));
+            case DensityFunctions.CacheOnce(var argument) -> new DensityFunctions.CacheOnce(compile(argument, compiled));
+            case DensityFunctions.Cache2D(var argument) -> new DensityFunctions.Cache2D(compile(argument, compiled));
+            case DensityFunctions.FlatCache(var argument) -> new DensityFunctions.FlatCache(compile(argument, compiled));
+            case DensityFunctions.CacheAllInCell(var argument) -> new DensityFunctions.CacheAllInCell(compile(argument, compiled));
+            case DensityFunctions.Spline spline -> new DensityFunctions.Spline(compileSpline(spline.spline(), compiled));
+            case DensityFunctions.EndIslands endIslands -> endIslands;
+            default -> isBuiltin(function) ? new Compilation(function, compiled).define() : function;
+        };
+    }
+
+    private static DensityFunctions.SplineNode compileSpline(DensityFunctions.SplineNode node, Map<DensityFunction, DensityFunction> compiled) {
+        if (node instanceof DensityFunctions.SplineMultipoint(var coordinate, var locations, var values, var derivatives)) {
+            var compiledValues = new ArrayList<DensityFunctions.SplineNode>(values.size());
+            for (var value : values) {
+                compiledValues.add(compileSpline(value, compiled));
+            }
+            return new DensityFunctions.SplineMultipoint(compile(coordinate, compiled), locations, compiledValues, derivatives);
+        }
+        return node;
+    }
+
+    private static boolean isBuiltin(DensityFunction function) {
+        return function.getClass().getEnclosingClass() == DensityFunctions.class;
+    }
+
+    private static final class Compilation {
+        private final DensityFunction root;
+        private final Map<DensityFunction, DensityFunction> compiled;
+        private final List<DensityFunction> externalSources = new ArrayList<>();
+        private final List<DensityFunction> externals = new ArrayList<>();
+        private final Map<Object, Integer> externalIndices = new IdentityHashMap<>();
+        private final List<Object> constants = new ArrayList<>();
+        private final List<ClassDesc> constantTypes = new ArrayList<>();
+        private final Map<Object, Integer> constantIndices = new IdentityHashMap<>();
+        private final List<DensityFunction> batchedNodes = new ArrayList<>();
+        private final Map<DensityFunction, Integer> batchedIndices = new IdentityHashMap<>();
+        private int inlinedNodes;
+        private int branchDepth;
+        private int contextSlot = 1;
+        // While fillArray is emitted, the locals holding each batched node's array
+        private int[] batchedSlots;
+        private int indexSlot;
+
+        private Compilation(DensityFunction root, Map<DensityFunction, DensityFunction> compiled) {
+            this.root = root;
+            this.compiled = compiled;
+        }
+
+        private CompiledDensityFunction define() {
+            var classFile = ClassFile.of(ClassFile.ClassHierarchyResolverOption.of(ClassHierarchyResolver.defaultResolver()
+                    .orElse(ClassHierarchyResolver.ofClassLoading(DensityFunctionCompiler.class.getClassLoader()))));
+
+            var bytes = classFile.build(CD_GENERATED, classBuilder -> {
+                classBuilder.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER);
+                classBuilder.withSuperclass(CD_COMPILED);
+
+                // The bodies are generated first so the field lists are complete afterwards.
+                classBuilder.withMethodBody("compute", MTD_COMPUTE, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL, codeBuilder -> {
+                    this.emit(codeBuilder, this.root);
+                    codeBuilder.dreturn();
+                });
+                classBuilder.withMethodBody("fillArray", MTD_FILL_ARRAY, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL, this::emitFillArray);
+
+                for (var index = 0; index < this.externals.size(); index++) {
+                    classBuilder.withField(externalField(index), CD_DENSITY_FUNCTION, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+                }
+                for (var index = 0; index < this.constants.size(); index++) {
+                    classBuilder.withField(constantField(index), this.constantTypes.get(index), ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+                }
+
+                classBuilder.withMethodBody(ConstantDescs.INIT_NAME, MTD_CONSTRUCTOR, ClassFile.ACC_PUBLIC, codeBuilder -> {
+                    codeBuilder.aload(0).aload(1).aload(2).aload(3).aload(4).aload(5)
+                            .invokespecial(CD_COMPILED, ConstantDescs.INIT_NAME, MTD_CONSTRUCTOR);
+                    for (var index = 0; index < this.externals.size(); index++) {
+                        codeBuilder.aload(0).aload(3).loadConstant(index).aaload()
+                                .checkcast(CD_DENSITY_FUNCTION)
+                                .putfield(CD_GENERATED, externalField(index), CD_DENSITY_FUNCTION);
+                    }
+                    for (var index = 0; index < this.constants.size(); index++) {
+                        var type = this.constantTypes.get(index);
+                        codeBuilder.aload(0).aload(4).loadConstant(index).aaload()
+                                .checkcast(type)
+                                .putfield(CD_GENERATED, constantField(index), type);
+                    }
+                    codeBuilder.return_();
+                });
+            });
+
+            try {
+                var lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+                var constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE);
+                var externalSources = this.externalSources.toArray(new DensityFunction[0]);
+                var externals = this.externals.toArray(new DensityFunction[0]);
+                var constants = this.constants.toArray();
+                return (CompiledDensityFunction) constructor.invoke(this.root, externalSources, externals, constants, constructor);
+            } catch (Throwable throwable) {
+                throw new IllegalStateException("Failed to define compiled density function", throwable);
+            }
+        }
+
+        /**
+         * Emits {@code fillArray(values, provider)}: the batched nodes found while emitting
+         * {@code compute} are filled into scratch arrays, then the tree is evaluated per
+         * index, reading those arrays in place of the nodes.
+         */
+        private void emitFillArray(CodeBuilder code) {
+            var scratchSlot = code.allocateLocal(TypeKind.REFERENCE);
+            code.aload(2).invokeinterface(CD_CONTEXT_PROVIDER, "scratch", MTD_SCRATCH).astore(scratchSlot);
+
+            this.batchedSlots = new int[this.batchedNodes.size()];
+            for (var index = 0; index < this.batchedSlots.length; index++) {
+                var slot = code.allocateLocal(TypeKind.REFERENCE);
+                this.batchedSlots[index] = slot;
+                code.aload(scratchSlot).aload(1).arraylength()
+                        .invokevirtual(CD_SCRATCH_ARRAYS, "borrow", MTD_BORROW)
+                        .astore(slot);
+                this.emitBatchedNode(code, this.batchedNodes.get(index));
+                code.aload(slot).aload(2).invokeinterface(CD_DENSITY_FUNCTION, "fillArray", MTD_FILL_ARRAY);
+            }
+
+            this.indexSlot = code.allocateLocal(TypeKind.INT);
+            this.contextSlot = code.allocateLocal(TypeKind.REFERENCE);
+            var loop = code.newLabel();
+            var end = code.newLabel();
+            code.iconst_0().istore(this.indexSlot);
+            code.labelBinding(loop);
+            code.iload(this.indexSlot).aload(1).arraylength().if_icmpge(end);
+            code.aload(2).iload(this.indexSlot).invokeinterface(CD_CONTEXT_PROVIDER, "forIndex", MTD_FOR_INDEX).astore(this.contextSlot);
+            code.aload(1).iload(this.indexSlot);
+            // The same traversal as compute, so the same nodes stay inlined
+            this.inlinedNodes = 0;
+            this.emit(code, this.root);
+            code.dastore();
+            code.iinc(this.indexSlot, 1).goto_(loop);
+            code.labelBinding(end);
+
+            // Scratch arrays are released in reverse borrow order
+            for (var index = this.batchedSlots.length - 1; index >= 0; index--) {
+                code.aload(scratchSlot).aload(this.batchedSlots[index]).invokevirtual(CD_SCRATCH_ARRAYS, "release", MTD_RELEASE);
+            }
+            code.return_();
+        }
+
+        /**
+         * Loads the function that fills a batched node: its external reference, which a
+         * chunk may have rebound, or the node itself for noise leaves.
+         */
+        private void emitBatchedNode(CodeBuilder code, DensityFunction function) {
+            var externalIndex = this.externalIndices.get(function);
+            if (externalIndex != null) {
+                code.aload(0).getfield(CD_GENERATED, externalField(externalIndex), CD_DENSITY_FUNCTION);
+            } else {
+                this.emitConstant(code, function, CD_DENSITY_FUNCTION);
+            }
+        }
+
+        /**
+         * Records {@code function} for batching if every index evaluates it, that is if it
+         * is not inside a range choice branch. The set is final once {@code compute} has
+         * been emitted, so this does nothing while {@code fillArray} is.
+         */
+        private void noteBatchable(DensityFunction function) {
+            if (this.batchedSlots == null && this.branchDepth == 0 && !this.batchedIndices.containsKey(function)) {
+                this.batchedIndices.put(function, this.batchedNodes.size());
+                this.batchedNodes.add(function);
+            }
+        }
+
+        private void emit(CodeBuilder code, DensityFunction function) {
+            if (this.batchedSlots != null) {
+                var batchedIndex = this.batchedIndices.get(function);
+                if (batchedIndex != null) {
+                    // Counted like the node itself, so the inlining budget runs out at the same place
+                    this.inlinedNodes++;
+                    code.aload(this.batchedSlots[batchedIndex]).iload(this.indexSlot).daload();
+                    return;
+                }
+            }
+
+            if (this.inlinedNodes++ >= MAX_INLINED_NODES) {
+                // Keep generated methods well below the JVM code size limit.
+                this.emitExternal(code, function);
+                return;
+            }
+
+            switch (function) {
+                case DensityFunctions.Constant(var value) -> code.loadConstant(value);
+                case DensityFunctions.Add(var argument1, var argument2) -> {
+                    this.emit(code, argument1);
+                    this.emit(code, argument2);
+                    code.dadd();
+                }
+                case DensityFunctions.Mul(var argument1, var argument2) -> {
+                    this.emit(code, argument1);
+                    this.emit(code, argument2);
+                    code.dmul();
+                }
+                case DensityFunctions.Min(var argument1, var argument2) -> {
+                    this.emit(code, argument1);
+                    this.emit(code, argument2);
+                    code.invokestatic(CD_MATH, "min", MTD_BINARY);
+                }
+                case DensityFunctions.Max(var argument1, var argument2) -> {
+                    this.emit(code, argument1);
+                    this.emit(code, argument2);
+                    code.invokestatic(CD_MATH, "max", MTD_BINARY);
+                }
+                case DensityFunctions.Clamp(var input, var min, var max) -> {
+                    this.emit(code, input);
+                    code.loadConstant(min).loadConstant(max).invokestatic(CD_VMATH, "clamp", MTD_TERNARY);
+                }
+                case DensityFunctions.Mapped(var type, var input) -> this.emitMapped(code, type, input);
+                case DensityFunctions.YClampedGradient(var fromY, var toY, var fromValue, var toValue) -> {
+                    this.emitBlockCoordinate(code, "blockY");
+                    code.i2d()
+                            .loadConstant((double) fromY)
+                            .loadConstant((double) toY)
+                            .loadConstant(fromValue)
+                            .loadConstant(toValue)
+                            .invokestatic(CD_VMATH, "clampedMap", MTD_CLAMPED_MAP);
+                }
+                case DensityFunctions.RangeChoice(var input, var minInclusive, var maxExclusive, var whenInRange, var whenOutOfRange) -> {
+                    var outOfRange = code.newLabel();
+                    var end = code.newLabel();
+                    var slot = code.allocateLocal(TypeKind.DOUBLE);
+                    this.emit(code, input);
+                    code.dstore(slot);
+                    // NaN compares as out of range, matching the interpreted comparison.
+                    code.dload(slot).loadConstant(minInclusive).dcmpl().iflt(outOfRange);
+                    code.dload(slot).loadConstant(maxExclusive).dcmpg().ifge(outOfRange);
+                    this.branchDepth++;
+                    this.emit(code, whenInRange);
+                    code.goto_(end);
+                    code.labelBinding(outOfRange);
+                    this.emit(code, whenOutOfRange);
+                    this.branchDepth--;
+                    code.labelBinding(end);
+                }
+                case DensityFunctions.Noise(var noise, var xzScale, var yScale) -> {
+                    this.noteBatchable(function);
+                    this.emitConstant(code, noise, CD_NORMAL_NOISE);
+                    this.emitScaledCoordinate(code, "blockX", xzScale);
+                    this.emitScaledCoordinate(code, "blockY", yScale);
+                    this.emitScaledCoordinate(code, "blockZ", xzScale);
+                    code.invokevirtual(CD_NORMAL_NOISE, "getValue", MTD_TERNARY);
+                }
+                case DensityFunctions.ShiftedNoise(var shiftX, var shiftY, var shiftZ, var xzScale, var yScale, var noise) -> {
+                    this.emitConstant(code, noise, CD_NORMAL_NOISE);
+                    this.emitScaledCoordinate(code, "blockX", xzScale);
+                    this.emit(code, shiftX);
+                    code.dadd();
+                    this.emitScaledCoordinate(code, "blockY", yScale);
+                    this.emit(code, shiftY);
+                    code.dadd();
+                    this.emitScaledCoordinate(code, "blockZ", xzScale);
+                    this.emit(code, shiftZ);
+                    code.dadd();
+                    code.invokevirtual(CD_NORMAL_NOISE, "getValue", MTD_TERNARY);
+                }
+                case DensityFunctions.ShiftA(var offsetNoise) -> {
+                    this.emitConstant(code, offsetNoise, CD_NORMAL_NOISE);
+                    this.emitScaledCoordinate(code, "blockX", 0.25);
+                    code.loadConstant(0.0);
+                    this.emitScaledCoordinate(code, "blockZ", 0.25);
+                    code.invokevirtual(CD_NORMAL_NOISE, "getValue", MTD_TERNARY).loadConstant(4.0).dmul();
+                }
+                case DensityFunctions.ShiftB(var offsetNoise) -> {
+                    this.emitConstant(code, offsetNoise, CD_NORMAL_NOISE);
+                    this.emitScaledCoordinate(code, "blockZ", 0.25);
+                    this.emitScaledCoordinate(code, "blockX", 0.25);
+                    code.loadConstant(0.0);
+                    code.invokevirtual(CD_NORMAL_NOISE, "getValue", MTD_TERNARY).loadConstant(4.0).dmul();
+                }
+                case DensityFunctions.BlendAlpha() -> code.loadConstant(1.0);
+                case DensityFunctions.BlendOffset() -> code.loadConstant(0.0);
+                case DensityFunctions.BlendDensity(var argument) -> this.emit(code, argument);
+                case DensityFunctions.OldBlendedNoise(var blendedNoise) -> {
+                    this.noteBatchable(function);
+                    this.emitConstant(code, blendedNoise, CD_BLENDED_NOISE);
+                    this.emitBlockCoordinate(code, "blockX");
+                    this.emitBlockCoordinate(code, "blockY");
+                    this.emitBlockCoordinate(code, "blockZ");
+                    code.invokevirtual(CD_BLENDED_NOISE, "compute", MTD_BLENDED_COMPUTE);
+                }
+                case DensityFunctions.WeirdScaledSampler sampler -> {
+                    this.emitConstant(code, sampler, CD_WEIRD_SCALED_SAMPLER);
+                    code.aload(this.contextSlot);
+                    this.emit(code, sampler.input());
+                    code.invokevirtual(CD_WEIRD_SCALED_SAMPLER, "sample", MTD_WEIRD_SAMPLE);
+                }
+                default -> this.emitExternal(code, function);
+            }
+        }
+
+        private void emitMapped(CodeBuilder code, DensityFunctions.Mapped.Type type, DensityFunction input) {
+            switch (type) {
+                case ABS -> {
+                    this.emit(code, input);
+                    code.invokestatic(CD_MATH, "abs", MTD_UNARY);
+                }
+                case SQUARE -> {
+                    this.emit(code, input);
+                    code.dup2().dmul();
+                }
+                case CUBE -> {
+                    this.emit(code, input);
+                    code.dup2().dup2().dmul().dmul();
+                }
+                default -> {
+                    this.emitConstant(code, type, CD_MAPPED_TYPE);
+                    this.emit(code, input);
+                    code.invokevirtual(CD_MAPPED_TYPE, "transform", MTD_UNARY);
+                }
+            }
+        }
+
+        private void emitExternal(CodeBuilder code, DensityFunction function) {
+            var index = this.externalIndices.get(function);
+            if (index == null) {
+                index = this.externals.size();
+                this.externalSources.add(function);
+                this.externals.add(compile(function, this.compiled));
+                this.externalIndices.put(function, index);
+            }
+            this.noteBatchable(function);
+
+            code.aload(0)
+                    .getfield(CD_GENERATED, externalField(index), CD_DENSITY_FUNCTION)
+                    .aload(this.contextSlot)
+                    .invokeinterface(CD_DENSITY_FUNCTION, "compute", MTD_COMPUTE);
+        }
+
+        private void emitConstant(CodeBuilder code, Object value, ClassDesc type) {
+            var index = this.constantIndices.get(value);
+            if (index == null) {
+                index = this.constants.size();
+                this.constants.add(value);
+                this.constantTypes.add(type);
+                this.constantIndices.put(value, index);
+            }
+
+            code.aload(0).getfield(CD_GENERATED, constantField(index), type);
+        }
+
+        private void emitBlockCoordinate(CodeBuilder code, String accessor) {
+            code.aload(this.contextSlot).invokeinterface(CD_CONTEXT, accessor, MTD_BLOCK_COORDINATE);
+        }
+
+        private void emitScaledCoordinate(CodeBuilder code, String accessor, double scale) {
+            this.emitBlockCoordinate(code, accessor);
+            code.i2d().loadConstant(scale).dmul();
+        }
+
+        private static String externalField(int index) {
+            return "external" + index;
+        }
+
+        private static String constantField(int index) {
+            return "constant" + index;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package rocks.minestom.worldgen.density;
+
+import rocks.minestom.worldgen.VMath;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Folds constants and removes redundant nodes from a decoded density function tree.
+ * <p>
+ * Wherever no node of the tree produces NaN, every rewrite returns exactly the same
+ * doubles as the original tree, including the sign of zero, so rules that only hold
+ * approximately (such as dropping {@code + 0.0}) are left out. Rules based on
+ * {@link DensityFunction#minValue()} and {@link DensityFunction#maxValue()} rely on those
+ * bounds being conservative, which NaN is not: a {@code min}, {@code max}, clamp or range
+ * choice decided by bounds no longer sees a NaN from the input it drops. Constant folding
+ * keeps NaN as the interpreter would. Shared subtrees stay shared in the result.
+ */
+public final class DensityFunctionSimplifier {
+    private final Map<DensityFunction, DensityFunction> simplified = new IdentityHashMap<>();
+
+    private DensityFunctionSimplifier() {
+    }
+
+    public static DensityFunction simplify(DensityFunction function) {
+        return new DensityFunctionSimplifier().apply(function);
+    }
+
+    private DensityFunction apply(DensityFunction function) {
+        var existing = this.simplified.get(function);
+        if (existing != null) {
+            return existing;
+        }
+        var result = this.simplifyNode(function);
+        this.simplified.put(function, result);
+        return result;
+    }
+
+    private DensityFunction simplifyNode(DensityFunction function) {
+        return switch (function) {
+            case DensityFunctions.Add(var argument1, var argument2) -> this.add(this.apply(argument1), this.apply(argument2));
+            case DensityFunctions.Mul(var argument1, var argument2) -> this.mul(this.apply(argument1), this.apply(argument2));
+            case DensityFunctions.Min(var argument1, var argument2) -> this.min(this.apply(argument1), this.apply(argument2));
+            case DensityFunctions.Max(var argument1, var argument2) -> this.max(this.apply(argument1), this.apply(argument2));
+            case DensityFunctions.Clamp(var input, var min, var max) -> this.clamp(this.apply(input), min, max);
+            case DensityFunctions.Mapped(var type, var input) -> {
+                var simplifiedInput = this.apply(input);
+                if (simplifiedInput instanceof DensityFunctions.Constant(var value)) {
+                    yield new DensityFunctions.Constant(type.transform(value));
+                }
+                yield new DensityFunctions.Mapped(type, simplifiedInput);
+            }
+            case DensityFunctions.RangeChoice(var input, var minInclusive, var maxExclusive, var whenInRange, var whenOutOfRange) ->
+                    this.rangeChoice(this.apply(input), minInclusive, maxExclusive, this.apply(whenInRange), this.apply(whenOutOfRange));
+            case DensityFunctions.BlendAlpha ignored -> new DensityFunctions.Constant(1.0D);
+            case DensityFunctions.BlendOffset ignored -> new DensityFunctions.Constant(0.0D);
+            case DensityFunctions.BlendDensity(var argument) -> this.apply(argument);
+            case DensityFunctions.Interpolated(var argument) -> this.marker(this.apply(argument), DensityFunctions.Interpolated::new);
+            case DensityFunctions.CacheOnce(var argument) -> this.marker(this.apply(argument), DensityFunctions.CacheOnce::new);
+            case DensityFunctions.Cache2D(var argument) -> this.marker(this.apply(argument), DensityFunctions.Cache2D::new);
+            case DensityFunctions.FlatCache(var argument) -> this.marker(this.apply(argument), DensityFunctions.FlatCache::new);
+            case DensityFunctions.CacheAllInCell(var argument) -> this.marker(this.apply(argument), DensityFunctions.CacheAllInCell::new);
+            case DensityFunctions.ShiftedNoise(var shiftX, var shiftY, var shiftZ, var xzScale, var yScale, var noise) ->
+                    new DensityFunctions.ShiftedNoise(this.apply(shiftX), this.apply(shiftY), this.apply(shiftZ), xzScale, yScale, noise);
+            case DensityFunctions.WeirdScaledSampler(var input, var noise, var rarityValueMapper) ->
+                    new DensityFunctions.WeirdScaledSampler(this.apply(input), noise, rarityValueMapper);
+            case DensityFunctions.Spline spline -> {
+                var simplifiedSpline = this.spline(spline.spline());
+                if (simplifiedSpline instanceof DensityFunctions.SplineConstant(var value)) {
+                    yield new DensityFunctions.Constant(value);
+                }
+                yield new DensityFunctions.Spline(simplifiedSpline);
+            }
+            default -> function;
+        };
+    }
+
+    private DensityFunction add(DensityFunction argument1, DensityFunction argument2) {
+        if (argument1 instanceof DensityFunctions.Constant(var value1) && argument2 instanceof DensityFunctions.Constant(var value2)) {
+            return new DensityFunctions.Constant(value1 + value2);
+        }
+        return new DensityFunctions.Add(argument1, argument2);
+    }
+
+    private DensityFunction mul(DensityFunction argument1, DensityFunction argument2) {
+        if (argument1 instanceof DensityFunctions.Constant(var value1) && argument2 instanceof DensityFunctions.Constant(var value2)) {
+            return new DensityFunctions.Constant(value1 * value2);
+        }
+        // x * 1.0 is x for every double, unlike x + 0.0 which turns -0.0 into 0.0
+        if (argument1 instanceof DensityFunctions.Constant(var value1) && value1 == 1.0D) {
+            return argument2;
+        }
+        if (argument2 instanceof DensityFunctions.Constant(var value2) && value2 == 1.0D) {
+            return argument1;
+        }
+        return new DensityFunctions.Mul(argument1, argument2);
+    }
+
+    private DensityFunction min(DensityFunction argument1, DensityFunction argument2) {
+        if (argument1 instanceof DensityFunctions.Constant(var value1) && argument2 instanceof DensityFunctions.Constant(var value2)) {
+            return new DensityFunctions.Constant(Math.min(value1, value2));
+        }
+        // Strict comparisons, since Math.min prefers -0.0 over 0.0
+        if (argument1.maxValue() < argument2.minValue()) {
+            return argument1;
+        }
+        if (argument2.maxValue() < argument1.minValue()) {
+            return argument2;
+        }
+        return new DensityFunctions.Min(argument1, argument2);
+    }
+
+    private DensityFunction max(DensityFunction argument1, DensityFunction argument2) {
+        if (argument1 instanceof DensityFunctions.Constant(var value1) && argument2 instanceof DensityFunctions.Constant(var value2)) {
+            return new DensityFunctions.Constant(Math.max(value1, value2));
+        }
+        if (argument1.minValue() > argument2.maxValue()) {
+            return argument1;
+        }
+        if (argument2.minValue() > argument1.maxValue()) {
+            return argument2;
+        }
+        return new DensityFunctions.Max(argument1, argument2);
+    }
+
+    private DensityFunction clamp(DensityFunction input, double min, double max) {
+        if (input instanceof DensityFunctions.Constant(var value)) {
+            return new DensityFunctions.Constant(VMath.clamp(value, min, max));
+        }
+        if (input.minValue() >= min && input.maxValue() <= max) {
+            return input;
+        }
+        return new DensityFunctions.Clamp(input, min, max);
+    }
+
+    private DensityFunction rangeChoice(DensityFunction input, double minInclusive, double maxExclusive,
+            DensityFunction whenInRange, DensityFunction whenOutOfRange) {
+        if (whenInRange.equals(whenOutOfRange)) {
+            return whenInRange;
+        }
+        if (input instanceof DensityFunctions.Constant(var value)) {
+            return value >= minInclusive && value < maxExclusive ? whenInRange : whenOutOfRange;
+        }
+        if (input.minValue() >= minInclusive && input.maxValue() < maxExclusive) {
+            return whenInRange;
+        }
+        if (input.maxValue() < minInclusive || input.minValue() >= maxExclusive) {
+            return whenOutOfRange;
+        }
+        return new DensityFunctions.RangeChoice(input, minInclusive, maxExclusive, whenInRange, whenOutOfRange);
+    }
+
+    /**
+     * Caching or interpolating a constant yields the constant itself, so the marker is
+     * dropped. Zeros are kept, since interpolating between {@code -0.0} corners gives
+     * {@code 0.0}.
+     */
+    private DensityFunction marker(DensityFunction argument, Function<DensityFunction, DensityFunction> constructor) {
+        if (argument instanceof DensityFunctions.Constant constant && Double.isFinite(constant.value()) && constant.value() != 0.0D) {
+            return constant;
+        }
+        return constructor.apply(argument);
+    }
+
+    private DensityFunctions.SplineNode spline(DensityFunctions.SplineNode node) {
+        if (!(node instanceof DensityFunctions.SplineMultipoint(var coordinate, var locations, var values, var derivatives))) {
+            return node;
+        }
+
+        var simplifiedCoordinate = this.apply(coordinate);
+        var simplifiedValues = new ArrayList<DensityFunctions.SplineNode>(values.size());
+        for (var value : values) {
+            simplifiedValues.add(this.spline(value));
+        }
+
+        if (this.isFlat(simplifiedCoordinate, simplifiedValues, derivatives)) {
+            return simplifiedValues.getFirst();
+        }
+        return new DensityFunctions.SplineMultipoint(simplifiedCoordinate, locations, simplifiedValues, derivatives);
+    }
+
+    /**
+     * A spline through equal, non-zero constants with zero derivatives evaluates to that
+     * constant at every finite coordinate: both the Hermite segments and the linear
+     * extensions only ever add a zero term to it.
+     */
+    private boolean isFlat(DensityFunction coordinate, List<DensityFunctions.SplineNode> values, float[] derivatives) {
+        if (!Double.isFinite(coordinate.minValue()) || !Double.isFinite(coordinate.maxValue())) {
+            return false;
+        }
+        if (!(values.getFirst() instanceof DensityFunctions.SplineConstant(var first)) || first == 0.0F || !Float.isFinite(first)) {
+            return false;
+        }
+        for (var index = 0; index < values.size(); index++) {
+            if (!(values.get(index) instanceof DensityFunctions.SplineConstant(var value)) || value != first || derivatives[index] != 0.0F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,6 +4,7 @@ import rocks.minestom.worldgen.noise.BlendedNoise;
 import rocks.minestom.worldgen.noise.NormalNoise;
 import rocks.minestom.worldgen.noise.SimplexNoise;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,11 +16,37 @@ public final class DensityFunctions {
     private DensityFunctions() {
     }
 
+    /**
+     * Fills a column with one sample of {@code function}, which must not depend on Y.
+     */
+    private static void fillIgnoringY(double[] values, DensityFunction.ContextProvider provider, DensityFunction function) {
+        if (!provider.isColumn() || values.length == 0) {
+            provider.fillAllDirectly(values, function);
+            return;
+        }
+        Arrays.fill(values, function.compute(provider.forIndex(0)));
+    }
+
     public record Constant(double value) implements DensityFunction {
         @Override
         public double compute(Context context) {
             return this.value;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            Arrays.fill(values, this.value);
+        }
+
+        @Override
+        public double minValue() {
+            return this.value;
+        }
+
+        @Override
+        public double maxValue() {
+            return this.value;
+        }
     }
 
     public record Add(DensityFunction argument1, DensityFunction argument2) implements DensityFunction {
@@ -27,6 +54,28 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.argument1.compute(context) + this.argument2.compute(context);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.argument1.fillArray(values, provider);
+            var scratch = provider.scratch();
+            var other = scratch.borrow(values.length);
+            this.argument2.fillArray(other, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] += other[index];
+            }
+            scratch.release(other);
+        }
+
+        @Override
+        public double minValue() {
+            return this.argument1.minValue() + this.argument2.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument1.maxValue() + this.argument2.maxValue();
+        }
     }
 
     public record Mul(DensityFunction argument1, DensityFunction argument2) implements DensityFunction {
@@ -34,6 +83,44 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.argument1.compute(context) * this.argument2.compute(context);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.argument1.fillArray(values, provider);
+            var scratch = provider.scratch();
+            var other = scratch.borrow(values.length);
+            this.argument2.fillArray(other, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] *= other[index];
+            }
+            scratch.release(other);
+        }
+
+        @Override
+        public double minValue() {
+            return productMin(this.argument1.minValue(), this.argument1.maxValue(), this.argument2.minValue(), this.argument2.maxValue());
+        }
+
+        @Override
+        public double maxValue() {
+            return productMax(this.argument1.minValue(), this.argument1.maxValue(), this.argument2.minValue(), this.argument2.maxValue());
+        }
+
+        /**
+         * Lower bound of {@code a * b} for {@code a} in {@code [min1, max1]} and {@code b} in {@code [min2, max2]}.
+         */
+        public static double productMin(double min1, double max1, double min2, double max2) {
+            var result = Math.min(Math.min(min1 * min2, min1 * max2), Math.min(max1 * min2, max1 * max2));
+            return Double.isNaN(result) ? Double.NEGATIVE_INFINITY : result;
+        }
+
+        /**
+         * Upper bound of {@code a * b} for {@code a} in {@code [min1, max1]} and {@code b} in {@code [min2, max2]}.
+         */
+        public static double productMax(double min1, double max1, double min2, double max2) {
+            var result = Math.max(Math.max(min1 * min2, min1 * max2), Math.max(max1 * min2, max1 * max2));
+            return Double.isNaN(result) ? Double.POSITIVE_INFINITY : result;
+        }
     }
 
     public record Min(DensityFunction argument1, DensityFunction argument2) implements DensityFunction {
@@ -41,6 +128,28 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return Math.min(this.argument1.compute(context), this.argument2.compute(context));
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.argument1.fillArray(values, provider);
+            var scratch = provider.scratch();
+            var other = scratch.borrow(values.length);
+            this.argument2.fillArray(other, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] = Math.min(values[index], other[index]);
+            }
+            scratch.release(other);
+        }
+
+        @Override
+        public double minValue() {
+            return Math.min(this.argument1.minValue(), this.argument2.minValue());
+        }
+
+        @Override
+        public double maxValue() {
+            return Math.min(this.argument1.maxValue(), this.argument2.maxValue());
+        }
     }
 
     public record Max(DensityFunction argument1, DensityFunction argument2) implements DensityFunction {
@@ -48,6 +157,28 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return Math.max(this.argument1.compute(context), this.argument2.compute(context));
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.argument1.fillArray(values, provider);
+            var scratch = provider.scratch();
+            var other = scratch.borrow(values.length);
+            this.argument2.fillArray(other, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] = Math.max(values[index], other[index]);
+            }
+            scratch.release(other);
+        }
+
+        @Override
+        public double minValue() {
+            return Math.max(this.argument1.minValue(), this.argument2.minValue());
+        }
+
+        @Override
+        public double maxValue() {
+            return Math.max(this.argument1.maxValue(), this.argument2.maxValue());
+        }
     }
 
     public record Clamp(DensityFunction input, double min, double max) implements DensityFunction {
@@ -55,6 +186,24 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return VMath.clamp(this.input.compute(context), this.min, this.max);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.input.fillArray(values, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] = VMath.clamp(values[index], this.min, this.max);
+            }
+        }
+
+        @Override
+        public double minValue() {
+            return VMath.clamp(this.input.minValue(), this.min, this.max);
+        }
+
+        @Override
+        public double maxValue() {
+            return VMath.clamp(this.input.maxValue(), this.min, this.max);
+        }
     }
 
     public record Mapped(Type type, DensityFunction input) implements DensityFunction {
@@ -63,6 +212,24 @@ public final class DensityFunctions {
             return this.type.transform(this.input.compute(context));
         }
 
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.input.fillArray(values, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] = this.type.transform(values[index]);
+            }
+        }
+
+        @Override
+        public double minValue() {
+            return this.type.minValue(this.input.minValue(), this.input.maxValue());
+        }
+
+        @Override
+        public double maxValue() {
+            return this.type.maxValue(this.input.minValue(), this.input.maxValue());
+        }
+
         public enum Type {
             ABS {
                 @Override
@@ -103,6 +270,29 @@ public final class DensityFunctions {
             };
 
             public abstract double transform(double value);
+
+            /**
+             * Lower bound of the transformed value for inputs in {@code [inputMin, inputMax]}.
+             */
+            public double minValue(double inputMin, double inputMax) {
+                return switch (this) {
+                    case ABS -> inputMin >= 0.0 ? inputMin : inputMax <= 0.0 ? -inputMax : 0.0;
+                    case SQUARE -> inputMin >= 0.0 ? inputMin * inputMin : inputMax <= 0.0 ? inputMax * inputMax : 0.0;
+                    // The remaining transforms are monotonically non-decreasing
+                    default -> this.transform(inputMin);
+                };
+            }
+
+            /**
+             * Upper bound of the transformed value for inputs in {@code [inputMin, inputMax]}.
+             */
+            public double maxValue(double inputMin, double inputMax) {
+                return switch (this) {
+                    case ABS -> Math.max(Math.abs(inputMin), Math.abs(inputMax));
+                    case SQUARE -> Math.max(inputMin * inputMin, inputMax * inputMax);
+                    default -> this.transform(inputMax);
+                };
+            }
         }
     }
 
@@ -111,6 +301,36 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return VMath.clampedMap((double) context.blockY(), (double) this.fromY, (double) this.toY, this.fromValue, this.toValue);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            if (!provider.isColumn()) {
+                for (var index = 0; index < values.length; index++) {
+                    values[index] = this.map(provider.forIndex(index).blockY());
+                }
+                return;
+            }
+
+            var blockY = provider.forIndex(0).blockY();
+            var stepY = provider.columnStepY();
+            for (var index = 0; index < values.length; index++) {
+                values[index] = this.map(blockY + index * stepY);
+            }
+        }
+
+        private double map(int blockY) {
+            return VMath.clampedMap((double) blockY, (double) this.fromY, (double) this.toY, this.fromValue, this.toValue);
+        }
+
+        @Override
+        public double minValue() {
+            return Math.min(this.fromValue, this.toValue);
+        }
+
+        @Override
+        public double maxValue() {
+            return Math.max(this.fromValue, this.toValue);
+        }
     }
 
     public record RangeChoice(
@@ -128,6 +348,30 @@ public final class DensityFunctions {
             }
             return this.whenOutOfRange.compute(context);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.input.fillArray(values, provider);
+            for (var index = 0; index < values.length; index++) {
+                var value = values[index];
+                var context = provider.forIndex(index);
+                if (value >= this.minInclusive && value < this.maxExclusive) {
+                    values[index] = this.whenInRange.compute(context);
+                } else {
+                    values[index] = this.whenOutOfRange.compute(context);
+                }
+            }
+        }
+
+        @Override
+        public double minValue() {
+            return Math.min(this.whenInRange.minValue(), this.whenOutOfRange.minValue());
+        }
+
+        @Override
+        public double maxValue() {
+            return Math.max(this.whenInRange.maxValue(), this.whenOutOfRange.maxValue());
+        }
     }
 
     public record Noise(NormalNoise noise, double xzScale, double yScale) implements DensityFunction {
@@ -135,6 +379,32 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.noise.getValue((double) context.blockX() * this.xzScale, (double) context.blockY() * this.yScale, (double) context.blockZ() * this.xzScale);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            if (!provider.isColumn()) {
+                provider.fillAllDirectly(values, this);
+                return;
+            }
+
+            var context = provider.forIndex(0);
+            var blockY = context.blockY();
+            var stepY = provider.columnStepY();
+            for (var index = 0; index < values.length; index++) {
+                values[index] = (double) (blockY + index * stepY) * this.yScale;
+            }
+            this.noise.fillColumn((double) context.blockX() * this.xzScale, (double) context.blockZ() * this.xzScale, values, values.length, values, provider.scratch());
+        }
+
+        @Override
+        public double minValue() {
+            return -this.noise.maxValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.noise.maxValue();
+        }
     }
 
     public record ShiftedNoise(
@@ -152,6 +422,63 @@ public final class DensityFunctions {
             var z = (double) context.blockZ() * this.xzScale + this.shiftZ.compute(context);
             return this.noise.getValue(x, y, z);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            var scratch = provider.scratch();
+            var shiftsX = scratch.borrow(values.length);
+            var shiftsY = scratch.borrow(values.length);
+            this.shiftX.fillArray(shiftsX, provider);
+            this.shiftY.fillArray(shiftsY, provider);
+            this.shiftZ.fillArray(values, provider);
+            if (!provider.isColumn() || values.length == 0 || !this.fillColumn(values, provider, shiftsX, shiftsY)) {
+                for (var index = 0; index < values.length; index++) {
+                    var context = provider.forIndex(index);
+                    var x = (double) context.blockX() * this.xzScale + shiftsX[index];
+                    var y = (double) context.blockY() * this.yScale + shiftsY[index];
+                    var z = (double) context.blockZ() * this.xzScale + values[index];
+                    values[index] = this.noise.getValue(x, y, z);
+                }
+            }
+            scratch.release(shiftsY);
+            scratch.release(shiftsX);
+        }
+
+        /**
+         * Samples the noise as one column when the shifted X and Z are the same for every
+         * index, which holds for the usual XZ-only shifts.
+         */
+        private boolean fillColumn(double[] values, ContextProvider provider, double[] shiftsX, double[] shiftsY) {
+            var context = provider.forIndex(0);
+            var blockX = context.blockX();
+            var blockY = context.blockY();
+            var blockZ = context.blockZ();
+            var x = (double) blockX * this.xzScale + shiftsX[0];
+            var z = (double) blockZ * this.xzScale + values[0];
+            for (var index = 1; index < values.length; index++) {
+                if (Double.doubleToRawLongBits((double) blockX * this.xzScale + shiftsX[index]) != Double.doubleToRawLongBits(x)
+                        || Double.doubleToRawLongBits((double) blockZ * this.xzScale + values[index]) != Double.doubleToRawLongBits(z)) {
+                    return false;
+                }
+            }
+
+            var stepY = provider.columnStepY();
+            for (var index = 0; index < values.length; index++) {
+                shiftsY[index] = (double) (blockY + index * stepY) * this.yScale + shiftsY[index];
+            }
+            this.noise.fillColumn(x, z, shiftsY, values.length, values, provider.scratch());
+            return true;
+        }
+
+        @Override
+        public double minValue() {
+            return -this.noise.maxValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.noise.maxValue();
+        }
     }
 
     public record ShiftA(NormalNoise offsetNoise) implements DensityFunction {
@@ -159,6 +486,21 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.offsetNoise.getValue((double) context.blockX() * 0.25, 0.0, (double) context.blockZ() * 0.25) * 4.0;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            fillIgnoringY(values, provider, this);
+        }
+
+        @Override
+        public double minValue() {
+            return -this.offsetNoise.maxValue() * 4.0;
+        }
+
+        @Override
+        public double maxValue() {
+            return this.offsetNoise.maxValue() * 4.0;
+        }
     }
 
     public record ShiftB(NormalNoise offsetNoise) implements DensityFunction {
@@ -166,6 +508,21 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.offsetNoise.getValue((double) context.blockZ() * 0.25, (double) context.blockX() * 0.25, 0.0) * 4.0;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            fillIgnoringY(values, provider, this);
+        }
+
+        @Override
+        public double minValue() {
+            return -this.offsetNoise.maxValue() * 4.0;
+        }
+
+        @Override
+        public double maxValue() {
+            return this.offsetNoise.maxValue() * 4.0;
+        }
     }
 
     public record BlendAlpha() implements DensityFunction {
@@ -173,6 +530,21 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return 1.0;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            Arrays.fill(values, 1.0);
+        }
+
+        @Override
+        public double minValue() {
+            return 1.0;
+        }
+
+        @Override
+        public double maxValue() {
+            return 1.0;
+        }
     }
 
     public record BlendOffset() implements DensityFunction {
@@ -180,6 +552,21 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return 0.0;
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            Arrays.fill(values, 0.0);
+        }
+
+        @Override
+        public double minValue() {
+            return 0.0;
+        }
+
+        @Override
+        public double maxValue() {
+            return 0.0;
+        }
     }
 
     public record BlendDensity(DensityFunction argument) implements DensityFunction {
@@ -187,6 +574,21 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.argument.compute(context);
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.argument.fillArray(values, provider);
+        }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
+        }
     }
 
     public record Interpolated(DensityFunction argument) implements DensityFunction {
@@ -197,6 +599,16 @@ public final class DensityFunctions {
             }
             return this.argument.compute(context);
         }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
+        }
     }
 
     public record CacheOnce(DensityFunction argument) implements DensityFunction {
@@ -207,6 +619,16 @@ public final class DensityFunctions {
             }
             return this.argument.compute(context);
         }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
+        }
     }
 
     public record Cache2D(DensityFunction argument) implements DensityFunction {
@@ -217,6 +639,16 @@ public final class DensityFunctions {
             }
             return this.argument.compute(context);
         }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
+        }
     }
 
     public record FlatCache(DensityFunction argument) implements DensityFunction {
@@ -225,7 +657,32 @@ public final class DensityFunctions {
             if (context instanceof ChunkContext chunkContext) {
                 return chunkContext.flatCacheValue(this);
             }
-            return this.argument.compute(context);
+
+            // Quart-aligned columns are shared with the terrain pass through the unit's memo
+            var memo = context.flatCacheMemo();
+            var blockX = context.blockX();
+            var blockZ = context.blockZ();
+            if (memo == null || ((blockX | blockZ) & 3) != 0) {
+                return this.argument.compute(context);
+            }
+
+            var slot = memo.find(this, blockX, blockZ);
+            if (slot >= 0) {
+                return memo.value(slot);
+            }
+            var value = this.argument.compute(context);
+            memo.store(this, blockX, blockZ, value);
+            return value;
+        }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
         }
     }
 
@@ -237,6 +694,16 @@ public final class DensityFunctions {
             }
             return this.argument.compute(context);
         }
+
+        @Override
+        public double minValue() {
+            return this.argument.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.argument.maxValue();
+        }
     }
 
     public record OldBlendedNoise(BlendedNoise blendedNoise) implements DensityFunction {
@@ -244,6 +711,27 @@ public final class DensityFunctions {
         public double compute(Context context) {
             return this.blendedNoise.compute(context.blockX(), context.blockY(), context.blockZ());
         }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            if (!provider.isColumn()) {
+                provider.fillAllDirectly(values, this);
+                return;
+            }
+
+            var context = provider.forIndex(0);
+            this.blendedNoise.fillColumn(context.blockX(), context.blockZ(), context.blockY(), provider.columnStepY(), values.length, values, provider.scratch());
+        }
+
+        @Override
+        public double minValue() {
+            return -this.blendedNoise.maxValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.blendedNoise.maxValue();
+        }
     }
 
     public record EndIslands(SimplexNoise islandNoise) implements DensityFunction {
@@ -253,6 +741,21 @@ public final class DensityFunctions {
             return ((double) height - 8.0D) / 128.0D;
         }
 
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            fillIgnoringY(values, provider, this);
+        }
+
+        @Override
+        public double minValue() {
+            return -0.84375D;
+        }
+
+        @Override
+        public double maxValue() {
+            return 0.5625D;
+        }
+
         private static float getHeightValue(SimplexNoise simplexNoise, int blockX, int blockZ) {
             var halfX = blockX / 2;
             var halfZ = blockZ / 2;
@@ -284,11 +787,35 @@ public final class DensityFunctions {
             implements DensityFunction {
         @Override
         public double compute(Context context) {
-            var value = this.input.compute(context);
-            var rarity = this.rarityValueMapper.map(value);
+            return this.sample(context, this.input.compute(context));
+        }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.input.fillArray(values, provider);
+            for (var index = 0; index < values.length; index++) {
+                values[index] = this.sample(provider.forIndex(index), values[index]);
+            }
+        }
+
+        /**
+         * Samples the scaled noise for an already computed {@code input} value.
+         */
+        public double sample(Context context, double input) {
+            var rarity = this.rarityValueMapper.map(input);
             return rarity * Math.abs(this.noise.getValue((double) context.blockX() / rarity, (double) context.blockY() / rarity, (double) context.blockZ() / rarity));
         }
 
+        @Override
+        public double minValue() {
+            return 0.0;
+        }
+
+        @Override
+        public double maxValue() {
+            return this.rarityValueMapper.maxRarity() * this.noise.maxValue();
+        }
+
         public enum RarityValueMapper {
             TYPE_1 {
                 @Override
@@ -301,6 +828,11 @@ public final class DensityFunctions {
                     }
                     return value < 0.5 ? 1.5 : 2.0;
                 }
+
+                @Override
+                public double maxRarity() {
+                    return 2.0;
+                }
             },
             TYPE_2 {
                 @Override
@@ -316,14 +848,25 @@ public final class DensityFunctions {
                     }
                     return value < 0.75 ? 2.0 : 3.0;
                 }
+
+                @Override
+                public double maxRarity() {
+                    return 3.0;
+                }
             };
 
             public abstract double map(double value);
+
+            public abstract double maxRarity();
         }
     }
 
     public sealed interface SplineNode permits SplineConstant, SplineMultipoint {
         float compute(DensityFunction.Context context);
+
+        float minValue();
+
+        float maxValue();
     }
 
     public record SplineConstant(float value) implements SplineNode {
@@ -331,6 +874,16 @@ public final class DensityFunctions {
         public float compute(DensityFunction.Context context) {
             return this.value;
         }
+
+        @Override
+        public float minValue() {
+            return this.value;
+        }
+
+        @Override
+        public float maxValue() {
+            return this.value;
+        }
     }
 
     public record SplineMultipoint(
@@ -363,6 +916,75 @@ public final class DensityFunctions {
             return (float) VMath.lerp((double) delta, (double) startValue, (double) endValue) + delta * (1.0F - delta) * (float) VMath.lerp((double) delta, (double) p, (double) q);
         }
 
+        @Override
+        public float minValue() {
+            return this.bound(false);
+        }
+
+        @Override
+        public float maxValue() {
+            return this.bound(true);
+        }
+
+        /**
+         * Bounds the spline over every coordinate the input can produce, including the
+         * linear extensions past either end and the overshoot of each Hermite segment.
+         */
+        private float bound(boolean upper) {
+            var coordinateMin = (float) this.coordinate.minValue();
+            var coordinateMax = (float) this.coordinate.maxValue();
+            var lastIndex = this.locations.length - 1;
+            var min = Float.POSITIVE_INFINITY;
+            var max = Float.NEGATIVE_INFINITY;
+
+            if (coordinateMin < this.locations[0]) {
+                var first = this.values.getFirst();
+                var extendedMin = linearExtend(coordinateMin, this.locations, first.minValue(), this.derivatives, 0);
+                var extendedMax = linearExtend(coordinateMin, this.locations, first.maxValue(), this.derivatives, 0);
+                min = Math.min(min, Math.min(extendedMin, extendedMax));
+                max = Math.max(max, Math.max(extendedMin, extendedMax));
+            }
+
+            if (coordinateMax > this.locations[lastIndex]) {
+                var last = this.values.get(lastIndex);
+                var extendedMin = linearExtend(coordinateMax, this.locations, last.minValue(), this.derivatives, lastIndex);
+                var extendedMax = linearExtend(coordinateMax, this.locations, last.maxValue(), this.derivatives, lastIndex);
+                min = Math.min(min, Math.min(extendedMin, extendedMax));
+                max = Math.max(max, Math.max(extendedMin, extendedMax));
+            }
+
+            for (var value : this.values) {
+                min = Math.min(min, value.minValue());
+                max = Math.max(max, value.maxValue());
+            }
+
+            for (var index = 0; index < lastIndex; index++) {
+                var startDerivative = this.derivatives[index];
+                var endDerivative = this.derivatives[index + 1];
+                if (startDerivative == 0.0F && endDerivative == 0.0F) {
+                    continue;
+                }
+
+                var width = this.locations[index + 1] - this.locations[index];
+                var start = this.values.get(index);
+                var end = this.values.get(index + 1);
+                var startMin = start.minValue();
+                var startMax = start.maxValue();
+                var endMin = end.minValue();
+                var endMax = end.maxValue();
+                var p = startDerivative * width;
+                var q = endDerivative * width;
+                var lowestP = p - endMax + startMin;
+                var highestP = p - endMin + startMax;
+                var lowestQ = -q + endMin - startMax;
+                var highestQ = -q + endMax - startMin;
+                min = Math.min(min, Math.min(startMin, endMin) + 0.25F * Math.min(lowestP, lowestQ));
+                max = Math.max(max, Math.max(startMax, endMax) + 0.25F * Math.max(highestP, highestQ));
+            }
+
+            return upper ? max : min;
+        }
+
         private static float linearExtend(float coordinate, float[] locations, float value, float[] derivatives, int index) {
             var derivative = derivatives[index];
             if (derivative == 0.0F) {
@@ -376,10 +998,34 @@ public final class DensityFunctions {
         }
     }
 
-    public record Spline(SplineNode spline) implements DensityFunction {
+    /**
+     * The evaluator is derived from the spline and compares equal whenever the splines do.
+     * Chunks may pair the spline with an evaluator whose coordinates are rebound to their
+     * own caches through {@link SplineEvaluator#withCoordinates}.
+     */
+    public record Spline(SplineNode spline, SplineEvaluator evaluator) implements DensityFunction {
+        public Spline(SplineNode spline) {
+            this(spline, SplineEvaluator.of(spline));
+        }
+
         @Override
         public double compute(Context context) {
-            return this.spline.compute(context);
+            return this.evaluator.compute(context);
+        }
+
+        @Override
+        public void fillArray(double[] values, ContextProvider provider) {
+            this.evaluator.fillArray(values, provider);
+        }
+
+        @Override
+        public double minValue() {
+            return this.spline.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.spline.maxValue();
         }
     }
 }
@@ -0,0 +1,68 @@
+package rocks.minestom.worldgen.density;
+
+import rocks.minestom.worldgen.random.RandomSupport;
+
+/**
+ * Memo of {@link DensityFunctions.FlatCache} values at quart-aligned columns, shared by
+ * the terrain pass and climate sampling of one generation unit.
+ * <p>
+ * Flat caches are only valid for functions that ignore Y, so a value computed by the
+ * terrain pass for one column can be reused by climate sampling at the same column and
+ * the other way around. Entries are keyed by the flat cache node itself, which is shared
+ * between the final density and the climate functions once the resolver has interned
+ * them. The table is direct-mapped and lossy, so it stays bounded. A memo is reached
+ * through {@link DensityFunction.Context#flatCacheMemo()} and lives only as long as the
+ * unit that created it, so it never keeps a discarded generator's nodes alive.
+ */
+public final class FlatCacheMemo {
+    // Flat cache nodes of the vanilla routers, with room for collisions
+    private static final int ENTRIES_PER_COLUMN = 16;
+
+    private final DensityFunction[] owners;
+    private final long[] columns;
+    private final double[] values;
+    private final int mask;
+
+    /**
+     * Creates a memo sized for the quart columns of a {@code sizeX} by {@code sizeZ}
+     * block area, with a margin for the neighbouring quarts biome zooming reads.
+     */
+    public FlatCacheMemo(int sizeX, int sizeZ) {
+        var quartColumns = ((sizeX >> 2) + 3) * ((sizeZ >> 2) + 3);
+        var size = Integer.highestOneBit(quartColumns * ENTRIES_PER_COLUMN - 1) << 1;
+        this.owners = new DensityFunction[size];
+        this.columns = new long[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the slot holding the value of {@code owner} at the given column, or
+     * {@code -1} if it is not memoised.
+     */
+    public int find(DensityFunction owner, int blockX, int blockZ) {
+        var column = pack(blockX, blockZ);
+        var slot = this.slot(owner, column);
+        return this.owners[slot] == owner && this.columns[slot] == column ? slot : -1;
+    }
+
+    public double value(int slot) {
+        return this.values[slot];
+    }
+
+    public void store(DensityFunction owner, int blockX, int blockZ, double value) {
+        var column = pack(blockX, blockZ);
+        var slot = this.slot(owner, column);
+        this.owners[slot] = owner;
+        this.columns[slot] = column;
+        this.values[slot] = value;
+    }
+
+    private static long pack(int blockX, int blockZ) {
+        return (long) blockX << 32 | blockZ & 0xFFFFFFFFL;
+    }
+
+    private int slot(DensityFunction owner, long column) {
+        return (int) RandomSupport.mixStafford13(column ^ (long) System.identityHashCode(owner) << 16) & this.mask;
+    }
+}
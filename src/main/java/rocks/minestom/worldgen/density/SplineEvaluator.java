@@ -0,0 +1,291 @@
+package rocks.minestom.worldgen.density;
+
+import rocks.minestom.worldgen.VMath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened form of a {@link DensityFunctions.SplineNode} tree, built once per spline.
+ * <p>
+ * Every multipoint node becomes a range in shared location, derivative and value arrays,
+ * and constant children are stored inline instead of as nodes. The distinct coordinate
+ * functions of the whole tree are evaluated once per sample into a per-thread stack,
+ * rather than once for every nested node that reads them, so evaluation allocates
+ * nothing. Results are identical to {@link DensityFunctions.SplineMultipoint#compute}.
+ * <p>
+ * Two evaluators are equal when they were built from equal splines.
+ */
+public final class SplineEvaluator {
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    private static final ThreadLocal<CoordinateStack> STACK = ThreadLocal.withInitial(CoordinateStack::new);
+
+    private final DensityFunctions.SplineNode source;
+    private final float rootConstant;
+    private final DensityFunction[] coordinates;
+    private final int[] nodeCoordinates;
+    private final int[] nodeStarts;
+    private final int[] nodeSizes;
+    private final float[] locations;
+    private final float[] derivatives;
+    private final int[] children;
+    private final float[] constants;
+
+    private SplineEvaluator(DensityFunctions.SplineNode source, float rootConstant, DensityFunction[] coordinates,
+            int[] nodeCoordinates, int[] nodeStarts, int[] nodeSizes,
+            float[] locations, float[] derivatives, int[] children, float[] constants) {
+        this.source = source;
+        this.rootConstant = rootConstant;
+        this.coordinates = coordinates;
+        this.nodeCoordinates = nodeCoordinates;
+        this.nodeStarts = nodeStarts;
+        this.nodeSizes = nodeSizes;
+        this.locations = locations;
+        this.derivatives = derivatives;
+        this.children = children;
+        this.constants = constants;
+    }
+
+    public static SplineEvaluator of(DensityFunctions.SplineNode spline) {
+        if (spline instanceof DensityFunctions.SplineConstant constant) {
+            return new SplineEvaluator(spline, constant.value(), new DensityFunction[0],
+                    new int[0], new int[0], new int[0], new float[0], new float[0], new int[0], new float[0]);
+        }
+
+        // Shared subtrees and coordinates are flattened once
+        var nodes = new ArrayList<DensityFunctions.SplineMultipoint>();
+        var nodeIndices = new IdentityHashMap<DensityFunctions.SplineMultipoint, Integer>();
+        var coordinates = new ArrayList<DensityFunction>();
+        var coordinateIndices = new IdentityHashMap<DensityFunction, Integer>();
+        collect((DensityFunctions.SplineMultipoint) spline, nodes, nodeIndices, coordinates, coordinateIndices);
+
+        var pointCount = 0;
+        for (var node : nodes) {
+            pointCount += node.locations().length;
+        }
+
+        var nodeCoordinates = new int[nodes.size()];
+        var nodeStarts = new int[nodes.size()];
+        var nodeSizes = new int[nodes.size()];
+        var locations = new float[pointCount];
+        var derivatives = new float[pointCount];
+        var children = new int[pointCount];
+        var constants = new float[pointCount];
+
+        var point = 0;
+        for (var index = 0; index < nodes.size(); index++) {
+            var node = nodes.get(index);
+            nodeCoordinates[index] = coordinateIndices.get(node.coordinate());
+            nodeStarts[index] = point;
+            nodeSizes[index] = node.locations().length;
+            for (var pointIndex = 0; pointIndex < node.locations().length; pointIndex++) {
+                locations[point] = node.locations()[pointIndex];
+                derivatives[point] = node.derivatives()[pointIndex];
+                var value = node.values().get(pointIndex);
+                if (value instanceof DensityFunctions.SplineConstant constant) {
+                    children[point] = -1;
+                    constants[point] = constant.value();
+                } else {
+                    children[point] = nodeIndices.get((DensityFunctions.SplineMultipoint) value);
+                }
+                point++;
+            }
+        }
+
+        return new SplineEvaluator(spline, 0.0F, coordinates.toArray(DensityFunction[]::new),
+                nodeCoordinates, nodeStarts, nodeSizes, locations, derivatives, children, constants);
+    }
+
+    private static void collect(DensityFunctions.SplineMultipoint node, List<DensityFunctions.SplineMultipoint> nodes,
+            Map<DensityFunctions.SplineMultipoint, Integer> nodeIndices,
+            List<DensityFunction> coordinates, Map<DensityFunction, Integer> coordinateIndices) {
+        if (nodeIndices.containsKey(node)) {
+            return;
+        }
+        nodeIndices.put(node, nodes.size());
+        nodes.add(node);
+        if (!coordinateIndices.containsKey(node.coordinate())) {
+            coordinateIndices.put(node.coordinate(), coordinates.size());
+            coordinates.add(node.coordinate());
+        }
+        for (var value : node.values()) {
+            if (value instanceof DensityFunctions.SplineMultipoint child) {
+                collect(child, nodes, nodeIndices, coordinates, coordinateIndices);
+            }
+        }
+    }
+
+    public DensityFunctions.SplineNode source() {
+        return this.source;
+    }
+
+    /**
+     * The distinct coordinate functions of the spline, in the order
+     * {@link #withCoordinates} expects them.
+     */
+    public DensityFunction[] coordinates() {
+        return this.coordinates.clone();
+    }
+
+    /**
+     * Returns an evaluator sharing this one's flattened arrays that reads
+     * {@code coordinates} in place of {@link #coordinates()}. The replacements must compute
+     * the same values, such as the same functions bound to a chunk's caches, so the
+     * evaluator keeps its source and still compares equal.
+     */
+    public SplineEvaluator withCoordinates(DensityFunction[] coordinates) {
+        if (coordinates.length != this.coordinates.length) {
+            throw new IllegalArgumentException("Expected " + this.coordinates.length + " coordinates, got " + coordinates.length);
+        }
+
+        return new SplineEvaluator(this.source, this.rootConstant, coordinates.clone(),
+                this.nodeCoordinates, this.nodeStarts, this.nodeSizes, this.locations, this.derivatives, this.children, this.constants);
+    }
+
+    public float compute(DensityFunction.Context context) {
+        if (this.nodeStarts.length == 0) {
+            return this.rootConstant;
+        }
+
+        var stack = STACK.get();
+        var base = stack.push(this.coordinates.length);
+        try {
+            for (var index = 0; index < this.coordinates.length; index++) {
+                // Coordinates may contain splines themselves, which can grow the stack
+                var value = (float) this.coordinates[index].compute(context);
+                stack.values[base + index] = value;
+            }
+            return this.evaluate(0, stack.values, base);
+        } finally {
+            stack.top = base;
+        }
+    }
+
+    /**
+     * Fills {@code values} like {@link DensityFunction#fillArray}: each coordinate function
+     * fills the whole array once, then every index evaluates the flattened tree.
+     */
+    public void fillArray(double[] values, DensityFunction.ContextProvider provider) {
+        if (this.nodeStarts.length == 0) {
+            Arrays.fill(values, this.rootConstant);
+            return;
+        }
+
+        var count = this.coordinates.length;
+        var stack = STACK.get();
+        var base = stack.push(count * values.length);
+        try {
+            var scratch = provider.scratch();
+            var column = scratch.borrow(values.length);
+            for (var coordinate = 0; coordinate < count; coordinate++) {
+                // Coordinates may contain splines themselves, which can grow the stack
+                this.coordinates[coordinate].fillArray(column, provider);
+                var coordinateValues = stack.values;
+                for (var index = 0; index < values.length; index++) {
+                    coordinateValues[base + index * count + coordinate] = (float) column[index];
+                }
+            }
+            scratch.release(column);
+
+            for (var index = 0; index < values.length; index++) {
+                values[index] = this.evaluate(0, stack.values, base + index * count);
+            }
+        } finally {
+            stack.top = base;
+        }
+    }
+
+    private float evaluate(int node, float[] coordinateValues, int base) {
+        var coordinate = coordinateValues[base + this.nodeCoordinates[node]];
+        var start = this.nodeStarts[node];
+        var size = this.nodeSizes[node];
+        var intervalStart = this.findIntervalStart(start, size, coordinate);
+        var lastIndex = size - 1;
+        if (intervalStart < 0) {
+            return this.linearExtend(coordinate, start, this.pointValue(start, coordinateValues, base));
+        }
+        if (intervalStart == lastIndex) {
+            var last = start + lastIndex;
+            return this.linearExtend(coordinate, last, this.pointValue(last, coordinateValues, base));
+        }
+
+        var index = start + intervalStart;
+        var startLocation = this.locations[index];
+        var endLocation = this.locations[index + 1];
+        var delta = (coordinate - startLocation) / (endLocation - startLocation);
+        var startValue = this.pointValue(index, coordinateValues, base);
+        var endValue = this.pointValue(index + 1, coordinateValues, base);
+        var startDerivative = this.derivatives[index];
+        var endDerivative = this.derivatives[index + 1];
+        var p = startDerivative * (endLocation - startLocation) - (endValue - startValue);
+        var q = -endDerivative * (endLocation - startLocation) + (endValue - startValue);
+        return (float) VMath.lerp((double) delta, (double) startValue, (double) endValue) + delta * (1.0F - delta) * (float) VMath.lerp((double) delta, (double) p, (double) q);
+    }
+
+    private float pointValue(int point, float[] coordinateValues, int base) {
+        var child = this.children[point];
+        return child < 0 ? this.constants[point] : this.evaluate(child, coordinateValues, base);
+    }
+
+    private float linearExtend(float coordinate, int point, float value) {
+        var derivative = this.derivatives[point];
+        if (derivative == 0.0F) {
+            return value;
+        }
+        return value + derivative * (coordinate - this.locations[point]);
+    }
+
+    /**
+     * Returns the index of the last location not greater than {@code coordinate}, or -1.
+     * Counting the locations the coordinate is not below matches the binary search of
+     * {@link DensityFunctions.SplineMultipoint} for sorted locations, NaN included.
+     */
+    private int findIntervalStart(int start, int size, float coordinate) {
+        if (size <= LINEAR_SEARCH_LIMIT) {
+            var count = 0;
+            for (var index = start; index < start + size; index++) {
+                count += coordinate < this.locations[index] ? 0 : 1;
+            }
+            return count - 1;
+        }
+
+        var low = start;
+        var high = start + size;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (coordinate < this.locations[middle]) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low - start - 1;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof SplineEvaluator other && this.source.equals(other.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.source.hashCode();
+    }
+
+    private static final class CoordinateStack {
+        private float[] values = new float[64];
+        private int top;
+
+        private int push(int count) {
+            var base = this.top;
+            if (base + count > this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(this.values.length * 2, base + count));
+            }
+            this.top = base + count;
+            return base;
+        }
+    }
+}
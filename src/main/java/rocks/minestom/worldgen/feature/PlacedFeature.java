@@ -2,10 +2,10 @@ package rocks.minestom.worldgen.feature;
 
 import com.google.gson.JsonElement;
 import net.kyori.adventure.key.Key;
-import net.minestom.server.coordinate.BlockVec;
 import rocks.minestom.worldgen.feature.placement.PlacementContext;
 import rocks.minestom.worldgen.feature.placement.PlacementModifier;
 import rocks.minestom.worldgen.feature.placement.PlacementModifiers;
+import rocks.minestom.worldgen.feature.placement.PlacementPositions;
 import rocks.minestom.worldgen.random.RandomSource;
 
 import java.util.List;
@@ -52,11 +52,7 @@ public record PlacedFeature(Key feature, ConfiguredFeature<?> inlineFeature, Lis
         return loader.getConfiguredFeature(this.feature);
     }
 
-    public List<BlockVec> getPositions(PlacementContext context, RandomSource random, BlockVec origin) {
-        if (this.placement.isEmpty()) {
-            return List.of(origin);
-        }
-
-        return PlacementModifiers.apply(this.placement, context, random, origin);
+    public PlacementPositions getPositions(PlacementContext context, RandomSource random, int originX, int originY, int originZ) {
+        return PlacementModifiers.apply(this.placement, context, random, PlacementPositions.pack(originX, originY, originZ));
     }
 }
@@ -48,18 +48,22 @@ public final class RandomPatchFeature implements Feature<RandomPatchConfiguratio
             var offsetX = context.random().nextInt(xzRange) - context.random().nextInt(xzRange);
             var offsetY = context.random().nextInt(yRange) - context.random().nextInt(yRange);
             var offsetZ = context.random().nextInt(xzRange) - context.random().nextInt(xzRange);
-            var targetPosition = new BlockVec(origin.blockX() + offsetX, origin.blockY() + offsetY, origin.blockZ() + offsetZ);
-
-            var placementPositions = placedFeature.getPositions(placementContext, context.random(), targetPosition);
-            for (var placementPosition : placementPositions) {
-                if (placementPosition.blockY() < context.minY() || placementPosition.blockY() > context.maxY()) {
+            var placementPositions = placedFeature.getPositions(
+                    placementContext,
+                    context.random(),
+                    origin.blockX() + offsetX,
+                    origin.blockY() + offsetY,
+                    origin.blockZ() + offsetZ);
+            for (var positionIndex = 0; positionIndex < placementPositions.size(); positionIndex++) {
+                var blockY = placementPositions.blockY(positionIndex);
+                if (blockY < context.minY() || blockY > context.maxY()) {
                     continue;
                 }
 
                 var innerContext = new FeaturePlaceContext<>(
                         context.accessor(),
                         context.random(),
-                        placementPosition,
+                        new BlockVec(placementPositions.blockX(positionIndex), blockY, placementPositions.blockZ(positionIndex)),
                         configuredFeature.config(),
                         context.worldSeed(),
                         context.minY(),
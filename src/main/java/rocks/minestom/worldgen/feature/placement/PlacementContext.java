@@ -1,7 +1,6 @@
 package rocks.minestom.worldgen.feature.placement;
 
 import net.kyori.adventure.key.Key;
-import net.minestom.server.coordinate.BlockVec;
 import net.minestom.server.instance.block.Block;
 import rocks.minestom.worldgen.biome.BiomeZoomer;
 
@@ -93,12 +92,12 @@ public final class PlacementContext {
         return this.seaLevel + 1;
     }
 
-    public Key biomeAt(BlockVec position) {
-        return this.biomeZoomer.biome(position.blockX(), position.blockY(), position.blockZ());
+    public Key biomeAt(int blockX, int blockY, int blockZ) {
+        return this.biomeZoomer.biome(blockX, blockY, blockZ);
     }
 
-    public boolean inWorldBounds(BlockVec position) {
-        return position.blockY() >= this.minY && position.blockY() <= this.maxY;
+    public boolean inWorldBounds(int blockY) {
+        return blockY >= this.minY && blockY <= this.maxY;
     }
 
     public enum HeightmapType {
@@ -1,10 +1,21 @@
 package rocks.minestom.worldgen.feature.placement;
 
-import net.minestom.server.coordinate.BlockVec;
 import rocks.minestom.worldgen.random.RandomSource;
 
-import java.util.List;
+import java.util.function.LongConsumer;
 
 public interface PlacementModifier {
-    List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position);
+    /**
+     * Emits the positions derived from {@code position} into {@code sink}, both packed
+     * with {@link PlacementPositions#pack(int, int, int)}.
+     */
+    void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink);
+
+    /**
+     * Modifiers that never draw from the random can run fused with the modifier before
+     * them without changing the draw order of the pipeline.
+     */
+    default boolean usesRandom() {
+        return true;
+    }
 }
@@ -16,9 +16,11 @@ import rocks.minestom.worldgen.random.XoroshiroRandomSource;
 import rocks.minestom.worldgen.surface.VerticalAnchor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.LongConsumer;
 
 public final class PlacementModifiers {
     private static final SimplexNoise BIOME_INFO_NOISE = new SimplexNoise(new XoroshiroRandomSource(2345L));
@@ -42,27 +44,18 @@ public final class PlacementModifiers {
         return List.copyOf(modifiers);
     }
 
-    public static List<BlockVec> apply(
+    /**
+     * Modifiers run in stages so the random is drawn in the same order as applying each
+     * modifier to every position before the next: a stage starts at every modifier that
+     * uses the random and fuses the random-free modifiers after it.
+     */
+    public static PlacementPositions apply(
             List<PlacementModifier> modifiers,
             PlacementContext context,
-            rocks.minestom.worldgen.random.RandomSource random,
-            BlockVec origin
+            RandomSource random,
+            long origin
     ) {
-        var positions = new ArrayList<BlockVec>();
-        positions.add(origin);
-
-        for (var modifier : modifiers) {
-            var nextPositions = new ArrayList<BlockVec>();
-            for (var position : positions) {
-                nextPositions.addAll(modifier.apply(context, random, position));
-            }
-            positions = nextPositions;
-            if (positions.isEmpty()) {
-                break;
-            }
-        }
-
-        return positions;
+        return new Pipeline(modifiers, context, random).run(origin);
     }
 
     private static PlacementModifier parseModifier(JsonObject object) {
@@ -195,56 +188,127 @@ public final class PlacementModifiers {
         return new BlockVec(offset.get(0).getAsInt(), offset.get(1).getAsInt(), offset.get(2).getAsInt());
     }
 
-    private record CountModifier(IntProvider count) implements PlacementModifier {
+    private static final class Pipeline implements LongConsumer {
+        private final List<PlacementModifier> modifiers;
+        private final PlacementContext context;
+        private final RandomSource random;
+        private long[] input = new long[16];
+        private int inputSize;
+        private long[] output = new long[16];
+        private int outputSize;
+        private int next;
+        private int stageEnd;
+
+        private Pipeline(List<PlacementModifier> modifiers, PlacementContext context, RandomSource random) {
+            this.modifiers = modifiers;
+            this.context = context;
+            this.random = random;
+        }
+
+        private PlacementPositions run(long origin) {
+            this.input[0] = origin;
+            this.inputSize = 1;
+
+            var stageStart = 0;
+            while (stageStart < this.modifiers.size() && this.inputSize > 0) {
+                var stageEnd = stageStart + 1;
+                while (stageEnd < this.modifiers.size() && !this.modifiers.get(stageEnd).usesRandom()) {
+                    stageEnd++;
+                }
+
+                this.stageEnd = stageEnd;
+                this.outputSize = 0;
+                var modifier = this.modifiers.get(stageStart);
+                for (var index = 0; index < this.inputSize; index++) {
+                    this.next = stageStart + 1;
+                    modifier.apply(this.context, this.random, this.input[index], this);
+                }
+
+                var positions = this.input;
+                this.input = this.output;
+                this.inputSize = this.outputSize;
+                this.output = positions;
+                stageStart = stageEnd;
+            }
+
+            return new PlacementPositions(this.input, this.inputSize);
+        }
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var countValue = this.count.sample(random);
-                if (countValue <= 0) {
-                    return List.of();
+        public void accept(long position) {
+            var next = this.next;
+            if (next == this.stageEnd) {
+                if (this.outputSize == this.output.length) {
+                    this.output = Arrays.copyOf(this.output, this.outputSize * 2);
                 }
+                this.output[this.outputSize++] = position;
+                return;
+            }
+
+            this.next = next + 1;
+            this.modifiers.get(next).apply(this.context, this.random, position, this);
+            this.next = next;
+        }
+    }
+
+    private record CountModifier(IntProvider count) implements PlacementModifier {
 
-                var results = new ArrayList<BlockVec>(countValue);
+        @Override
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var countValue = this.count.sample(random);
                 for (var countIndex = 0; countIndex < countValue; countIndex++) {
-                    results.add(position);
+                    sink.accept(position);
                 }
-                return results;
             }
         }
 
     private record HeightmapModifier(PlacementContext.HeightmapType type) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var y = context.getHeight(this.type, position.blockX(), position.blockZ());
-                if (y <= context.minY()) {
-                    return List.of();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var x = PlacementPositions.unpackX(position);
+                var z = PlacementPositions.unpackZ(position);
+                var y = context.getHeight(this.type, x, z);
+                if (y > context.minY()) {
+                    sink.accept(PlacementPositions.pack(x, y, z));
                 }
+            }
 
-                return List.of(new BlockVec(position.blockX(), y, position.blockZ()));
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
     private static final class InSquareModifier implements PlacementModifier {
         @Override
-        public List<BlockVec> apply(PlacementContext context, rocks.minestom.worldgen.random.RandomSource random, BlockVec position) {
-            var x = position.blockX() + random.nextInt(16);
-            var z = position.blockZ() + random.nextInt(16);
-            return List.of(new BlockVec(x, position.blockY(), z));
+        public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+            var x = PlacementPositions.unpackX(position) + random.nextInt(16);
+            var z = PlacementPositions.unpackZ(position) + random.nextInt(16);
+            sink.accept(PlacementPositions.pack(x, PlacementPositions.unpackY(position), z));
         }
     }
 
     private static final class BiomeModifier implements PlacementModifier {
         @Override
-        public List<BlockVec> apply(PlacementContext context, rocks.minestom.worldgen.random.RandomSource random, BlockVec position) {
+        public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
             if (context.sourceBiome() == null) {
-                return List.of(position);
+                sink.accept(position);
+                return;
             }
 
-            if (context.biomeAt(position).equals(context.sourceBiome())) {
-                return List.of(position);
+            var biome = context.biomeAt(
+                    PlacementPositions.unpackX(position),
+                    PlacementPositions.unpackY(position),
+                    PlacementPositions.unpackZ(position));
+            if (biome.equals(context.sourceBiome())) {
+                sink.accept(position);
             }
-            return List.of();
+        }
+
+        @Override
+        public boolean usesRandom() {
+            return false;
         }
     }
 
@@ -254,27 +318,32 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                return random.nextFloat() < 1.0F / (float) this.chance ? List.of(position) : List.of();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                if (random.nextFloat() < 1.0F / (float) this.chance) {
+                    sink.accept(position);
+                }
             }
         }
 
     private record HeightRangeModifier(HeightProvider provider) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                return List.of(new BlockVec(position.blockX(), this.provider.sample(random, context), position.blockZ()));
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                sink.accept(PlacementPositions.pack(
+                        PlacementPositions.unpackX(position),
+                        this.provider.sample(random, context),
+                        PlacementPositions.unpackZ(position)));
             }
         }
 
     private record RandomOffsetModifier(IntProvider xzSpread, IntProvider ySpread) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var x = position.blockX() + this.xzSpread.sample(random);
-                var y = position.blockY() + this.ySpread.sample(random);
-                var z = position.blockZ() + this.xzSpread.sample(random);
-                return List.of(new BlockVec(x, y, z));
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var x = PlacementPositions.unpackX(position) + this.xzSpread.sample(random);
+                var y = PlacementPositions.unpackY(position) + this.ySpread.sample(random);
+                var z = PlacementPositions.unpackZ(position) + this.xzSpread.sample(random);
+                sink.accept(PlacementPositions.pack(x, y, z));
             }
         }
 
@@ -284,18 +353,20 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var chunkX = Math.floorDiv(position.blockX(), 16);
-                var chunkZ = Math.floorDiv(position.blockZ(), 16);
-                var results = new ArrayList<BlockVec>();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var chunkX = Math.floorDiv(PlacementPositions.unpackX(position), 16);
+                var chunkZ = Math.floorDiv(PlacementPositions.unpackZ(position), 16);
 
                 for (var fixedPosition : this.positions) {
                     if (Math.floorDiv(fixedPosition.blockX(), 16) == chunkX && Math.floorDiv(fixedPosition.blockZ(), 16) == chunkZ) {
-                        results.add(fixedPosition);
+                        sink.accept(PlacementPositions.pack(fixedPosition.blockX(), fixedPosition.blockY(), fixedPosition.blockZ()));
                     }
                 }
+            }
 
-                return results;
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
@@ -303,20 +374,19 @@ public final class PlacementModifiers {
                                            double noiseOffset) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
                 var noiseValue = BIOME_INFO_NOISE.getValue(
-                        (double) position.blockX() / this.noiseFactor,
-                        (double) position.blockZ() / this.noiseFactor);
+                        (double) PlacementPositions.unpackX(position) / this.noiseFactor,
+                        (double) PlacementPositions.unpackZ(position) / this.noiseFactor);
                 var count = (int) Math.ceil((noiseValue + this.noiseOffset) * (double) this.noiseToCountRatio);
-                if (count <= 0) {
-                    return List.of();
-                }
-
-                var results = new ArrayList<BlockVec>(count);
                 for (var countIndex = 0; countIndex < count; countIndex++) {
-                    results.add(position);
+                    sink.accept(position);
                 }
-                return results;
+            }
+
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
@@ -324,26 +394,28 @@ public final class PlacementModifiers {
                                                int aboveNoise) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var noiseValue = BIOME_INFO_NOISE.getValue((double) position.blockX() / 200.0D, (double) position.blockZ() / 200.0D);
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var noiseValue = BIOME_INFO_NOISE.getValue(
+                        (double) PlacementPositions.unpackX(position) / 200.0D,
+                        (double) PlacementPositions.unpackZ(position) / 200.0D);
                 var count = noiseValue < this.noiseLevel ? this.belowNoise : this.aboveNoise;
-                if (count <= 0) {
-                    return List.of();
-                }
-
-                var results = new ArrayList<BlockVec>(count);
                 for (var countIndex = 0; countIndex < count; countIndex++) {
-                    results.add(position);
+                    sink.accept(position);
                 }
-                return results;
+            }
+
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
     private record CountOnEveryLayerModifier(IntProvider count) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var results = new ArrayList<BlockVec>();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var originX = PlacementPositions.unpackX(position);
+                var originZ = PlacementPositions.unpackZ(position);
                 var layer = 0;
                 var found = false;
 
@@ -351,25 +423,22 @@ public final class PlacementModifiers {
                     found = false;
                     var countValue = this.count.sample(random);
                     for (var countIndex = 0; countIndex < countValue; countIndex++) {
-                        var x = position.blockX() + random.nextInt(16);
-                        var z = position.blockZ() + random.nextInt(16);
+                        var x = originX + random.nextInt(16);
+                        var z = originZ + random.nextInt(16);
                         var topY = context.getHeight(PlacementContext.HeightmapType.MOTION_BLOCKING, x, z);
                         var y = topY - 1 - layer;
                         if (y <= context.minY()) {
                             continue;
                         }
 
-                        var targetPosition = new BlockVec(x, y + 1, z);
-                        if (context.inWorldBounds(targetPosition)) {
-                            results.add(targetPosition);
+                        if (context.inWorldBounds(y + 1)) {
+                            sink.accept(PlacementPositions.pack(x, y + 1, z));
                             found = true;
                         }
                     }
 
                     layer++;
                 } while (found);
-
-                return results;
             }
         }
 
@@ -378,28 +447,40 @@ public final class PlacementModifiers {
                                            int maxSteps) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var mutablePosition = position;
-                if (!this.allowedSearchCondition.test(context, mutablePosition)) {
-                    return List.of();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var x = PlacementPositions.unpackX(position);
+                var y = PlacementPositions.unpackY(position);
+                var z = PlacementPositions.unpackZ(position);
+                if (!this.allowedSearchCondition.test(context, x, y, z)) {
+                    return;
                 }
 
                 for (var step = 0; step < this.maxSteps; step++) {
-                    if (this.targetCondition.test(context, mutablePosition)) {
-                        return List.of(mutablePosition);
+                    if (this.targetCondition.test(context, x, y, z)) {
+                        sink.accept(PlacementPositions.pack(x, y, z));
+                        return;
                     }
 
-                    mutablePosition = mutablePosition.add(this.direction.stepX, this.direction.stepY, this.direction.stepZ);
-                    if (!context.inWorldBounds(mutablePosition)) {
-                        return List.of();
+                    x += this.direction.stepX;
+                    y += this.direction.stepY;
+                    z += this.direction.stepZ;
+                    if (!context.inWorldBounds(y)) {
+                        return;
                     }
 
-                    if (!this.allowedSearchCondition.test(context, mutablePosition)) {
+                    if (!this.allowedSearchCondition.test(context, x, y, z)) {
                         break;
                     }
                 }
 
-                return this.targetCondition.test(context, mutablePosition) ? List.of(mutablePosition) : List.of();
+                if (this.targetCondition.test(context, x, y, z)) {
+                    sink.accept(PlacementPositions.pack(x, y, z));
+                }
+            }
+
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
@@ -408,43 +489,66 @@ public final class PlacementModifiers {
                                                           int maxInclusive) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var surfaceY = context.getHeight(this.heightmapType, position.blockX(), position.blockZ());
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var surfaceY = context.getHeight(this.heightmapType, PlacementPositions.unpackX(position), PlacementPositions.unpackZ(position));
                 var minY = surfaceY + this.minInclusive;
                 var maxY = surfaceY + this.maxInclusive;
-                if (position.blockY() >= minY && position.blockY() <= maxY) {
-                    return List.of(position);
+                var y = PlacementPositions.unpackY(position);
+                if (y >= minY && y <= maxY) {
+                    sink.accept(position);
                 }
+            }
 
-                return List.of();
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
     private record SurfaceWaterDepthFilterModifier(int maxWaterDepth) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                var oceanFloor = context.getHeight(PlacementContext.HeightmapType.OCEAN_FLOOR, position.blockX(), position.blockZ());
-                var worldSurface = context.getHeight(PlacementContext.HeightmapType.WORLD_SURFACE, position.blockX(), position.blockZ());
-                return worldSurface - oceanFloor <= this.maxWaterDepth ? List.of(position) : List.of();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var x = PlacementPositions.unpackX(position);
+                var z = PlacementPositions.unpackZ(position);
+                var oceanFloor = context.getHeight(PlacementContext.HeightmapType.OCEAN_FLOOR, x, z);
+                var worldSurface = context.getHeight(PlacementContext.HeightmapType.WORLD_SURFACE, x, z);
+                if (worldSurface - oceanFloor <= this.maxWaterDepth) {
+                    sink.accept(position);
+                }
+            }
+
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
     private record BlockPredicateFilterModifier(BlockPredicate predicate) implements PlacementModifier {
 
         @Override
-            public List<BlockVec> apply(PlacementContext context, RandomSource random, BlockVec position) {
-                return this.predicate.test(context, position) ? List.of(position) : List.of();
+            public void apply(PlacementContext context, RandomSource random, long position, LongConsumer sink) {
+                var x = PlacementPositions.unpackX(position);
+                var y = PlacementPositions.unpackY(position);
+                var z = PlacementPositions.unpackZ(position);
+                if (this.predicate.test(context, x, y, z)) {
+                    sink.accept(position);
+                }
+            }
+
+            @Override
+            public boolean usesRandom() {
+                return false;
             }
         }
 
     public interface BlockPredicate {
-        boolean test(PlacementContext context, BlockVec position);
+        boolean test(PlacementContext context, int blockX, int blockY, int blockZ);
     }
 
     private static final class AlwaysTrueBlockPredicate implements BlockPredicate {
         @Override
-        public boolean test(PlacementContext context, BlockVec position) {
+        public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
             return true;
         }
     }
@@ -456,9 +560,11 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                var targetPosition = position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ());
-                var block = context.accessor().getBlock(targetPosition);
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                var block = context.accessor().getBlock(
+                        blockX + this.offset.blockX(),
+                        blockY + this.offset.blockY(),
+                        blockZ + this.offset.blockZ());
                 return this.blocks.contains(block.key());
             }
         }
@@ -470,9 +576,11 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                var targetPosition = position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ());
-                var block = context.accessor().getBlock(targetPosition);
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                var block = context.accessor().getBlock(
+                        blockX + this.offset.blockX(),
+                        blockY + this.offset.blockY(),
+                        blockZ + this.offset.blockZ());
                 if (this.fluids.contains(Key.key("minecraft:water")) && block.compare(Block.WATER)) {
                     return true;
                 }
@@ -487,14 +595,16 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                var targetPosition = position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ());
-                var targetBlock = context.accessor().getBlock(targetPosition);
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                var targetX = blockX + this.offset.blockX();
+                var targetY = blockY + this.offset.blockY();
+                var targetZ = blockZ + this.offset.blockZ();
+                var targetBlock = context.accessor().getBlock(targetX, targetY, targetZ);
                 if (!targetBlock.isAir()) {
                     return false;
                 }
 
-                var below = context.accessor().getBlock(targetPosition.sub(0, 1, 0));
+                var below = context.accessor().getBlock(targetX, targetY - 1, targetZ);
                 if (this.state.compare(Block.CACTUS)) {
                     return below.compare(Block.SAND) || below.compare(Block.RED_SAND) || below.compare(Block.CACTUS);
                 }
@@ -513,9 +623,9 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public boolean test(PlacementContext context, BlockVec position) {
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
                 for (var predicate : this.predicates) {
-                    if (!predicate.test(context, position)) {
+                    if (!predicate.test(context, blockX, blockY, blockZ)) {
                         return false;
                     }
                 }
@@ -529,9 +639,9 @@ public final class PlacementModifiers {
             }
 
             @Override
-            public boolean test(PlacementContext context, BlockVec position) {
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
                 for (var predicate : this.predicates) {
-                    if (predicate.test(context, position)) {
+                    if (predicate.test(context, blockX, blockY, blockZ)) {
                         return true;
                     }
                 }
@@ -542,24 +652,27 @@ public final class PlacementModifiers {
     private record NotPredicate(BlockPredicate predicate) implements BlockPredicate {
 
         @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                return !this.predicate.test(context, position);
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                return !this.predicate.test(context, blockX, blockY, blockZ);
             }
         }
 
     private record InsideWorldBoundsPredicate(BlockVec offset) implements BlockPredicate {
 
         @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                return context.inWorldBounds(position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ()));
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                return context.inWorldBounds(blockY + this.offset.blockY());
             }
         }
 
     private record SolidPredicate(BlockVec offset) implements BlockPredicate {
 
         @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                var block = context.accessor().getBlock(position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ()));
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                var block = context.accessor().getBlock(
+                        blockX + this.offset.blockX(),
+                        blockY + this.offset.blockY(),
+                        blockZ + this.offset.blockZ());
                 return block.registry().isSolid();
             }
         }
@@ -567,10 +680,11 @@ public final class PlacementModifiers {
     private record HasSturdyFacePredicate(Direction direction, BlockVec offset) implements BlockPredicate {
 
         @Override
-            public boolean test(PlacementContext context, BlockVec position) {
-                var targetPosition = position.add(this.offset.blockX(), this.offset.blockY(), this.offset.blockZ());
-                var supportPosition = targetPosition.add(-this.direction.stepX, -this.direction.stepY, -this.direction.stepZ);
-                return context.accessor().getBlock(supportPosition).registry().isSolid();
+            public boolean test(PlacementContext context, int blockX, int blockY, int blockZ) {
+                var supportX = blockX + this.offset.blockX() - this.direction.stepX;
+                var supportY = blockY + this.offset.blockY() - this.direction.stepY;
+                var supportZ = blockZ + this.offset.blockZ() - this.direction.stepZ;
+                return context.accessor().getBlock(supportX, supportY, supportZ).registry().isSolid();
             }
         }
 
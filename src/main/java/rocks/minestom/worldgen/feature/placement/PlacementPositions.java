@@ -0,0 +1,60 @@
+package rocks.minestom.worldgen.feature.placement;
+
+/**
+ * Positions produced by a placement pipeline, packed into longs with the vanilla
+ * block position layout: 26 bits of x, 26 bits of z and 12 bits of y.
+ */
+public final class PlacementPositions {
+    private static final int PACKED_XZ_BITS = 26;
+    private static final int PACKED_Y_BITS = 12;
+    private static final long PACKED_XZ_MASK = (1L << PACKED_XZ_BITS) - 1L;
+    private static final long PACKED_Y_MASK = (1L << PACKED_Y_BITS) - 1L;
+    private static final int Z_OFFSET = PACKED_Y_BITS;
+    private static final int X_OFFSET = PACKED_Y_BITS + PACKED_XZ_BITS;
+
+    private final long[] positions;
+    private final int size;
+
+    PlacementPositions(long[] positions, int size) {
+        this.positions = positions;
+        this.size = size;
+    }
+
+    public static long pack(int blockX, int blockY, int blockZ) {
+        return ((long) blockX & PACKED_XZ_MASK) << X_OFFSET
+                | ((long) blockZ & PACKED_XZ_MASK) << Z_OFFSET
+                | (long) blockY & PACKED_Y_MASK;
+    }
+
+    public static int unpackX(long position) {
+        return (int) (position >> X_OFFSET);
+    }
+
+    public static int unpackY(long position) {
+        return (int) (position << (64 - PACKED_Y_BITS) >> (64 - PACKED_Y_BITS));
+    }
+
+    public static int unpackZ(long position) {
+        return (int) (position << (64 - X_OFFSET) >> (64 - PACKED_XZ_BITS));
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long get(int index) {
+        return this.positions[index];
+    }
+
+    public int blockX(int index) {
+        return unpackX(this.positions[index]);
+    }
+
+    public int blockY(int index) {
+        return unpackY(this.positions[index]);
+    }
+
+    public int blockZ(int index) {
+        return unpackZ(this.positions[index]);
+    }
+}
@@ -3,6 +3,7 @@ package rocks.minestom.worldgen.noise;
 import rocks.minestom.worldgen.VMath;
 import rocks.minestom.worldgen.random.RandomSource;
 
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 public final class BlendedNoise {
@@ -128,4 +129,117 @@ public final class BlendedNoise {
 
         return VMath.clampedLerp(interpolationValue, minTotal / 512.0, maxTotal / 512.0) / 128.0;
     }
+
+    /**
+     * Fills {@code out} with {@code compute(blockX, yStart + i * yStep, blockZ)} for the
+     * first {@code count} entries, borrowing its temporaries from {@code scratch}. Each
+     * octave samples the whole column at once, so its wrapped X and Z inputs and lattice
+     * setup are shared; limit octaves only sample the entries their limit is not skipped
+     * at. Every entry sums its octaves in the same order as {@link #compute}.
+     */
+    public void fillColumn(int blockX, int blockZ, int yStart, int yStep, int count, double[] out, ScratchArrays scratch) {
+        var x = (double) blockX * this.xzMultiplier;
+        var z = (double) blockZ * this.xzMultiplier;
+        var scaledX = x / this.xzFactor;
+        var scaledZ = z / this.xzFactor;
+
+        var smearY = this.yMultiplier * this.smearScaleMultiplier;
+        var scaledSmearY = smearY / this.yFactor;
+
+        var ys = scratch.borrow(count);
+        var interpolation = scratch.borrow(count);
+        var octaveYs = scratch.borrow(count);
+        var octaveYMaxes = scratch.borrow(count);
+        for (var index = 0; index < count; index++) {
+            ys[index] = (double) (yStart + index * yStep) * this.yMultiplier;
+        }
+
+        Arrays.fill(interpolation, 0, count, 0.0);
+        var mainScale = 1.0;
+        for (var octaveIndex = 0; octaveIndex < 8; octaveIndex++) {
+            var octave = this.mainNoise.getOctaveNoise(octaveIndex);
+            if (octave != null) {
+                for (var index = 0; index < count; index++) {
+                    var scaledY = ys[index] / this.yFactor;
+                    octaveYs[index] = PerlinNoise.wrap(scaledY * mainScale);
+                    octaveYMaxes[index] = scaledY * mainScale;
+                }
+                octave.fillColumn(PerlinNoise.wrap(scaledX * mainScale), PerlinNoise.wrap(scaledZ * mainScale),
+                        octaveYs, scaledSmearY * mainScale, octaveYMaxes, count, octaveYs);
+                for (var index = 0; index < count; index++) {
+                    interpolation[index] += octaveYs[index] / mainScale;
+                }
+            }
+            mainScale /= 2.0;
+        }
+
+        for (var index = 0; index < count; index++) {
+            interpolation[index] = (interpolation[index] / 10.0 + 1.0) / 2.0;
+        }
+
+        var minTotals = scratch.borrow(count);
+        var maxTotals = scratch.borrow(count);
+        Arrays.fill(minTotals, 0, count, 0.0);
+        Arrays.fill(maxTotals, 0, count, 0.0);
+        var limitScale = 1.0;
+        for (var octaveIndex = 0; octaveIndex < 16; octaveIndex++) {
+            var wrapX = PerlinNoise.wrap(x * limitScale);
+            var wrapZ = PerlinNoise.wrap(z * limitScale);
+            var yScaled = smearY * limitScale;
+
+            var minOctave = this.minLimitNoise.getOctaveNoise(octaveIndex);
+            if (minOctave != null) {
+                addLimitOctave(minOctave, wrapX, wrapZ, yScaled, limitScale, ys, interpolation, false, count, octaveYs, octaveYMaxes, minTotals);
+            }
+
+            var maxOctave = this.maxLimitNoise.getOctaveNoise(octaveIndex);
+            if (maxOctave != null) {
+                addLimitOctave(maxOctave, wrapX, wrapZ, yScaled, limitScale, ys, interpolation, true, count, octaveYs, octaveYMaxes, maxTotals);
+            }
+
+            limitScale /= 2.0;
+        }
+
+        for (var index = 0; index < count; index++) {
+            out[index] = VMath.clampedLerp(interpolation[index], minTotals[index] / 512.0, maxTotals[index] / 512.0) / 128.0;
+        }
+
+        scratch.release(maxTotals);
+        scratch.release(minTotals);
+        scratch.release(octaveYMaxes);
+        scratch.release(octaveYs);
+        scratch.release(interpolation);
+        scratch.release(ys);
+    }
+
+    /**
+     * Adds one limit octave to {@code totals} at the entries whose interpolation does not
+     * skip that limit: the minimum limit is skipped at or above one, the maximum at or below
+     * zero. Those entries are packed to the front of the octave arrays so the octave samples
+     * them as one column, then scattered back in order.
+     */
+    private static void addLimitOctave(ImprovedNoise octave, double wrapX, double wrapZ, double yScale, double limitScale,
+            double[] ys, double[] interpolation, boolean maxLimit, int count,
+            double[] octaveYs, double[] octaveYMaxes, double[] totals) {
+        var sampled = 0;
+        for (var index = 0; index < count; index++) {
+            if (maxLimit ? !(interpolation[index] <= 0.0) : !(interpolation[index] >= 1.0)) {
+                var y = ys[index];
+                octaveYs[sampled] = PerlinNoise.wrap(y * limitScale);
+                octaveYMaxes[sampled] = y * limitScale;
+                sampled++;
+            }
+        }
+        if (sampled == 0) {
+            return;
+        }
+
+        octave.fillColumn(wrapX, wrapZ, octaveYs, yScale, octaveYMaxes, sampled, octaveYs);
+        sampled = 0;
+        for (var index = 0; index < count; index++) {
+            if (maxLimit ? !(interpolation[index] <= 0.0) : !(interpolation[index] >= 1.0)) {
+                totals[index] += octaveYs[sampled++] / limitScale;
+            }
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package rocks.minestom.worldgen.noise;
+
+/**
+ * An accelerated implementation of the unsmeared {@link ImprovedNoise} column. It lives
+ * in a separate source set and is loaded by name, so the main sources never depend on the
+ * incubating modules it may use.
+ */
+interface ColumnBackend {
+    /**
+     * Fills a prefix of the column and returns how many samples were written; the caller
+     * finishes the remainder with the scalar path.
+     */
+    int fillColumn(int[] permutations, double yo, int permX0, int permX1, int floorZ,
+            double localX, double localZ, double[] ys, int count, double[] out);
+}
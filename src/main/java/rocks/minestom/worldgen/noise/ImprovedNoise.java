@@ -6,7 +6,34 @@ import rocks.minestom.worldgen.random.RandomSource;
 public final class ImprovedNoise {
     private static final float SHIFT_UP_EPSILON = 1.0E-7F;
 
-    private final byte[] permutations;
+    /**
+     * Opt-in SIMD column sampling through {@code VectorizedNoise}, enabled with
+     * {@code -Drocks.minestom.worldgen.vectorNoise=true} when the JVM was started with
+     * {@code --add-modules jdk.incubator.vector}. Results are the same either way.
+     */
+    private static final ColumnBackend COLUMN_BACKEND = loadColumnBackend();
+
+    /**
+     * Gradient components by {@code hash & 15}, as doubles so corner dot products need
+     * no conversions or nested array loads.
+     */
+    static final double[] GRADIENT_X = new double[16];
+    static final double[] GRADIENT_Y = new double[16];
+    static final double[] GRADIENT_Z = new double[16];
+
+    static {
+        for (var index = 0; index < 16; index++) {
+            GRADIENT_X[index] = SimplexNoise.GRADIENT[index][0];
+            GRADIENT_Y[index] = SimplexNoise.GRADIENT[index][1];
+            GRADIENT_Z[index] = SimplexNoise.GRADIENT[index][2];
+        }
+    }
+
+    /**
+     * The shuffled permutation, repeated once so that the sum of a permutation value and
+     * a masked lattice coordinate indexes it without masking again.
+     */
+    private final int[] permutations;
     public final double xo;
     public final double yo;
     public final double zo;
@@ -15,10 +42,10 @@ public final class ImprovedNoise {
         this.xo = randomSource.nextDouble() * 256.0;
         this.yo = randomSource.nextDouble() * 256.0;
         this.zo = randomSource.nextDouble() * 256.0;
-        this.permutations = new byte[256];
+        this.permutations = new int[512];
 
         for (var index = 0; index < 256; index++) {
-            this.permutations[index] = (byte) index;
+            this.permutations[index] = index;
         }
 
         for (var index = 0; index < 256; index++) {
@@ -27,6 +54,8 @@ public final class ImprovedNoise {
             this.permutations[index] = this.permutations[index + swapIndex];
             this.permutations[index + swapIndex] = value;
         }
+
+        System.arraycopy(this.permutations, 0, this.permutations, 256, 256);
     }
 
     public double noise(double x, double y, double z, double yScale, double yMax) {
@@ -57,31 +86,119 @@ public final class ImprovedNoise {
         return this.sampleAndLerp(floorX, floorY, floorZ, localX, localY - yFloorOffset, localZ, localY);
     }
 
-    private static double gradDot(int hash, double x, double y, double z) {
-        return SimplexNoise.dot(SimplexNoise.GRADIENT[hash & 15], x, y, z);
+    /**
+     * Fills {@code out} with {@code noise(x, ys[i], z, 0.0, 0.0)} for the first {@code count}
+     * entries. The X and Z lattice positions, their permutations and fade curves are
+     * computed once for the whole column. {@code out} may be the same array as {@code ys}.
+     */
+    public void fillColumn(double x, double z, double[] ys, int count, double[] out) {
+        this.fillColumn(x, z, ys, count, out, COLUMN_BACKEND);
+    }
+
+    /**
+     * Samples the column through {@code backend}, or only the scalar path if it is
+     * {@code null}.
+     */
+    void fillColumn(double x, double z, double[] ys, int count, double[] out, ColumnBackend backend) {
+        var offsetX = x + this.xo;
+        var offsetZ = z + this.zo;
+        var floorX = VMath.floor(offsetX);
+        var floorZ = VMath.floor(offsetZ);
+        var localX = offsetX - (double) floorX;
+        var localZ = offsetZ - (double) floorZ;
+        var permX0 = this.permutations[floorX & 0xFF];
+        var permX1 = this.permutations[(floorX & 0xFF) + 1];
+
+        var index = 0;
+        if (backend != null) {
+            index = backend.fillColumn(this.permutations, this.yo, permX0, permX1, floorZ, localX, localZ, ys, count, out);
+        }
+
+        for (; index < count; index++) {
+            var offsetY = ys[index] + this.yo;
+            var floorY = VMath.floor(offsetY);
+            var localY = offsetY - (double) floorY;
+            out[index] = this.sampleAndLerp(permX0, permX1, floorY, floorZ, localX, localY, localZ, localY);
+        }
+    }
+
+    /**
+     * Fills {@code out} with {@code noise(x, ys[i], z, yScale, yMaxes[i])} for the first
+     * {@code count} entries, sharing the X and Z setup like the unsmeared column.
+     * {@code out} may be the same array as {@code ys} or {@code yMaxes}.
+     */
+    public void fillColumn(double x, double z, double[] ys, double yScale, double[] yMaxes, int count, double[] out) {
+        var offsetX = x + this.xo;
+        var offsetZ = z + this.zo;
+        var floorX = VMath.floor(offsetX);
+        var floorZ = VMath.floor(offsetZ);
+        var localX = offsetX - (double) floorX;
+        var localZ = offsetZ - (double) floorZ;
+        var permX0 = this.permutations[floorX & 0xFF];
+        var permX1 = this.permutations[(floorX & 0xFF) + 1];
+
+        for (var index = 0; index < count; index++) {
+            var offsetY = ys[index] + this.yo;
+            var floorY = VMath.floor(offsetY);
+            var localY = offsetY - (double) floorY;
+
+            var yFloorOffset = 0.0;
+            if (yScale != 0.0) {
+                var yMax = yMaxes[index];
+                var yToFloor = yMax >= 0.0 && yMax < localY ? yMax : localY;
+                yFloorOffset = (double) VMath.floor(yToFloor / yScale + (double) SHIFT_UP_EPSILON) * yScale;
+            }
+
+            out[index] = this.sampleAndLerp(permX0, permX1, floorY, floorZ, localX, localY - yFloorOffset, localZ, localY);
+        }
     }
 
-    private int p(int value) {
-        return this.permutations[value & 0xFF] & 0xFF;
+    private static ColumnBackend loadColumnBackend() {
+        if (!Boolean.getBoolean("rocks.minestom.worldgen.vectorNoise")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+
+        try {
+            var type = Class.forName("rocks.minestom.worldgen.noise.VectorizedNoise");
+            return (ColumnBackend) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Vector noise was requested but its backend is missing", exception);
+        }
+    }
+
+    private static double gradDot(int hash, double x, double y, double z) {
+        var gradient = hash & 15;
+        return GRADIENT_X[gradient] * x + GRADIENT_Y[gradient] * y + GRADIENT_Z[gradient] * z;
     }
 
     private double sampleAndLerp(int x, int y, int z, double localX, double localY, double localZ, double smoothY) {
-        var permX0 = this.p(x);
-        var permX1 = this.p(x + 1);
-        var permX0Y0 = this.p(permX0 + y);
-        var permX0Y1 = this.p(permX0 + y + 1);
-        var permX1Y0 = this.p(permX1 + y);
-        var permX1Y1 = this.p(permX1 + y + 1);
-
-        var value000 = gradDot(this.p(permX0Y0 + z), localX, localY, localZ);
-        var value100 = gradDot(this.p(permX1Y0 + z), localX - 1.0, localY, localZ);
-        var value010 = gradDot(this.p(permX0Y1 + z), localX, localY - 1.0, localZ);
-        var value110 = gradDot(this.p(permX1Y1 + z), localX - 1.0, localY - 1.0, localZ);
-
-        var value001 = gradDot(this.p(permX0Y0 + z + 1), localX, localY, localZ - 1.0);
-        var value101 = gradDot(this.p(permX1Y0 + z + 1), localX - 1.0, localY, localZ - 1.0);
-        var value011 = gradDot(this.p(permX0Y1 + z + 1), localX, localY - 1.0, localZ - 1.0);
-        var value111 = gradDot(this.p(permX1Y1 + z + 1), localX - 1.0, localY - 1.0, localZ - 1.0);
+        var maskedX = x & 0xFF;
+        return this.sampleAndLerp(this.permutations[maskedX], this.permutations[maskedX + 1], y, z, localX, localY, localZ, smoothY);
+    }
+
+    /**
+     * {@code permX0} and {@code permX1} are permutation values, below 256, so every index
+     * below stays within the doubled table once {@code y} and {@code z} are masked.
+     */
+    private double sampleAndLerp(int permX0, int permX1, int y, int z, double localX, double localY, double localZ, double smoothY) {
+        var permutations = this.permutations;
+        var maskedY = y & 0xFF;
+        var maskedZ = z & 0xFF;
+        var permX0Y0 = permutations[permX0 + maskedY];
+        var permX0Y1 = permutations[permX0 + maskedY + 1];
+        var permX1Y0 = permutations[permX1 + maskedY];
+        var permX1Y1 = permutations[permX1 + maskedY + 1];
+
+        var value000 = gradDot(permutations[permX0Y0 + maskedZ], localX, localY, localZ);
+        var value100 = gradDot(permutations[permX1Y0 + maskedZ], localX - 1.0, localY, localZ);
+        var value010 = gradDot(permutations[permX0Y1 + maskedZ], localX, localY - 1.0, localZ);
+        var value110 = gradDot(permutations[permX1Y1 + maskedZ], localX - 1.0, localY - 1.0, localZ);
+
+        var value001 = gradDot(permutations[permX0Y0 + maskedZ + 1], localX, localY, localZ - 1.0);
+        var value101 = gradDot(permutations[permX1Y0 + maskedZ + 1], localX - 1.0, localY, localZ - 1.0);
+        var value011 = gradDot(permutations[permX0Y1 + maskedZ + 1], localX, localY - 1.0, localZ - 1.0);
+        var value111 = gradDot(permutations[permX1Y1 + maskedZ + 1], localX - 1.0, localY - 1.0, localZ - 1.0);
 
         var smoothX = VMath.smoothstep(localX);
         var smoothZ = VMath.smoothstep(smoothY);
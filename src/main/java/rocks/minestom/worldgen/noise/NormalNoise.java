@@ -61,6 +61,27 @@ public final class NormalNoise {
         return (this.first.getValue(x, y, z) + this.second.getValue(scaledX, scaledY, scaledZ)) * this.valueFactor;
     }
 
+    /**
+     * Fills {@code out} with {@code getValue(x, ys[i], z)} for the first {@code count}
+     * entries, borrowing its temporaries from {@code scratch}. {@code out} may be the same
+     * array as {@code ys}.
+     */
+    public void fillColumn(double x, double z, double[] ys, int count, double[] out, ScratchArrays scratch) {
+        var firstValues = scratch.borrow(count);
+        var scaledYs = scratch.borrow(count);
+        for (var index = 0; index < count; index++) {
+            scaledYs[index] = ys[index] * INPUT_FACTOR;
+        }
+
+        this.first.fillColumn(x, z, ys, count, firstValues, scratch);
+        this.second.fillColumn(x * INPUT_FACTOR, z * INPUT_FACTOR, scaledYs, count, scaledYs, scratch);
+        for (var index = 0; index < count; index++) {
+            out[index] = (firstValues[index] + scaledYs[index]) * this.valueFactor;
+        }
+        scratch.release(scaledYs);
+        scratch.release(firstValues);
+    }
+
     public record NoiseParameters(int firstOctave, double[] amplitudes) {
     }
 }
@@ -136,6 +136,41 @@ public final class PerlinNoise {
         return this.getValue(x, y, z, 0.0, 0.0, false);
     }
 
+    /**
+     * Fills {@code out} with {@code getValue(x, ys[i], z)} for the first {@code count}
+     * entries, sampling each octave as one column so its X and Z setup is shared.
+     * Temporaries are borrowed from {@code scratch}, and {@code out} may be the same array
+     * as {@code ys}.
+     */
+    public void fillColumn(double x, double z, double[] ys, int count, double[] out, ScratchArrays scratch) {
+        var totals = scratch.borrow(count);
+        var octaveValues = scratch.borrow(count);
+        Arrays.fill(totals, 0, count, 0.0);
+        var inputFactor = this.lowestFreqInputFactor;
+        var valueFactor = this.lowestFreqValueFactor;
+
+        for (var index = 0; index < this.noiseLevels.length; index++) {
+            var noise = this.noiseLevels[index];
+            if (noise != null) {
+                for (var yIndex = 0; yIndex < count; yIndex++) {
+                    octaveValues[yIndex] = wrap(ys[yIndex] * inputFactor);
+                }
+                noise.fillColumn(wrap(x * inputFactor), wrap(z * inputFactor), octaveValues, count, octaveValues);
+                var amplitude = this.amplitudes[index];
+                for (var yIndex = 0; yIndex < count; yIndex++) {
+                    totals[yIndex] += amplitude * octaveValues[yIndex] * valueFactor;
+                }
+            }
+
+            inputFactor *= 2.0;
+            valueFactor /= 2.0;
+        }
+
+        System.arraycopy(totals, 0, out, 0, count);
+        scratch.release(octaveValues);
+        scratch.release(totals);
+    }
+
     public static double wrap(double value) {
         return value - (double) VMath.lfloor(value / (double) ROUND_OFF + 0.5) * (double) ROUND_OFF;
     }
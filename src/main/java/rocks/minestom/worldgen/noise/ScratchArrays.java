@@ -0,0 +1,52 @@
+package rocks.minestom.worldgen.noise;
+
+import java.util.Arrays;
+
+/**
+ * A pool of temporary {@code double} arrays for batch sampling. Arrays are kept on one
+ * stack per length and must be released in the reverse order they were borrowed, which
+ * nested evaluation does naturally, so after warm-up borrowing allocates nothing.
+ * <p>
+ * Borrowed arrays hold stale values and must be written before they are read.
+ */
+public final class ScratchArrays {
+    private double[][][] stacks = new double[0][][];
+    private int[] depths = new int[0];
+
+    /**
+     * Returns an array of exactly {@code length} entries.
+     */
+    public double[] borrow(int length) {
+        if (length >= this.stacks.length) {
+            this.stacks = Arrays.copyOf(this.stacks, length + 1);
+            this.depths = Arrays.copyOf(this.depths, length + 1);
+        }
+
+        var stack = this.stacks[length];
+        var depth = this.depths[length];
+        if (stack == null) {
+            stack = new double[4][];
+            this.stacks[length] = stack;
+        } else if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            this.stacks[length] = stack;
+        }
+
+        var array = stack[depth];
+        if (array == null) {
+            array = new double[length];
+            stack[depth] = array;
+        }
+        this.depths[length] = depth + 1;
+        return array;
+    }
+
+    public void release(double[] array) {
+        var length = array.length;
+        var depth = length < this.depths.length ? this.depths[length] - 1 : -1;
+        if (depth < 0 || this.stacks[length][depth] != array) {
+            throw new IllegalStateException("Scratch arrays must be released in reverse borrow order");
+        }
+        this.depths[length] = depth;
+    }
+}
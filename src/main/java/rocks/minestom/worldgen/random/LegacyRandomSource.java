@@ -95,6 +95,13 @@ public final class LegacyRandomSource implements RandomSource {
             return new LegacyRandomSource(mixed);
         }
 
+        @Override
+        public float nextFloatAt(int x, int y, int z) {
+            var seed = (VMath.getSeed(x, y, z) ^ this.seed ^ MULTIPLIER) & MODULUS_MASK;
+            var next = seed * MULTIPLIER + INCREMENT & MODULUS_MASK;
+            return (float) (int) (next >> 24) / (float) (1 << 24);
+        }
+
         @Override
         public RandomSource fromHashOf(String value) {
             var hash = value.hashCode();
@@ -6,4 +6,12 @@ public interface PositionalRandomFactory {
     RandomSource fromSeed(long seed);
 
     RandomSource at(int x, int y, int z);
+
+    /**
+     * Returns the first {@link RandomSource#nextFloat()} of {@link #at}, ideally without
+     * creating the random source.
+     */
+    default float nextFloatAt(int x, int y, int z) {
+        return this.at(x, y, z).nextFloat();
+    }
 }
@@ -95,6 +95,20 @@ public final class XoroshiroRandomSource implements RandomSource {
             return new XoroshiroRandomSource(low, this.seedHi);
         }
 
+        @Override
+        public float nextFloatAt(int x, int y, int z) {
+            var low = VMath.getSeed(x, y, z) ^ this.seedLo;
+            var high = this.seedHi;
+            if ((low | high) == 0L) {
+                low = RandomSupport.GOLDEN_RATIO_64;
+                high = RandomSupport.SILVER_RATIO_64;
+            }
+
+            // First output of Xoroshiro128PlusPlus, as nextFloat() would take it
+            var first = Long.rotateLeft(low + high, 17) + low;
+            return (float) (first >>> 40) * FLOAT_UNIT;
+        }
+
         @Override
         public RandomSource fromHashOf(String value) {
             var seed128bit = RandomSupport.seedFromHashOf(value);
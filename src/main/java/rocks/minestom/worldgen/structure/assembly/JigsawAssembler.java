@@ -4,8 +4,6 @@ import net.kyori.adventure.key.Key;
 import net.minestom.server.coordinate.BlockVec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import rocks.minestom.worldgen.density.ChunkContext;
-import rocks.minestom.worldgen.density.DensityFunction;
 import rocks.minestom.worldgen.feature.Feature;
 import rocks.minestom.worldgen.feature.FeaturePlaceContext;
 import rocks.minestom.worldgen.feature.RandomSelectorFeature;
@@ -56,9 +54,6 @@ public final class JigsawAssembler {
     private final int maxDistanceFromCenter;
     private final List<PlacedPiece> placedPieces;
     private final List<PlacedFeature> placedFeatures;
-    private final DensityFunction densityFunction;
-    private final ChunkContext densityContext;
-    private final Map<Long, Integer> surfaceHeightCache;
     private BlockVec startCenter;
 
     public JigsawAssembler(StructurePlaceContext context, int maxDepth, int maxDistanceFromCenter) {
@@ -67,9 +62,6 @@ public final class JigsawAssembler {
         this.maxDistanceFromCenter = maxDistanceFromCenter;
         this.placedPieces = new ArrayList<>();
         this.placedFeatures = new ArrayList<>();
-        this.densityFunction = context.settings().finalDensity();
-        this.densityContext = new ChunkContext(context.settings().cellWidth(), context.settings().cellHeight());
-        this.surfaceHeightCache = new HashMap<>();
     }
 
     public void assemble(Key startPoolKey) {
@@ -432,29 +424,10 @@ public final class JigsawAssembler {
     }
 
     private int getSurfaceHeight(int worldX, int worldZ) {
-        var key = (((long) worldX) << 32) ^ (worldZ & 0xffffffffL);
-        var cached = this.surfaceHeightCache.get(key);
-        if (cached != null) {
-            return cached;
-        }
-
-        var minY = this.context.settings().minY();
-        var maxY = this.context.settings().maxYInclusive();
-        var surfaceY = Integer.MIN_VALUE;
-        for (var blockY = maxY; blockY >= minY; blockY--) {
-            this.densityContext.setBlock(worldX, blockY, worldZ);
-            var density = this.densityFunction.compute(this.densityContext);
-            if (density > 0.0D) {
-                surfaceY = blockY;
-                break;
-            }
-        }
-
+        var surfaceY = this.context.settings().heightSampler().surfaceHeight(worldX, worldZ);
         if (surfaceY == Integer.MIN_VALUE) {
             surfaceY = this.context.settings().seaLevel();
         }
-
-        this.surfaceHeightCache.put(key, surfaceY);
         return surfaceY;
     }
 
@@ -9,8 +9,15 @@ import net.minestom.server.instance.block.Block;
 import rocks.minestom.worldgen.BlockCodec;
 import rocks.minestom.worldgen.RandomState;
 import rocks.minestom.worldgen.biome.BiomeZoomer;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.PositionalRandomFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Describes the surface material rule system that selects top-layer blocks from climate and noise inputs.
@@ -24,12 +31,23 @@ public final class SurfaceRules {
     public static final Codec<RuleSource> CODEC = createRuleCodec();
 
     public static Block constantBlock(RuleSource rule) {
+        if (rule instanceof Program program) {
+            rule = program.source();
+        }
         if (rule instanceof BlockRuleSource(var block)) {
             return block;
         }
         return null;
     }
 
+    /**
+     * Compiles a rule tree into a flat {@link Program}, to be run through a {@link Context}
+     * created for it. Noises the rules refer to are resolved from {@code randomState}.
+     */
+    public static Program compile(RuleSource rule, RandomState randomState) {
+        return Program.compile(rule, randomState);
+    }
+
     private static Codec<RuleSource> createRuleCodec() {
         return Codec.Recursive(self -> {
             var conditionCodec = createConditionCodec();
@@ -210,8 +228,18 @@ public final class SurfaceRules {
         private final BiomeZoomer biomeZoomer;
         private final int minY;
         private final int maxYInclusive;
+        private final Program program;
+        private final int[] conditionEpochs;
+        private final boolean[] conditionResults;
+        private final int[] noiseEpochs;
+        private final double[] noiseValues;
 
         private Key biome;
+        private int biomeId;
+        private int epoch;
+        private int columnEpoch;
+        private int bandEpoch;
+        private int bandOffset;
         private int blockX;
         private int blockZ;
         private int blockY;
@@ -225,12 +253,27 @@ public final class SurfaceRules {
         private boolean steep;
 
         public Context(SurfaceSystem system, RandomState randomState, BiomeResolver biomeResolver, BiomeZoomer biomeZoomer, int minY, int maxYInclusive) {
+            this(system, randomState, biomeResolver, biomeZoomer, minY, maxYInclusive, null);
+        }
+
+        /**
+         * Creates a context that also keeps the condition results of {@code rule} when it is a
+         * compiled {@link Program}.
+         */
+        public Context(SurfaceSystem system, RandomState randomState, BiomeResolver biomeResolver, BiomeZoomer biomeZoomer, int minY, int maxYInclusive, RuleSource rule) {
             this.system = system;
             this.randomState = randomState;
             this.biomeResolver = biomeResolver;
             this.biomeZoomer = biomeZoomer;
             this.minY = minY;
             this.maxYInclusive = maxYInclusive;
+            this.program = rule instanceof Program program ? program : null;
+            var conditionCount = this.program == null ? 0 : this.program.conditions.length;
+            this.conditionEpochs = new int[conditionCount];
+            this.conditionResults = new boolean[conditionCount];
+            var noiseCount = this.program == null ? 0 : this.program.noises.length;
+            this.noiseEpochs = new int[noiseCount];
+            this.noiseValues = new double[noiseCount];
         }
 
         public void updateXZ(int blockX, int blockZ, int preliminarySurfaceLevel, boolean steep, int waterHeight) {
@@ -241,6 +284,7 @@ public final class SurfaceRules {
             this.surfaceDepth = this.system.getSurfaceDepth(blockX, blockZ);
             this.surfaceSecondary = this.system.getSurfaceSecondary(blockX, blockZ);
             this.minSurfaceLevel = preliminarySurfaceLevel + this.surfaceDepth - HOW_FAR_BELOW_PRELIMINARY_SURFACE_LEVEL_TO_BUILD_SURFACE;
+            this.columnEpoch = ++this.epoch;
         }
 
         public void updateY(int blockY, int stoneDepthAbove, int stoneDepthBelow) {
@@ -248,12 +292,41 @@ public final class SurfaceRules {
             this.stoneDepthAbove = stoneDepthAbove;
             this.stoneDepthBelow = stoneDepthBelow;
             this.biome = this.biomeZoomer.biome(this.blockX, blockY, this.blockZ);
+            this.biomeId = Program.UNRESOLVED_BIOME;
+            this.epoch++;
         }
 
         public SurfaceSystem system() {
             return this.system;
         }
 
+        /**
+         * Returns the clay band at the current block, sampling the band offset once per column.
+         */
+        public Block band() {
+            if (this.bandEpoch < this.columnEpoch) {
+                this.bandOffset = this.system.getBandOffset(this.blockX, this.blockZ);
+                this.bandEpoch = this.columnEpoch;
+            }
+            return this.system.getBand(this.blockY, this.bandOffset);
+        }
+
+        /**
+         * Returns the largest stone depth of the given kind at which the rule can still yield
+         * a block in the current column, or {@link Integer#MAX_VALUE} when that is unknown.
+         */
+        public int maxStoneDepth(SurfaceType surfaceType) {
+            return this.program == null ? Integer.MAX_VALUE : this.program.maxStoneDepth(this, surfaceType);
+        }
+
+        private double noiseValue(int slot, NormalNoise noise) {
+            if (this.noiseEpochs[slot] < this.columnEpoch) {
+                this.noiseValues[slot] = noise.getValue((double) this.blockX, 0.0D, (double) this.blockZ);
+                this.noiseEpochs[slot] = this.columnEpoch;
+            }
+            return this.noiseValues[slot];
+        }
+
         public RandomState randomState() {
             return this.randomState;
         }
@@ -315,10 +388,319 @@ public final class SurfaceRules {
         }
     }
 
+    /**
+     * A rule tree flattened into a linear list of instructions.
+     * <p>
+     * A sequence is its children's instructions in order and a condition is a test that
+     * jumps past its rule when it fails, so a rule yielding nothing simply falls through
+     * to whatever follows it. Equal conditions share one slot and negations become part of
+     * the test, so every condition is evaluated at most once per block, and once per column
+     * when it only depends on the column. Biome conditions test a bitset over the biomes
+     * the rules mention instead of searching a list, and noise thresholds read noises
+     * resolved at compile time, sampled once per column however many thresholds share them.
+     * Vertical gradients likewise use random factories resolved at compile time.
+     * <p>
+     * Results are identical to the rule tree, which still runs for contexts not created
+     * for this program.
+     */
+    public static final class Program implements RuleSource {
+        private static final int UNRESOLVED_BIOME = -2;
+        private static final int UNKNOWN_BIOME = -1;
+
+        private static final int TEST = 0;
+        private static final int BLOCK = 1;
+        private static final int BAND = 2;
+
+        private final RuleSource source;
+        private final int[] opcodes;
+        private final int[] operands;
+        private final int[] jumps;
+        private final Block[] blocks;
+        private final ConditionSource[] conditions;
+        private final boolean[] perColumn;
+        private final long[][] biomeSets;
+        private final Map<Key, Integer> biomeIds;
+        private final int[] noiseSlots;
+        private final NormalNoise[] noises;
+        private final PositionalRandomFactory[] randomFactories;
+        private final int[] floorGuards;
+        private final int[] ceilingGuards;
+        private final boolean unguarded;
+
+        private Program(RuleSource source, int[] opcodes, int[] operands, int[] jumps, Block[] blocks,
+                ConditionSource[] conditions, boolean[] perColumn, long[][] biomeSets, Map<Key, Integer> biomeIds,
+                int[] noiseSlots, NormalNoise[] noises, PositionalRandomFactory[] randomFactories,
+                int[] floorGuards, int[] ceilingGuards, boolean unguarded) {
+            this.source = source;
+            this.opcodes = opcodes;
+            this.operands = operands;
+            this.jumps = jumps;
+            this.blocks = blocks;
+            this.conditions = conditions;
+            this.perColumn = perColumn;
+            this.biomeSets = biomeSets;
+            this.biomeIds = biomeIds;
+            this.noiseSlots = noiseSlots;
+            this.noises = noises;
+            this.randomFactories = randomFactories;
+            this.floorGuards = floorGuards;
+            this.ceilingGuards = ceilingGuards;
+            this.unguarded = unguarded;
+        }
+
+        private static Program compile(RuleSource rule, RandomState randomState) {
+            if (rule instanceof Program program) {
+                return program;
+            }
+
+            var builder = new ProgramBuilder(randomState);
+            builder.emit(rule);
+            return builder.build(rule);
+        }
+
+        public RuleSource source() {
+            return this.source;
+        }
+
+        @Override
+        public Block tryApply(Context context) {
+            if (context.program != this) {
+                return this.source.tryApply(context);
+            }
+
+            var pc = 0;
+            while (pc < this.opcodes.length) {
+                switch (this.opcodes[pc]) {
+                    case TEST -> {
+                        var operand = this.operands[pc];
+                        var passed = operand >= 0 ? this.test(operand, context) : !this.test(~operand, context);
+                        pc = passed ? pc + 1 : this.jumps[pc];
+                    }
+                    case BLOCK -> {
+                        return this.blocks[this.operands[pc]];
+                    }
+                    case BAND -> {
+                        return context.band();
+                    }
+                    default -> throw new IllegalStateException("Unknown surface rule opcode: " + this.opcodes[pc]);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Every block the program yields sits behind a stone depth condition unless
+         * {@link #unguarded}, so the deepest of those conditions bounds where it can apply.
+         */
+        private int maxStoneDepth(Context context, SurfaceType surfaceType) {
+            if (this.unguarded) {
+                return Integer.MAX_VALUE;
+            }
+
+            var limit = 0;
+            for (var guard : surfaceType == SurfaceType.CEILING ? this.ceilingGuards : this.floorGuards) {
+                limit = Math.max(limit, ((StoneDepthConditionSource) this.conditions[guard]).maxStoneDepth(context));
+            }
+            return limit;
+        }
+
+        private boolean test(int condition, Context context) {
+            var epoch = context.conditionEpochs[condition];
+            if (this.perColumn[condition] ? epoch >= context.columnEpoch : epoch == context.epoch) {
+                return context.conditionResults[condition];
+            }
+
+            var result = this.evaluate(condition, context);
+            context.conditionEpochs[condition] = context.epoch;
+            context.conditionResults[condition] = result;
+            return result;
+        }
+
+        private boolean evaluate(int condition, Context context) {
+            var biomes = this.biomeSets[condition];
+            if (biomes != null) {
+                return contains(biomes, this.biomeId(context));
+            }
+
+            var noiseSlot = this.noiseSlots[condition];
+            if (noiseSlot >= 0) {
+                var threshold = (NoiseThresholdConditionSource) this.conditions[condition];
+                var value = context.noiseValue(noiseSlot, this.noises[noiseSlot]);
+                return value >= threshold.minThreshold() && value <= threshold.maxThreshold();
+            }
+
+            if (this.conditions[condition] instanceof VerticalGradientConditionSource gradient) {
+                return gradient.test(context, this.randomFactories[condition]);
+            }
+
+            return this.conditions[condition].test(context);
+        }
+
+        private int biomeId(Context context) {
+            if (context.biomeId == UNRESOLVED_BIOME) {
+                context.biomeId = this.biomeIds.getOrDefault(context.biome(), UNKNOWN_BIOME);
+            }
+            return context.biomeId;
+        }
+
+        private static boolean contains(long[] biomes, int biomeId) {
+            return biomeId >= 0 && (biomes[biomeId >>> 6] & 1L << biomeId) != 0L;
+        }
+    }
+
+    private static final class ProgramBuilder {
+        private final RandomState randomState;
+        private final List<Integer> opcodes = new ArrayList<>();
+        private final List<Integer> operands = new ArrayList<>();
+        private final List<Integer> jumps = new ArrayList<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private final Map<ConditionSource, Integer> conditionIndices = new HashMap<>();
+        private final List<ConditionSource> conditions = new ArrayList<>();
+        private final Map<Key, Integer> biomeIds = new HashMap<>();
+        private final Map<Key, Integer> noiseIds = new HashMap<>();
+        private final Set<Integer> guards = new TreeSet<>();
+        private int guard = -1;
+        private boolean unguarded;
+
+        private ProgramBuilder(RandomState randomState) {
+            this.randomState = randomState;
+        }
+
+        private void emit(RuleSource rule) {
+            switch (rule) {
+                case BlockRuleSource(var block) -> {
+                    if (!this.blocks.contains(block)) {
+                        this.blocks.add(block);
+                    }
+                    this.add(Program.BLOCK, this.blocks.indexOf(block));
+                    this.guardResult();
+                }
+                case Bandlands() -> {
+                    this.add(Program.BAND, 0);
+                    this.guardResult();
+                }
+                case SequenceRuleSource(var sequence) -> {
+                    for (var child : sequence) {
+                        this.emit(child);
+                    }
+                }
+                case ConditionRuleSource(var condition, var thenRun) -> {
+                    var index = this.condition(condition);
+                    var test = this.add(Program.TEST, index);
+                    var outerGuard = this.guard;
+                    if (index >= 0 && this.conditions.get(index) instanceof StoneDepthConditionSource) {
+                        this.guard = index;
+                    }
+                    this.emit(thenRun);
+                    this.guard = outerGuard;
+                    this.jumps.set(test, this.opcodes.size());
+                }
+                case Program program -> this.emit(program.source());
+                default -> throw new IllegalStateException("Unsupported surface rule: " + rule);
+            }
+        }
+
+        /**
+         * Records the innermost stone depth condition a result is reached through, if any.
+         */
+        private void guardResult() {
+            if (this.guard < 0) {
+                this.unguarded = true;
+            } else {
+                this.guards.add(this.guard);
+            }
+        }
+
+        private int add(int opcode, int operand) {
+            this.opcodes.add(opcode);
+            this.operands.add(operand);
+            this.jumps.add(0);
+            return this.opcodes.size() - 1;
+        }
+
+        /**
+         * Returns the slot of {@code condition}, or its complement when the condition is negated.
+         */
+        private int condition(ConditionSource condition) {
+            var negated = false;
+            while (condition instanceof NotConditionSource(var invert)) {
+                negated = !negated;
+                condition = invert;
+            }
+
+            var index = this.conditionIndices.get(condition);
+            if (index == null) {
+                index = this.conditions.size();
+                this.conditionIndices.put(condition, index);
+                this.conditions.add(condition);
+                if (condition instanceof BiomeConditionSource(var biomes)) {
+                    for (var biome : biomes) {
+                        this.biomeIds.putIfAbsent(biome, this.biomeIds.size());
+                    }
+                } else if (condition instanceof NoiseThresholdConditionSource threshold) {
+                    this.noiseIds.putIfAbsent(threshold.noise(), this.noiseIds.size());
+                }
+            }
+            return negated ? ~index : index;
+        }
+
+        private Program build(RuleSource source) {
+            var conditionCount = this.conditions.size();
+            var perColumn = new boolean[conditionCount];
+            var biomeSets = new long[conditionCount][];
+            var noiseSlots = new int[conditionCount];
+            var randomFactories = new PositionalRandomFactory[conditionCount];
+            for (var index = 0; index < conditionCount; index++) {
+                var condition = this.conditions.get(index);
+                perColumn[index] = condition instanceof NoiseThresholdConditionSource
+                        || condition instanceof HoleConditionSource
+                        || condition instanceof SteepConditionSource;
+                if (condition instanceof BiomeConditionSource(var biomes)) {
+                    var bits = new long[(this.biomeIds.size() + 63) >>> 6];
+                    for (var biome : biomes) {
+                        var biomeId = (int) this.biomeIds.get(biome);
+                        bits[biomeId >>> 6] |= 1L << biomeId;
+                    }
+                    biomeSets[index] = bits;
+                }
+                noiseSlots[index] = condition instanceof NoiseThresholdConditionSource threshold ? this.noiseIds.get(threshold.noise()) : -1;
+                if (condition instanceof VerticalGradientConditionSource gradient) {
+                    randomFactories[index] = this.randomState.getOrCreateRandomFactory(gradient.randomName());
+                }
+            }
+
+            var floorGuards = new ArrayList<Integer>();
+            var ceilingGuards = new ArrayList<Integer>();
+            for (var guard : this.guards) {
+                var stoneDepth = (StoneDepthConditionSource) this.conditions.get(guard);
+                (stoneDepth.surfaceType() == SurfaceType.CEILING ? ceilingGuards : floorGuards).add(guard);
+            }
+
+            var noises = new NormalNoise[this.noiseIds.size()];
+            this.noiseIds.forEach((noise, slot) -> noises[slot] = this.randomState.getOrCreateNoise(noise));
+
+            return new Program(source,
+                    this.opcodes.stream().mapToInt(Integer::intValue).toArray(),
+                    this.operands.stream().mapToInt(Integer::intValue).toArray(),
+                    this.jumps.stream().mapToInt(Integer::intValue).toArray(),
+                    this.blocks.toArray(Block[]::new),
+                    this.conditions.toArray(ConditionSource[]::new),
+                    perColumn,
+                    biomeSets,
+                    Map.copyOf(this.biomeIds),
+                    noiseSlots,
+                    noises,
+                    randomFactories,
+                    floorGuards.stream().mapToInt(Integer::intValue).toArray(),
+                    ceilingGuards.stream().mapToInt(Integer::intValue).toArray(),
+                    this.unguarded);
+        }
+    }
+
     private record Bandlands() implements RuleSource {
         @Override
         public Block tryApply(Context context) {
-            return context.system().getBand(context.blockX(), context.blockY(), context.blockZ());
+            return context.band();
         }
     }
 
@@ -371,6 +753,14 @@ public final class SurfaceRules {
     private record VerticalGradientConditionSource(Key randomName, VerticalAnchor trueAtAndBelow, VerticalAnchor falseAtAndAbove) implements ConditionSource {
         @Override
         public boolean test(Context context) {
+            return this.test(context, null);
+        }
+
+        /**
+         * Tests the gradient with an already resolved random factory, or resolves it when
+         * {@code randomFactory} is null.
+         */
+        private boolean test(Context context, PositionalRandomFactory randomFactory) {
             var trueY = this.trueAtAndBelow.resolveY(context.minY(), context.maxYInclusive());
             var falseY = this.falseAtAndAbove.resolveY(context.minY(), context.maxYInclusive());
             var y = context.blockY();
@@ -382,9 +772,10 @@ public final class SurfaceRules {
             }
 
             var chance = map((double) y, (double) trueY, (double) falseY, 1.0D, 0.0D);
-            var randomFactory = context.randomState().getOrCreateRandomFactory(this.randomName);
-            var randomSource = randomFactory.at(context.blockX(), y, context.blockZ());
-            return (double) randomSource.nextFloat() < chance;
+            if (randomFactory == null) {
+                randomFactory = context.randomState().getOrCreateRandomFactory(this.randomName);
+            }
+            return (double) randomFactory.nextFloatAt(context.blockX(), y, context.blockZ()) < chance;
         }
     }
 
@@ -413,9 +804,13 @@ public final class SurfaceRules {
         public boolean test(Context context) {
             var ceiling = this.surfaceType == SurfaceType.CEILING;
             var stoneDepth = ceiling ? context.stoneDepthBelow() : context.stoneDepthAbove();
+            return stoneDepth <= this.maxStoneDepth(context);
+        }
+
+        private int maxStoneDepth(Context context) {
             var surfaceDepth = this.addSurfaceDepth ? context.surfaceDepth() : 0;
             var secondary = this.secondaryDepthRange == 0 ? 0 : (int) map(context.surfaceSecondary(), -1.0D, 1.0D, 0.0D, (double) this.secondaryDepthRange);
-            return stoneDepth <= 1 + this.offset + surfaceDepth + secondary;
+            return 1 + this.offset + surfaceDepth + secondary;
         }
     }
 
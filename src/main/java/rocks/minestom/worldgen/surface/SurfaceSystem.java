@@ -59,8 +59,18 @@ public final class SurfaceSystem {
     }
 
     public Block getBand(int blockX, int blockY, int blockZ) {
-        var offset = (int) Math.round(this.clayBandsOffsetNoise.getValue((double) blockX, 0.0D, (double) blockZ) * 4.0D);
-        var index = (blockY + offset + this.clayBands.length) % this.clayBands.length;
+        return this.getBand(blockY, this.getBandOffset(blockX, blockZ));
+    }
+
+    /**
+     * Returns how far the clay bands are shifted in a column, for {@link #getBand(int, int)}.
+     */
+    public int getBandOffset(int blockX, int blockZ) {
+        return (int) Math.round(this.clayBandsOffsetNoise.getValue((double) blockX, 0.0D, (double) blockZ) * 4.0D);
+    }
+
+    public Block getBand(int blockY, int bandOffset) {
+        var index = (blockY + bandOffset + this.clayBands.length) % this.clayBands.length;
         return this.clayBands[index];
     }
 
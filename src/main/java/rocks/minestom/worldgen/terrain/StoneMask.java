@@ -0,0 +1,93 @@
+package rocks.minestom.worldgen.terrain;
+
+import java.util.Arrays;
+
+/**
+ * Bit-packed record of which blocks the noise phase left as base stone.
+ * Each column is stored as a run of 64-bit words, lowest Y first, so stone runs
+ * and their depths can be found by scanning whole words instead of single blocks.
+ */
+public final class StoneMask {
+    private final int columns;
+    private final int height;
+    private final int wordsPerColumn;
+    private final long[] words;
+
+    public StoneMask(int columns, int height) {
+        this.columns = columns;
+        this.height = height;
+        this.wordsPerColumn = (height + 63) >>> 6;
+        this.words = new long[columns * this.wordsPerColumn];
+    }
+
+    public int columns() {
+        return this.columns;
+    }
+
+    public int height() {
+        return this.height;
+    }
+
+    public boolean isStone(int column, int yIndex) {
+        return (this.words[column * this.wordsPerColumn + (yIndex >>> 6)] & (1L << yIndex)) != 0L;
+    }
+
+    public void set(int column, int yIndex) {
+        this.words[column * this.wordsPerColumn + (yIndex >>> 6)] |= 1L << yIndex;
+    }
+
+    /**
+     * Returns the {@code count} bits of the column starting at {@code yIndex}, lowest Y
+     * in the lowest bit. {@code count} is at most 64 and the range lies within the column.
+     */
+    public long bits(int column, int yIndex, int count) {
+        var base = column * this.wordsPerColumn;
+        var wordIndex = yIndex >>> 6;
+        var shift = yIndex & 63;
+        var bits = this.words[base + wordIndex] >>> shift;
+        if (shift + count > 64) {
+            bits |= this.words[base + wordIndex + 1] << (64 - shift);
+        }
+        return count == 64 ? bits : bits & ((1L << count) - 1L);
+    }
+
+    public void clear() {
+        Arrays.fill(this.words, 0L);
+    }
+
+    /**
+     * Returns the highest stone index at or below {@code yIndex} in the column, or
+     * {@code -1} if there is none.
+     */
+    public int previousStone(int column, int yIndex) {
+        return this.previous(column, yIndex, 0L);
+    }
+
+    /**
+     * Returns the lowest index of the stone run containing {@code yIndex}.
+     */
+    public int runBottom(int column, int yIndex) {
+        return this.previous(column, yIndex, -1L) + 1;
+    }
+
+    /**
+     * Scans down from {@code yIndex} for the first bit that differs from {@code flip}.
+     */
+    private int previous(int column, int yIndex, long flip) {
+        if (yIndex < 0) {
+            return -1;
+        }
+
+        var base = column * this.wordsPerColumn;
+        var wordIndex = yIndex >>> 6;
+        var word = (this.words[base + wordIndex] ^ flip) & (-1L >>> (63 - (yIndex & 63)));
+
+        while (word == 0L) {
+            if (--wordIndex < 0) {
+                return -1;
+            }
+            word = this.words[base + wordIndex] ^ flip;
+        }
+        return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+}
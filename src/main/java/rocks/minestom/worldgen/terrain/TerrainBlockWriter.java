@@ -0,0 +1,145 @@
+package rocks.minestom.worldgen.terrain;
+
+import net.minestom.server.coordinate.BlockVec;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.generator.GenerationUnit;
+import net.minestom.server.instance.generator.UnitModifier;
+
+/**
+ * Writes the result of the noise phase into a {@link GenerationUnit} using bulk fills.
+ * <p>
+ * Sections that hold a single block are filled through their own modifier, which lets
+ * Minestom collapse them into a single-value palette. Everything else is written as
+ * vertical runs of stone or fluid per column instead of one block at a time, found by
+ * scanning the stone mask run by run rather than block by block.
+ */
+final class TerrainBlockWriter {
+    private static final byte AIR = 0;
+    private static final byte SOLID = 1;
+    private static final byte FLUID = 2;
+    private static final byte MIXED = -1;
+
+    private final Block defaultBlock;
+    private final Block defaultFluid;
+    private final int seaLevel;
+    private final int minY;
+    private final int maxY;
+
+    TerrainBlockWriter(Block defaultBlock, Block defaultFluid, int seaLevel, int minY, int maxY) {
+        this.defaultBlock = defaultBlock;
+        this.defaultFluid = defaultFluid;
+        this.seaLevel = seaLevel;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    void write(GenerationUnit unit, TerrainData data) {
+        var start = unit.absoluteStart();
+        var startX = start.blockX();
+        var startZ = start.blockZ();
+        var sizeZ = unit.size().blockZ();
+        var stoneMask = data.stoneMask();
+        var modifier = unit.modifier();
+
+        for (var section : unit.subdivide()) {
+            var sectionStart = section.absoluteStart();
+            var sectionSize = section.size();
+            var localX = sectionStart.blockX() - startX;
+            var localZ = sectionStart.blockZ() - startZ;
+            var fromY = sectionStart.blockY();
+            var toY = fromY + sectionSize.blockY() - 1;
+            var kind = this.uniformKind(stoneMask, sizeZ, localX, fromY, toY, localZ,
+                    sectionSize.blockX(), sectionSize.blockZ());
+            if (kind != MIXED) {
+                if (kind != AIR) {
+                    section.modifier().fill(this.blockOf(kind));
+                }
+                continue;
+            }
+
+            // Blocks outside the mask are air, so runs only cover its part of the section
+            var fromIndex = Math.max(fromY, this.minY) - this.minY;
+            var toIndex = Math.min(toY, this.maxY) - this.minY;
+            for (var x = localX; x < localX + sectionSize.blockX(); x++) {
+                for (var z = localZ; z < localZ + sectionSize.blockZ(); z++) {
+                    this.writeColumn(modifier, stoneMask, x * sizeZ + z, startX + x, startZ + z, fromIndex, toIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Emits the stone and fluid runs of one column between two mask indices, inclusive,
+     * walking down from stone run to stone run.
+     */
+    private void writeColumn(UnitModifier modifier, StoneMask stoneMask, int column, int blockX, int blockZ,
+            int fromIndex, int toIndex) {
+        var seaIndex = this.seaLevel - this.minY;
+        var yIndex = toIndex;
+        while (yIndex >= fromIndex) {
+            var stoneTop = stoneMask.previousStone(column, yIndex);
+
+            // Everything above the next stone run is fluid below sea level and air above it
+            var gapBottom = Math.max(stoneTop + 1, fromIndex);
+            var fluidTop = Math.min(yIndex, seaIndex - 1);
+            if (gapBottom <= fluidTop) {
+                this.fillRun(modifier, blockX, blockZ, gapBottom, fluidTop, this.defaultFluid);
+            }
+            if (stoneTop < fromIndex) {
+                return;
+            }
+
+            var stoneBottom = Math.max(stoneMask.runBottom(column, stoneTop), fromIndex);
+            this.fillRun(modifier, blockX, blockZ, stoneBottom, stoneTop, this.defaultBlock);
+            yIndex = stoneBottom - 1;
+        }
+    }
+
+    private void fillRun(UnitModifier modifier, int blockX, int blockZ, int fromIndex, int toIndex, Block block) {
+        modifier.fill(
+                new BlockVec(blockX, this.minY + fromIndex, blockZ),
+                new BlockVec(blockX + 1, this.minY + toIndex + 1, blockZ + 1),
+                block);
+    }
+
+    /**
+     * Returns the kind shared by every block of the given box, or {@link #MIXED}. Each
+     * column is checked a whole mask slice at a time.
+     */
+    private byte uniformKind(StoneMask stoneMask, int unitSizeZ, int localX, int fromY, int toY, int localZ,
+            int sectionSizeX, int sectionSizeZ) {
+        if (toY < this.minY || fromY > this.maxY) {
+            return AIR;
+        }
+        if (fromY < this.minY || toY > this.maxY) {
+            return MIXED;
+        }
+
+        var fromIndex = fromY - this.minY;
+        var count = toY - fromY + 1;
+        var allStone = count == 64 ? -1L : (1L << count) - 1L;
+        var first = stoneMask.bits(localX * unitSizeZ + localZ, fromIndex, count);
+        if (first != 0L && first != allStone) {
+            return MIXED;
+        }
+        for (var x = localX; x < localX + sectionSizeX; x++) {
+            for (var z = localZ; z < localZ + sectionSizeZ; z++) {
+                if (stoneMask.bits(x * unitSizeZ + z, fromIndex, count) != first) {
+                    return MIXED;
+                }
+            }
+        }
+
+        if (first != 0L) {
+            return SOLID;
+        }
+        if (toY < this.seaLevel) {
+            return FLUID;
+        }
+        return fromY >= this.seaLevel ? AIR : MIXED;
+    }
+
+    private Block blockOf(byte kind) {
+        return kind == SOLID ? this.defaultBlock : this.defaultFluid;
+    }
+}
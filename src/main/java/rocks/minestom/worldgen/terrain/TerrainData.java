@@ -11,19 +11,39 @@ import java.util.Arrays;
  *                       block.
  * @param waterHeights   Map of (x, z) to the Y coordinate of the highest water
  *                       block.
- * @param stoneMask      A flattened 3D bitmask array. 1 means "base
- *                       stone/ground", 0 means air/water.
+ * @param stoneMask      Per-column mask of the blocks that are "base
+ *                       stone/ground" rather than air/water.
  */
 public record TerrainData(
         int[] surfaceHeights,
         int[] waterHeights,
-        byte[] stoneMask) {
+        StoneMask stoneMask) {
+    private static final ThreadLocal<TerrainData> POOL = new ThreadLocal<>();
+
     public static TerrainData create(int sizeX, int sizeZ, int height) {
         var surfaceHeights = new int[sizeX * sizeZ];
         var waterHeights = new int[sizeX * sizeZ];
-        var stoneMask = new byte[sizeX * sizeZ * height];
+        var stoneMask = new StoneMask(sizeX * sizeZ, height);
         Arrays.fill(surfaceHeights, Integer.MIN_VALUE);
         Arrays.fill(waterHeights, Integer.MIN_VALUE);
         return new TerrainData(surfaceHeights, waterHeights, stoneMask);
     }
+
+    /**
+     * Returns cleared terrain data owned by the calling thread. The buffers are reused by
+     * the next call on the same thread, so they must not be kept past the current chunk.
+     */
+    public static TerrainData acquire(int sizeX, int sizeZ, int height) {
+        var data = POOL.get();
+        if (data == null || data.stoneMask.columns() != sizeX * sizeZ || data.stoneMask.height() != height) {
+            data = create(sizeX, sizeZ, height);
+            POOL.set(data);
+            return data;
+        }
+
+        Arrays.fill(data.surfaceHeights, Integer.MIN_VALUE);
+        Arrays.fill(data.waterHeights, Integer.MIN_VALUE);
+        data.stoneMask.clear();
+        return data;
+    }
 }
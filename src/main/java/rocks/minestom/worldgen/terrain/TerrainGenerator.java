@@ -1,8 +1,10 @@
 package rocks.minestom.worldgen.terrain;
 
 import net.minestom.server.instance.generator.GenerationUnit;
+import rocks.minestom.worldgen.CellCornerCache;
 import rocks.minestom.worldgen.NoiseChunk;
 import rocks.minestom.worldgen.NoiseGeneratorSettingsRuntime;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
 
 /**
  * Handles the base terrain generation phase (The "Noise Phase").
@@ -15,55 +17,155 @@ import rocks.minestom.worldgen.NoiseGeneratorSettingsRuntime;
  */
 public final class TerrainGenerator {
     private final NoiseGeneratorSettingsRuntime settings;
+    private final TerrainBlockWriter blockWriter;
+    private final CellCornerCache cornerCache;
+    private final boolean cullCellRows;
+    private final boolean classifyCells;
 
     public TerrainGenerator(NoiseGeneratorSettingsRuntime settings) {
+        this(settings, true, true);
+    }
+
+    /**
+     * Only tests turn the shortcuts off, to check they leave the terrain unchanged.
+     *
+     * @param cullCellRows  whether cell rows proven uniform by the static bounds of the
+     *                      final density skip corner filling
+     * @param classifyCells whether cells proven uniform by the bounds of their corners
+     *                      are filled in bulk
+     */
+    TerrainGenerator(NoiseGeneratorSettingsRuntime settings, boolean cullCellRows, boolean classifyCells) {
         this.settings = settings;
+        this.blockWriter = new TerrainBlockWriter(settings.defaultBlock(), settings.defaultFluid(),
+                settings.seaLevel(), settings.minY(), settings.maxYInclusive());
+        this.cornerCache = new CellCornerCache();
+        this.cullCellRows = cullCellRows;
+        this.classifyCells = classifyCells;
     }
 
+    /**
+     * Fills {@code unit} with the base terrain and returns its heightmaps and stone mask.
+     */
     public TerrainData generate(GenerationUnit unit) {
-        var startX = unit.absoluteStart().blockX();
-        var startY = unit.absoluteStart().blockY();
-        var startZ = unit.absoluteStart().blockZ();
-        var sizeX = unit.size().blockX();
-        var sizeZ = unit.size().blockZ();
+        return this.generate(unit, null);
+    }
+
+    /**
+     * @param flatCacheMemo shares flat cache columns with the unit's climate sampling, or
+     *                      {@code null}
+     */
+    public TerrainData generate(GenerationUnit unit, FlatCacheMemo flatCacheMemo) {
+        var data = TerrainData.create(unit.size().blockX(), unit.size().blockZ(), this.height());
+        this.generate(unit, flatCacheMemo, data);
+        return data;
+    }
+
+    /**
+     * Like {@link #generate(GenerationUnit, FlatCacheMemo)}, but returns data from
+     * {@link TerrainData#acquire}, which is owned by the calling thread: the next call on
+     * the same thread overwrites it, so it must not be kept past the current unit.
+     */
+    public TerrainData generatePooled(GenerationUnit unit, FlatCacheMemo flatCacheMemo) {
+        var data = TerrainData.acquire(unit.size().blockX(), unit.size().blockZ(), this.height());
+        this.generate(unit, flatCacheMemo, data);
+        return data;
+    }
 
+    private int height() {
+        return this.settings.maxYInclusive() - this.settings.minY() + 1;
+    }
+
+    private void generate(GenerationUnit unit, FlatCacheMemo flatCacheMemo, TerrainData data) {
+        this.fill(unit.absoluteStart().blockX(), unit.absoluteStart().blockZ(), unit.size().blockX(), unit.size().blockZ(),
+                flatCacheMemo, data);
+
+        // Blocks are written in bulk once the whole unit is known
+        this.blockWriter.write(unit, data);
+    }
+
+    /**
+     * Runs the noise loop over the area of {@code sizeX} by {@code sizeZ} blocks starting
+     * at the given block, recording heights and stone into {@code data} without writing
+     * any block.
+     */
+    void fill(int startX, int startZ, int sizeX, int sizeZ, FlatCacheMemo flatCacheMemo, TerrainData data) {
         var minY = this.settings.minY();
         var maxY = this.settings.maxYInclusive();
         var height = maxY - minY + 1;
 
         var seaLevel = this.settings.seaLevel();
-        var defaultBlock = this.settings.defaultBlock();
-        var defaultFluid = this.settings.defaultFluid();
 
         var cellWidth = this.settings.cellWidth();
         var cellHeight = this.settings.cellHeight();
 
-        // Prepare output data
-        var data = TerrainData.create(sizeX, sizeZ, height);
         var surfaceHeights = data.surfaceHeights();
         var waterHeights = data.waterHeights();
         var stoneMask = data.stoneMask();
-        var modifier = unit.modifier();
 
         // Initialize NoiseChunk for efficient interpolation
-        var noiseChunk = new NoiseChunk(startX, startZ, cellWidth, cellHeight, minY, height,
-                this.settings.finalDensity());
-        var cellCountXZ = noiseChunk.cellCountXZ();
+        var noiseChunk = new NoiseChunk(startX, startZ, sizeX, sizeZ, cellWidth, cellHeight, minY, height,
+                this.settings.finalDensity(), this.cornerCache, flatCacheMemo);
+        var cellCountX = noiseChunk.cellCountX();
+        var cellCountZ = noiseChunk.cellCountZ();
         var cellCountY = noiseChunk.cellCountY();
         var minCellY = noiseChunk.minCellY();
 
+        if (this.cullCellRows) {
+            noiseChunk.cullCellRows();
+        }
         noiseChunk.initializeForFirstCellX();
 
         // --- The Noise Loop ---
         // Iterate over 'Cells' (the optimization unit)
-        for (var cellOffsetX = 0; cellOffsetX < cellCountXZ; cellOffsetX++) {
+        for (var cellOffsetX = 0; cellOffsetX < cellCountX; cellOffsetX++) {
             noiseChunk.advanceCellX(cellOffsetX);
 
-            for (var cellOffsetZ = 0; cellOffsetZ < cellCountXZ; cellOffsetZ++) {
+            for (var cellOffsetZ = 0; cellOffsetZ < cellCountZ; cellOffsetZ++) {
 
                 // Iterate cells top-to-bottom for heightmap tracking
                 for (var cellOffsetY = cellCountY - 1; cellOffsetY >= 0; cellOffsetY--) {
-                    noiseChunk.selectCellYZ(cellOffsetY, cellOffsetZ);
+                    // Cells proven uniformly solid or empty skip per-block density evaluation
+                    var cellClass = noiseChunk.classifyCellRow(cellOffsetY);
+                    if (cellClass == 0) {
+                        noiseChunk.selectCellYZ(cellOffsetY, cellOffsetZ);
+                        if (this.classifyCells) {
+                            cellClass = noiseChunk.classifySelectedCell();
+                        }
+                    }
+                    if (cellClass != 0) {
+                        var solid = cellClass > 0;
+                        var cellBottomY = (minCellY + cellOffsetY) * cellHeight;
+                        if (!solid && cellBottomY >= seaLevel) {
+                            continue;
+                        }
+
+                        for (var inCellY = cellHeight - 1; inCellY >= 0; inCellY--) {
+                            var blockY = cellBottomY + inCellY;
+                            if (blockY < minY || blockY > maxY || (!solid && blockY >= seaLevel)) {
+                                continue;
+                            }
+
+                            var yIndex = blockY - minY;
+                            for (var inCellX = 0; inCellX < cellWidth; inCellX++) {
+                                var localX = cellOffsetX * cellWidth + inCellX;
+
+                                for (var inCellZ = 0; inCellZ < cellWidth; inCellZ++) {
+                                    var localZ = cellOffsetZ * cellWidth + inCellZ;
+                                    var surfaceIndex = localX * sizeZ + localZ;
+
+                                    if (solid) {
+                                        if (surfaceHeights[surfaceIndex] == Integer.MIN_VALUE) {
+                                            surfaceHeights[surfaceIndex] = blockY;
+                                        }
+                                        stoneMask.set(surfaceIndex, yIndex);
+                                    } else if (waterHeights[surfaceIndex] == Integer.MIN_VALUE) {
+                                        waterHeights[surfaceIndex] = blockY + 1;
+                                    }
+                                }
+                            }
+                        }
+                        continue;
+                    }
 
                     // Iterate blocks WITHIN the cell
                     for (var inCellY = cellHeight - 1; inCellY >= 0; inCellY--) {
@@ -90,21 +192,16 @@ public final class TerrainGenerator {
                                 var density = noiseChunk.getInterpolatedDensity();
                                 var surfaceIndex = localX * sizeZ + localZ;
                                 var yIndex = blockY - minY;
-                                var maskIndex = surfaceIndex * height;
 
                                 if (density > 0.0D) {
                                     // Solid Ground
-                                    modifier.setRelative(localX, blockY - startY, localZ, defaultBlock);
-
                                     // Capture surface height (first solid from top)
                                     if (surfaceHeights[surfaceIndex] == Integer.MIN_VALUE) {
                                         surfaceHeights[surfaceIndex] = blockY;
                                     }
-                                    stoneMask[maskIndex + yIndex] = 1;
+                                    stoneMask.set(surfaceIndex, yIndex);
                                 } else if (blockY < seaLevel) {
                                     // Ocean/Liquid
-                                    modifier.setRelative(localX, blockY - startY, localZ, defaultFluid);
-
                                     // Capture water level (first liquid from top)
                                     if (waterHeights[surfaceIndex] == Integer.MIN_VALUE) {
                                         waterHeights[surfaceIndex] = blockY + 1;
@@ -120,6 +217,5 @@ public final class TerrainGenerator {
         }
 
         noiseChunk.stopInterpolation();
-        return data;
     }
 }
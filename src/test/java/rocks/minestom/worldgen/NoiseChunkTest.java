@@ -0,0 +1,79 @@
+package rocks.minestom.worldgen;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.DensityFunctions;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NoiseChunkTest {
+    @Test
+    void cacheOnceServesBranchesFromItsBatchFill() {
+        var evaluations = new int[1];
+        DensityFunction counted = new DensityFunction() {
+            @Override
+            public double compute(Context context) {
+                evaluations[0]++;
+                return context.blockY();
+            }
+        };
+        var cached = new DensityFunctions.CacheOnce(counted);
+        var choice = new DensityFunctions.RangeChoice(cached, -1.0E9, 1.0E9, cached, new DensityFunctions.Constant(0.0));
+
+        var chunk = new NoiseChunk(0, 0, 4, 8, -64, 384, new DensityFunctions.Interpolated(choice));
+        chunk.initializeForFirstCellX();
+        chunk.stopInterpolation();
+
+        // One evaluation per corner: the in-range branch reads the batch-filled column
+        var corners = (chunk.cellCountZ() + 1) * (chunk.cellCountY() + 1);
+        assertEquals(corners, evaluations[0]);
+    }
+
+    @Test
+    void sharedCornersIgnoreRowsTheirChunkCulled() {
+        var noise = NormalNoise.create(new XoroshiroRandomSource(42L), new NormalNoise.NoiseParameters(-4, new double[]{1.0, 0.5}));
+        DensityFunction function = new DensityFunctions.Add(
+                new DensityFunctions.YClampedGradient(-64, 320, 4.0, -4.0),
+                new DensityFunctions.Interpolated(new DensityFunctions.Noise(noise, 1.0, 1.0)));
+
+        // The culled chunk stores its east border, which the unculled one loads as its west border
+        var cornerCache = new CellCornerCache();
+        var culled = new NoiseChunk(0, 0, 16, 16, 4, 8, -64, 384, function, cornerCache);
+        culled.cullCellRows();
+        sampleCells(culled, 0, 0);
+
+        var shared = new NoiseChunk(16, 0, 16, 16, 4, 8, -64, 384, function, cornerCache);
+        var unshared = new NoiseChunk(16, 0, 16, 16, 4, 8, -64, 384, function, null);
+        assertArrayEquals(sampleCells(unshared, 16, 0), sampleCells(shared, 16, 0));
+    }
+
+    /**
+     * Returns the density at the centre of every cell the chunk does not classify by row.
+     */
+    private static double[] sampleCells(NoiseChunk chunk, int startX, int startZ) {
+        var values = new double[chunk.cellCountX() * chunk.cellCountZ() * chunk.cellCountY()];
+        var halfWidth = chunk.cellWidth() / 2;
+        chunk.initializeForFirstCellX();
+        for (var cellX = 0; cellX < chunk.cellCountX(); cellX++) {
+            chunk.advanceCellX(cellX);
+            for (var cellZ = 0; cellZ < chunk.cellCountZ(); cellZ++) {
+                for (var cellY = 0; cellY < chunk.cellCountY(); cellY++) {
+                    if (chunk.classifyCellRow(cellY) != 0) {
+                        continue;
+                    }
+                    chunk.selectCellYZ(cellY, cellZ);
+                    chunk.updateForY((cellY + chunk.minCellY()) * chunk.cellHeight() + chunk.cellHeight() / 2, 0.5);
+                    chunk.updateForX(startX + cellX * chunk.cellWidth() + halfWidth, 0.5);
+                    chunk.updateForZ(startZ + cellZ * chunk.cellWidth() + halfWidth, 0.5);
+                    values[(cellX * chunk.cellCountZ() + cellZ) * chunk.cellCountY() + cellY] = chunk.getInterpolatedDensity();
+                }
+            }
+            chunk.swapSlices();
+        }
+        chunk.stopInterpolation();
+        return values;
+    }
+}
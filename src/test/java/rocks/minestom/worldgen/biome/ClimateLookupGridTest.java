@@ -0,0 +1,132 @@
+package rocks.minestom.worldgen.biome;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares lookups answered by the climate lookup grid with searches of the tree alone,
+ * including targets on the grid's bounds, outside it, and equally close to entries with
+ * different values.
+ */
+class ClimateLookupGridTest {
+    private static final float[] BOUNDS = {-1.0F, -0.45F, -0.15F, 0.2F, 0.55F, 1.0F};
+    private static final float[] LATTICE = {-0.5F, 0.0F, 0.5F};
+
+    @Test
+    void randomListsMatchTree() {
+        var random = new Random(20L);
+        for (var list = 0; list < 24; list++) {
+            var values = new ArrayList<Pair<Climate.ParameterPoint, String>>();
+            var count = 1 + random.nextInt(60);
+            for (var index = 0; index < count; index++) {
+                var point = Climate.parameters(
+                        span(random), span(random), span(random), span(random), span(random), span(random),
+                        random.nextInt(3) * 0.1F);
+                // Few distinct values, so cells often mix entries with the same value
+                values.add(new Pair<>(point, "value_" + random.nextInt(5)));
+            }
+            assertMatchesTree(values, random, 3_000);
+        }
+    }
+
+    @Test
+    void equallyCloseEntriesMatchTree() {
+        // Points on a coarse lattice, so targets between lattice points are the same
+        // distance from several of them, and duplicates of a point carry other values
+        var random = new Random(21L);
+        for (var list = 0; list < 16; list++) {
+            var values = new ArrayList<Pair<Climate.ParameterPoint, String>>();
+            var count = 2 + random.nextInt(40);
+            for (var index = 0; index < count; index++) {
+                var point = Climate.parameters(
+                        lattice(random), lattice(random), lattice(random), lattice(random), lattice(random), lattice(random),
+                        0.0F);
+                values.add(new Pair<>(point, "value_" + random.nextInt(4)));
+                if (random.nextInt(4) == 0) {
+                    values.add(new Pair<>(point, "duplicate_" + index));
+                }
+            }
+            assertMatchesTree(values, random, 3_000);
+        }
+    }
+
+    @Test
+    void overworldListMatchesTree() {
+        var values = new ArrayList<Pair<Climate.ParameterPoint, Key>>();
+        new OverworldBiomeBuilder().addBiomes(values::add);
+        assertMatchesTree(values, new Random(22L), 50_000);
+    }
+
+    private static <T> void assertMatchesTree(List<Pair<Climate.ParameterPoint, T>> values, Random random, int targets) {
+        var tree = new Climate.ParameterList<>(values, false);
+        var grid = new Climate.ParameterList<>(values, true);
+        var bounds = bounds(values);
+        for (var index = 0; index < targets; index++) {
+            var target = new Climate.TargetPoint(
+                    coordinate(random, bounds[0]),
+                    coordinate(random, bounds[1]),
+                    coordinate(random, bounds[2]),
+                    coordinate(random, bounds[3]),
+                    coordinate(random, bounds[4]),
+                    coordinate(random, bounds[5]));
+            assertEquals(tree.findValue(target), grid.findValue(target), () -> "at " + target + " in " + values);
+        }
+    }
+
+    /**
+     * Picks a coordinate on one axis: anywhere in the usual range, exactly on a bound or
+     * next to it, halfway between two bounds, or well outside the grid.
+     */
+    private static long coordinate(Random random, long[] bounds) {
+        var bound = bounds[random.nextInt(bounds.length)];
+        return switch (random.nextInt(10)) {
+            case 0, 1, 2 -> Climate.quantizeCoord(random.nextFloat() * 2.4F - 1.2F);
+            case 3, 4 -> bound;
+            case 5 -> bound + (random.nextBoolean() ? 1L : -1L);
+            case 6, 7 -> (bound + bounds[random.nextInt(bounds.length)]) / 2L;
+            default -> Climate.quantizeCoord((random.nextBoolean() ? 1.0F : -1.0F) * (2.0F + random.nextFloat() * 3.0F));
+        };
+    }
+
+    private static <T> long[][] bounds(List<Pair<Climate.ParameterPoint, T>> values) {
+        var bounds = new long[6][];
+        for (var axis = 0; axis < bounds.length; axis++) {
+            var axisBounds = new TreeSet<Long>();
+            for (var value : values) {
+                var point = value.first();
+                var parameter = switch (axis) {
+                    case 0 -> point.temperature();
+                    case 1 -> point.humidity();
+                    case 2 -> point.continentalness();
+                    case 3 -> point.erosion();
+                    case 4 -> point.depth();
+                    default -> point.weirdness();
+                };
+                axisBounds.add(parameter.min());
+                axisBounds.add(parameter.max());
+            }
+            bounds[axis] = axisBounds.stream().mapToLong(Long::longValue).toArray();
+        }
+        return bounds;
+    }
+
+    /**
+     * Spans between shared bounds, like the vanilla lists, which keeps the lookup grid small.
+     */
+    private static Climate.Parameter span(Random random) {
+        var first = random.nextInt(BOUNDS.length);
+        var second = random.nextInt(BOUNDS.length);
+        return Climate.Parameter.span(BOUNDS[Math.min(first, second)], BOUNDS[Math.max(first, second)]);
+    }
+
+    private static Climate.Parameter lattice(Random random) {
+        return Climate.Parameter.point(LATTICE[random.nextInt(LATTICE.length)]);
+    }
+}
@@ -0,0 +1,167 @@
+package rocks.minestom.worldgen.biome;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.DensityFunctions;
+import rocks.minestom.worldgen.density.FlatCacheMemo;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Samples one quart grid from several threads at once and compares every thread's result
+ * with a single-threaded run. Each run gets freshly built sources, so lazily built lookup
+ * structures are first filled under contention.
+ */
+class ConcurrentClimateSamplingTest {
+    private static final int THREADS = 8;
+    private static final int QUARTS_XZ = 48;
+    private static final int[] QUARTS_Y = {-16, 0, 16, 40};
+    private static final float[] BOUNDS = {-1.0F, -0.45F, -0.15F, 0.2F, 0.55F, 1.0F};
+
+    @Test
+    void climateSamplerIsThreadSafe() throws Exception {
+        assertMatchesSingleThreaded(sampler -> (quartX, quartY, quartZ) -> sampler.sample(quartX, quartY, quartZ));
+    }
+
+    @Test
+    void multiNoiseBiomeSourceIsThreadSafe() throws Exception {
+        assertMatchesSingleThreaded(sampler -> {
+            var source = new MultiNoiseBiomeSource(sampler, parameters());
+            return (quartX, quartY, quartZ) -> source.biome(quartX, quartY, quartZ);
+        });
+    }
+
+    @Test
+    void theEndBiomeSourceIsThreadSafe() throws Exception {
+        // Far enough out that the erosion lookup runs instead of the central island shortcut
+        assertMatchesSingleThreaded(sampler -> {
+            var source = new TheEndBiomeSource(sampler);
+            return (quartX, quartY, quartZ) -> source.biome(quartX + 4_096, quartY, quartZ - 4_096);
+        });
+    }
+
+    @Test
+    void perThreadMemosMatchUnmemoisedSampling() throws Exception {
+        assertMatchesSingleThreaded(sampler -> {
+            var memoised = sampler.withFlatCacheMemo(new FlatCacheMemo(QUARTS_XZ << 2, QUARTS_XZ << 2));
+            return (quartX, quartY, quartZ) -> memoised.sample(quartX, quartY, quartZ);
+        }, sampler -> (quartX, quartY, quartZ) -> sampler.sample(quartX, quartY, quartZ));
+    }
+
+    private static void assertMatchesSingleThreaded(Function<ClimateSampler, QuartFunction> perThread) throws Exception {
+        assertMatchesSingleThreaded(perThread, perThread);
+    }
+
+    /**
+     * Runs {@code perThread} on every thread over one shared sampler, except that each
+     * thread may derive its own view of it, and compares the results with
+     * {@code reference} sampled on the calling thread.
+     */
+    private static void assertMatchesSingleThreaded(
+            Function<ClimateSampler, QuartFunction> perThread,
+            Function<ClimateSampler, QuartFunction> reference
+    ) throws Exception {
+        var expected = sampleGrid(reference.apply(sampler()), 0);
+
+        var shared = sampler();
+        var sharedFunction = perThread == reference ? perThread.apply(shared) : null;
+        var start = new CountDownLatch(1);
+        var tasks = new ArrayList<Callable<Object[]>>();
+        for (var thread = 0; thread < THREADS; thread++) {
+            var offset = thread * 97;
+            tasks.add(() -> {
+                var function = sharedFunction != null ? sharedFunction : perThread.apply(shared);
+                start.await();
+                return sampleGrid(function, offset);
+            });
+        }
+
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            var futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (var future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+        }
+    }
+
+    /**
+     * Samples every quart of the grid, starting at {@code offset} and wrapping around, so
+     * threads visit the grid in different orders.
+     */
+    private static Object[] sampleGrid(QuartFunction function, int offset) {
+        var columns = QUARTS_XZ * QUARTS_XZ;
+        var results = new Object[columns * QUARTS_Y.length];
+        for (var step = 0; step < columns; step++) {
+            var column = (step + offset) % columns;
+            var quartX = column / QUARTS_XZ - QUARTS_XZ / 2;
+            var quartZ = column % QUARTS_XZ - QUARTS_XZ / 2;
+            for (var yIndex = 0; yIndex < QUARTS_Y.length; yIndex++) {
+                results[column * QUARTS_Y.length + yIndex] = function.apply(quartX, QUARTS_Y[yIndex], quartZ);
+            }
+        }
+        return results;
+    }
+
+    private static ClimateSampler sampler() {
+        var random = new XoroshiroRandomSource(1812L);
+        var shiftNoise = noise(random);
+        var shiftX = new DensityFunctions.FlatCache(new DensityFunctions.ShiftA(shiftNoise));
+        var shiftZ = new DensityFunctions.FlatCache(new DensityFunctions.ShiftB(shiftNoise));
+        var zero = new DensityFunctions.Constant(0.0);
+
+        DensityFunction temperature = new DensityFunctions.ShiftedNoise(shiftX, zero, shiftZ, 0.25, 0.0, noise(random));
+        DensityFunction humidity = new DensityFunctions.ShiftedNoise(shiftX, zero, shiftZ, 0.25, 0.0, noise(random));
+        DensityFunction continentalness = new DensityFunctions.FlatCache(
+                new DensityFunctions.ShiftedNoise(shiftX, zero, shiftZ, 0.25, 0.0, noise(random)));
+        DensityFunction erosion = new DensityFunctions.FlatCache(
+                new DensityFunctions.ShiftedNoise(shiftX, zero, shiftZ, 0.25, 0.0, noise(random)));
+        DensityFunction depth = new DensityFunctions.Add(
+                new DensityFunctions.YClampedGradient(-64, 320, 1.5, -1.5),
+                continentalness);
+        DensityFunction weirdness = new DensityFunctions.Cache2D(
+                new DensityFunctions.Noise(noise(random), 1.0, 0.0));
+        return new ClimateSampler(temperature, humidity, continentalness, erosion, depth, weirdness);
+    }
+
+    private static NormalNoise noise(XoroshiroRandomSource random) {
+        return NormalNoise.create(random.fork(),
+                new NormalNoise.NoiseParameters(-9, new double[]{1.0, 1.0, 0.0, 1.0, 1.0}));
+    }
+
+    private static Climate.ParameterList<Key> parameters() {
+        var random = new Random(18L);
+        var values = new ArrayList<Pair<Climate.ParameterPoint, Key>>();
+        for (var index = 0; index < 40; index++) {
+            var point = Climate.parameters(
+                    span(random), span(random), span(random), span(random), span(random), span(random),
+                    random.nextFloat() * 0.2F);
+            values.add(new Pair<>(point, Key.key("test", "biome_" + index % 12)));
+        }
+        return new Climate.ParameterList<>(values, true);
+    }
+
+    /**
+     * Spans between shared bounds, like the vanilla lists, which keeps the lookup grid small.
+     */
+    private static Climate.Parameter span(Random random) {
+        var first = random.nextInt(BOUNDS.length);
+        var second = random.nextInt(BOUNDS.length);
+        return Climate.Parameter.span(BOUNDS[Math.min(first, second)], BOUNDS[Math.max(first, second)]);
+    }
+
+    @FunctionalInterface
+    private interface QuartFunction {
+        Object apply(int quartX, int quartY, int quartZ);
+    }
+}
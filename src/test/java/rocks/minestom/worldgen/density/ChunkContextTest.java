@@ -0,0 +1,61 @@
+package rocks.minestom.worldgen.density;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkContextTest {
+    private static final int BORDER_CELL = 30_000_000 / 4;
+
+    @Test
+    void cellKeysAreDistinctInsideTheWorldBorder() {
+        var keys = new HashSet<Long>();
+        int[] xs = {-BORDER_CELL, -(1 << 21), -(1 << 20), -1, 0, 1, 1 << 20, 1 << 21, BORDER_CELL};
+        int[] ys = {-512, -1, 0, 1, 511};
+        for (var x : xs) {
+            for (var y : ys) {
+                for (var z : xs) {
+                    var key = ChunkContext.pack(x, y, z);
+                    assertTrue(key >= 0L, () -> "negative key for " + x + ", " + y + ", " + z);
+                    assertTrue(keys.add(key), () -> "collision at " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void distantCellsDoNotShareCorners() {
+        var noise = NormalNoise.create(
+                new XoroshiroRandomSource(42L),
+                new NormalNoise.NoiseParameters(-4, new double[]{1.0, 0.5}));
+        var interpolated = new DensityFunctions.Interpolated(new DensityFunctions.Noise(noise, 1.0, 1.0));
+
+        var context = new ChunkContext(4, 8);
+        // Cells 2^21 apart on x and 2^20 apart on z collided under the previous packing
+        context.setBlock(2, 10, 2);
+        interpolated.compute(context);
+        context.setBlock(2 + (4 << 21), 10, 2 + (4 << 20));
+        var reused = interpolated.compute(context);
+
+        var fresh = new ChunkContext(4, 8);
+        fresh.setBlock(2 + (4 << 21), 10, 2 + (4 << 20));
+        assertEquals(fresh.interpolatedValue(interpolated), reused);
+    }
+
+    @Test
+    void distinctMarkersKeepSeparateState() {
+        var first = new DensityFunctions.CacheOnce(new DensityFunctions.Constant(1.0));
+        var second = new DensityFunctions.CacheOnce(new DensityFunctions.Constant(2.0));
+
+        var context = new ChunkContext(4, 8);
+        context.setBlock(0, 0, 0);
+        assertEquals(1.0, first.compute(context));
+        assertEquals(2.0, second.compute(context));
+        assertEquals(1.0, first.compute(context));
+    }
+}
@@ -0,0 +1,265 @@
+package rocks.minestom.worldgen.density;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rocks.minestom.worldgen.NoiseChunk;
+import rocks.minestom.worldgen.NoiseGeneratorSettingsLoader;
+import rocks.minestom.worldgen.datapack.DataPack;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.noise.ScratchArrays;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares compiled density functions with the interpreted trees they were compiled from,
+ * bit for bit, at random positions.
+ */
+class DensityFunctionCompilerTest {
+    private static final int POSITIONS = 2_000;
+    private static final int COLUMNS = 40;
+    private static final NormalNoise NOISE = NormalNoise.create(
+            new XoroshiroRandomSource(42L),
+            new NormalNoise.NoiseParameters(-4, new double[]{1.0, 0.5, 0.0, 0.25}));
+    private static final double[] CONSTANTS = {
+            0.0, -0.0, 1.0, -1.0, 0.5, -2.75, 64.0, 1.0E-9,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN
+    };
+
+    @Test
+    void randomTreesMatchInterpreter() {
+        var random = new Random(20260117L);
+        for (var tree = 0; tree < 400; tree++) {
+            var function = randomFunction(random, 7);
+            assertEquivalent(function, random);
+        }
+    }
+
+    @Test
+    void oversizedTreesMatchInterpreter() {
+        // Deep enough to pass the inlining limit and fall back to external references
+        var random = new Random(7L);
+        DensityFunction function = new DensityFunctions.Constant(0.0);
+        for (var index = 0; index < 1_500; index++) {
+            function = new DensityFunctions.Add(function, randomLeaf(random));
+        }
+        assertEquivalent(function, random);
+    }
+
+    @Test
+    void rangeChoiceTreatsNaNAsOutOfRange() {
+        var nan = new DensityFunctions.Mul(
+                new DensityFunctions.Constant(Double.POSITIVE_INFINITY),
+                new DensityFunctions.Constant(0.0));
+        var choice = new DensityFunctions.RangeChoice(
+                nan,
+                Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY,
+                new DensityFunctions.Constant(1.0),
+                new DensityFunctions.Constant(2.0));
+        var compiled = DensityFunctionCompiler.compile(choice);
+
+        assertInstanceOf(CompiledDensityFunction.class, compiled);
+        assertEquals(2.0, compiled.compute(new Position(0, 0, 0)));
+    }
+
+    @Test
+    void sharedMemoKeepsMarkersShared() {
+        var flatCache = new DensityFunctions.FlatCache(new DensityFunctions.Noise(NOISE, 1.0, 0.0));
+        var terrain = new DensityFunctions.Add(flatCache, new DensityFunctions.YClampedGradient(-64, 320, 1.0, -1.0));
+        var climate = new DensityFunctions.Mul(flatCache, new DensityFunctions.Constant(0.5));
+
+        var compiled = new IdentityHashMap<DensityFunction, DensityFunction>();
+        var compiledTerrain = assertInstanceOf(CompiledDensityFunction.class, DensityFunctionCompiler.compile(terrain, compiled));
+        var compiledClimate = assertInstanceOf(CompiledDensityFunction.class, DensityFunctionCompiler.compile(climate, compiled));
+        assertSame(compiledTerrain.externals().getFirst(), compiledClimate.externals().getFirst());
+        assertSame(compiledTerrain, DensityFunctionCompiler.compile(terrain, compiled));
+    }
+
+    @Test
+    void noiseChunksSeeThroughCompiledFunctions() {
+        // The gradient makes the bottom rows solid and the top rows empty, which only
+        // bounds analysis through the compiled root can tell
+        DensityFunction function = new DensityFunctions.Add(
+                new DensityFunctions.YClampedGradient(-64, 320, 4.0, -4.0),
+                new DensityFunctions.Interpolated(new DensityFunctions.Noise(NOISE, 1.0, 1.0)));
+        var compiled = DensityFunctionCompiler.compile(function);
+        assertInstanceOf(CompiledDensityFunction.class, compiled);
+
+        var interpreted = new NoiseChunk(0, 0, 4, 8, -64, 384, function);
+        var rebound = new NoiseChunk(0, 0, 4, 8, -64, 384, compiled);
+        interpreted.cullCellRows();
+        rebound.cullCellRows();
+        var classified = 0;
+        for (var cellY = 0; cellY < interpreted.cellCountY(); cellY++) {
+            assertEquals(interpreted.classifyCellRow(cellY), rebound.classifyCellRow(cellY), "row " + cellY);
+            classified += Math.abs(rebound.classifyCellRow(cellY));
+        }
+        assertNotEquals(0, classified);
+
+        // Corners are filled through the compiled function's batched fill
+        interpreted.initializeForFirstCellX();
+        rebound.initializeForFirstCellX();
+        interpreted.advanceCellX(0);
+        rebound.advanceCellX(0);
+        for (var cellY = 0; cellY < interpreted.cellCountY(); cellY++) {
+            if (interpreted.classifyCellRow(cellY) != 0) {
+                continue;
+            }
+            for (var cellZ = 0; cellZ < interpreted.cellCountZ(); cellZ++) {
+                interpreted.selectCellYZ(cellY, cellZ);
+                rebound.selectCellYZ(cellY, cellZ);
+                assertEquals(interpreted.classifySelectedCell(), rebound.classifySelectedCell());
+                for (var chunk : new NoiseChunk[]{interpreted, rebound}) {
+                    var blockY = (cellY + chunk.minCellY()) * chunk.cellHeight();
+                    chunk.updateForY(blockY, 0.5);
+                    chunk.updateForX(0, 0.5);
+                    chunk.updateForZ(cellZ * chunk.cellWidth(), 0.5);
+                }
+                assertEquals(interpreted.getInterpolatedDensity(), rebound.getInterpolatedDensity());
+            }
+        }
+        interpreted.stopInterpolation();
+        rebound.stopInterpolation();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"minecraft:overworld", "minecraft:nether", "minecraft:end"})
+    void vanillaRoutersMatchInterpreter(String settings) {
+        var root = System.getProperty("rocks.minestom.worldgen.dataPack", "");
+        assumeTrue(!root.isBlank() && Files.isDirectory(Path.of(root)), "no data pack given with -PdataPack");
+
+        var runtime = new NoiseGeneratorSettingsLoader(new DataPack(Path.of(root))).load(Key.key(settings), 1234L);
+        var random = new Random(settings.hashCode());
+        assertEquivalent(runtime.finalDensity(), random);
+        assertEquivalent(runtime.climateSampler().erosion(), random);
+    }
+
+    private static void assertEquivalent(DensityFunction function, Random random) {
+        var compiled = DensityFunctionCompiler.compile(function);
+        for (var index = 0; index < POSITIONS; index++) {
+            var position = new Position(
+                    random.nextInt(60_000_000) - 30_000_000,
+                    random.nextInt(448) - 64,
+                    random.nextInt(60_000_000) - 30_000_000);
+            assertEquals(function.compute(position), compiled.compute(position), () -> function + " at " + position);
+        }
+
+        // Batched fills must match the interpreter one index at a time
+        for (var index = 0; index < COLUMNS; index++) {
+            var column = new Column(
+                    random.nextInt(60_000_000) - 30_000_000,
+                    random.nextInt(64) - 64,
+                    random.nextInt(60_000_000) - 30_000_000,
+                    1 + random.nextInt(8));
+            var values = new double[random.nextInt(50)];
+            compiled.fillArray(values, column);
+            for (var y = 0; y < values.length; y++) {
+                var position = column.forIndex(y);
+                assertEquals(function.compute(position), values[y], () -> function + " filled at " + position);
+            }
+        }
+    }
+
+    private static DensityFunction randomFunction(Random random, int depth) {
+        if (depth == 0 || random.nextInt(5) == 0) {
+            return randomLeaf(random);
+        }
+
+        var next = depth - 1;
+        return switch (random.nextInt(11)) {
+            case 0 -> new DensityFunctions.Add(randomFunction(random, next), randomFunction(random, next));
+            case 1 -> new DensityFunctions.Mul(randomFunction(random, next), randomFunction(random, next));
+            case 2 -> new DensityFunctions.Min(randomFunction(random, next), randomFunction(random, next));
+            case 3 -> new DensityFunctions.Max(randomFunction(random, next), randomFunction(random, next));
+            case 4 -> new DensityFunctions.Clamp(randomFunction(random, next), -random.nextDouble(), random.nextDouble());
+            case 5 -> {
+                var types = DensityFunctions.Mapped.Type.values();
+                yield new DensityFunctions.Mapped(types[random.nextInt(types.length)], randomFunction(random, next));
+            }
+            case 6 -> {
+                var minInclusive = random.nextDouble() * 2.0 - 1.0;
+                yield new DensityFunctions.RangeChoice(
+                        randomFunction(random, next),
+                        minInclusive,
+                        minInclusive + random.nextDouble(),
+                        randomFunction(random, next),
+                        randomFunction(random, next));
+            }
+            case 7 -> new DensityFunctions.ShiftedNoise(
+                    randomFunction(random, next),
+                    randomFunction(random, next),
+                    randomFunction(random, next),
+                    random.nextDouble(),
+                    random.nextDouble(),
+                    NOISE);
+            case 8 -> new DensityFunctions.BlendDensity(randomFunction(random, next));
+            case 9 -> new DensityFunctions.Interpolated(randomFunction(random, next));
+            default -> new DensityFunctions.CacheOnce(randomFunction(random, next));
+        };
+    }
+
+    private static DensityFunction randomLeaf(Random random) {
+        return switch (random.nextInt(7)) {
+            case 0, 1 -> new DensityFunctions.Constant(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+            case 2 -> new DensityFunctions.YClampedGradient(
+                    random.nextInt(200) - 64,
+                    random.nextInt(200) + 64,
+                    random.nextDouble() * 2.0 - 1.0,
+                    random.nextDouble() * 2.0 - 1.0);
+            case 3 -> new DensityFunctions.Noise(NOISE, random.nextDouble(), random.nextDouble());
+            case 4 -> new DensityFunctions.ShiftA(NOISE);
+            case 5 -> new DensityFunctions.ShiftB(NOISE);
+            default -> random.nextBoolean() ? new DensityFunctions.BlendAlpha() : new DensityFunctions.BlendOffset();
+        };
+    }
+
+    private record Position(int blockX, int blockY, int blockZ) implements DensityFunction.Context {
+    }
+
+    private static final class Column implements DensityFunction.ContextProvider {
+        private final int blockX;
+        private final int blockY;
+        private final int blockZ;
+        private final int stepY;
+        private final ScratchArrays scratch = new ScratchArrays();
+
+        private Column(int blockX, int blockY, int blockZ, int stepY) {
+            this.blockX = blockX;
+            this.blockY = blockY;
+            this.blockZ = blockZ;
+            this.stepY = stepY;
+        }
+
+        @Override
+        public Position forIndex(int index) {
+            return new Position(this.blockX, this.blockY + index * this.stepY, this.blockZ);
+        }
+
+        @Override
+        public boolean isColumn() {
+            return true;
+        }
+
+        @Override
+        public int columnStepY() {
+            return this.stepY;
+        }
+
+        @Override
+        public ScratchArrays scratch() {
+            return this.scratch;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package rocks.minestom.worldgen.density;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Pins each rewrite rule of {@link DensityFunctionSimplifier}, and compares simplified
+ * trees with the originals bit for bit where no node produces NaN.
+ */
+class DensityFunctionSimplifierTest {
+    private static final NormalNoise NOISE = NormalNoise.create(
+            new XoroshiroRandomSource(10L),
+            new NormalNoise.NoiseParameters(-4, new double[]{1.0, 0.5}));
+    // Bounded to [0, 1] and [-1, 0], which the bounds rules below depend on
+    private static final DensityFunction UNIT = new DensityFunctions.YClampedGradient(-64, 320, 0.0, 1.0);
+    private static final DensityFunction NEGATIVE_UNIT = new DensityFunctions.YClampedGradient(-64, 320, -1.0, 0.0);
+    private static final double[] CONSTANTS = {0.0, -0.0, 1.0, -1.0, 0.5, -2.75, 4.0};
+
+    @Test
+    void arithmeticOnConstantsIsFolded() {
+        assertEquals(constant(3.5), simplify(new DensityFunctions.Add(constant(1.0), constant(2.5))));
+        assertEquals(constant(-5.0), simplify(new DensityFunctions.Mul(constant(2.0), constant(-2.5))));
+        assertEquals(constant(-1.0), simplify(new DensityFunctions.Min(constant(-1.0), constant(2.0))));
+        assertEquals(constant(2.0), simplify(new DensityFunctions.Max(constant(-1.0), constant(2.0))));
+        assertEquals(constant(0.5), simplify(new DensityFunctions.Clamp(constant(3.0), -0.5, 0.5)));
+        assertEquals(constant(0.25), simplify(new DensityFunctions.Mapped(DensityFunctions.Mapped.Type.SQUARE, constant(-0.5))));
+    }
+
+    @Test
+    void addingZeroIsKept() {
+        // x + 0.0 turns -0.0 into 0.0
+        assertInstanceOf(DensityFunctions.Add.class, simplify(new DensityFunctions.Add(UNIT, constant(0.0))));
+        assertInstanceOf(DensityFunctions.Add.class, simplify(new DensityFunctions.Add(constant(-0.0), UNIT)));
+    }
+
+    @Test
+    void multiplyingByOneIsDropped() {
+        assertSame(UNIT, simplify(new DensityFunctions.Mul(constant(1.0), UNIT)));
+        assertSame(UNIT, simplify(new DensityFunctions.Mul(UNIT, constant(1.0))));
+        assertInstanceOf(DensityFunctions.Mul.class, simplify(new DensityFunctions.Mul(UNIT, constant(-1.0))));
+    }
+
+    @Test
+    void minAndMaxOfSeparateBoundsAreDecided() {
+        var below = new DensityFunctions.YClampedGradient(-64, 320, -2.0, -1.5);
+        assertSame(below, simplify(new DensityFunctions.Min(below, UNIT)));
+        assertSame(below, simplify(new DensityFunctions.Min(UNIT, below)));
+        assertSame(UNIT, simplify(new DensityFunctions.Max(below, UNIT)));
+        assertSame(UNIT, simplify(new DensityFunctions.Max(UNIT, below)));
+    }
+
+    @Test
+    void minAndMaxOfTouchingBoundsAreKept() {
+        // Both sides can be zero, and Math.min and Math.max pick between signed zeros
+        assertInstanceOf(DensityFunctions.Min.class, simplify(new DensityFunctions.Min(NEGATIVE_UNIT, UNIT)));
+        assertInstanceOf(DensityFunctions.Max.class, simplify(new DensityFunctions.Max(NEGATIVE_UNIT, UNIT)));
+    }
+
+    @Test
+    void clampWithinBoundsIsDropped() {
+        assertSame(UNIT, simplify(new DensityFunctions.Clamp(UNIT, 0.0, 1.0)));
+        assertInstanceOf(DensityFunctions.Clamp.class, simplify(new DensityFunctions.Clamp(UNIT, 0.0, 0.5)));
+    }
+
+    @Test
+    void rangeChoiceIsDecidedByConstantsBoundsAndEqualBranches() {
+        var inRange = constant(1.0);
+        var outOfRange = constant(2.0);
+        assertSame(inRange, simplify(new DensityFunctions.RangeChoice(UNIT, -1.0, 1.0, inRange, inRange)));
+        assertEquals(inRange, simplify(new DensityFunctions.RangeChoice(constant(0.5), 0.0, 1.0, inRange, outOfRange)));
+        assertEquals(outOfRange, simplify(new DensityFunctions.RangeChoice(constant(1.0), 0.0, 1.0, inRange, outOfRange)));
+        assertEquals(inRange, simplify(new DensityFunctions.RangeChoice(UNIT, 0.0, 1.5, inRange, outOfRange)));
+        assertEquals(outOfRange, simplify(new DensityFunctions.RangeChoice(UNIT, 1.5, 2.0, inRange, outOfRange)));
+        // The upper bound is exclusive, so an input reaching it stays undecided
+        assertInstanceOf(DensityFunctions.RangeChoice.class, simplify(new DensityFunctions.RangeChoice(UNIT, 0.0, 1.0, inRange, outOfRange)));
+    }
+
+    @Test
+    void blendingIsRemoved() {
+        assertEquals(constant(1.0), simplify(new DensityFunctions.BlendAlpha()));
+        assertEquals(constant(0.0), simplify(new DensityFunctions.BlendOffset()));
+        assertSame(UNIT, simplify(new DensityFunctions.BlendDensity(UNIT)));
+    }
+
+    @Test
+    void markersOfNonZeroFiniteConstantsAreDropped() {
+        assertEquals(constant(0.5), simplify(new DensityFunctions.Interpolated(constant(0.5))));
+        assertEquals(constant(0.5), simplify(new DensityFunctions.CacheOnce(constant(0.5))));
+        assertEquals(constant(0.5), simplify(new DensityFunctions.Cache2D(constant(0.5))));
+        assertEquals(constant(0.5), simplify(new DensityFunctions.FlatCache(constant(0.5))));
+        assertEquals(constant(0.5), simplify(new DensityFunctions.CacheAllInCell(constant(0.5))));
+
+        // Interpolating between -0.0 corners gives 0.0, and infinite corners give NaN
+        for (var value : new double[]{0.0, -0.0, Double.POSITIVE_INFINITY, Double.NaN}) {
+            assertInstanceOf(DensityFunctions.Interpolated.class, simplify(new DensityFunctions.Interpolated(constant(value))));
+        }
+        assertInstanceOf(DensityFunctions.CacheOnce.class, simplify(new DensityFunctions.CacheOnce(UNIT)));
+    }
+
+    @Test
+    void flatSplinesBecomeConstants() {
+        var flat = new DensityFunctions.SplineMultipoint(UNIT, new float[]{-1.0F, 0.0F, 1.0F},
+                List.of(splineConstant(0.5F), splineConstant(0.5F), splineConstant(0.5F)), new float[3]);
+        assertEquals(constant(0.5F), simplify(new DensityFunctions.Spline(flat)));
+
+        var sloped = new DensityFunctions.SplineMultipoint(UNIT, new float[]{-1.0F, 0.0F, 1.0F},
+                List.of(splineConstant(0.5F), splineConstant(0.5F), splineConstant(0.5F)), new float[]{0.0F, 1.0F, 0.0F});
+        assertInstanceOf(DensityFunctions.Spline.class, simplify(new DensityFunctions.Spline(sloped)));
+
+        // Hermite segments through zeros may produce -0.0
+        var zeros = new DensityFunctions.SplineMultipoint(UNIT, new float[]{-1.0F, 1.0F},
+                List.of(splineConstant(0.0F), splineConstant(0.0F)), new float[2]);
+        assertInstanceOf(DensityFunctions.Spline.class, simplify(new DensityFunctions.Spline(zeros)));
+    }
+
+    @Test
+    void sharedSubtreesStayShared() {
+        var shared = new DensityFunctions.Add(UNIT, new DensityFunctions.Noise(NOISE, 1.0, 1.0));
+        var simplified = simplify(new DensityFunctions.Mul(shared, new DensityFunctions.Min(shared, NEGATIVE_UNIT)));
+        var mul = assertInstanceOf(DensityFunctions.Mul.class, simplified);
+        var min = assertInstanceOf(DensityFunctions.Min.class, mul.argument2());
+        assertSame(mul.argument1(), min.argument1());
+    }
+
+    @Test
+    void randomTreesMatchOriginals() {
+        var random = new Random(11L);
+        for (var tree = 0; tree < 400; tree++) {
+            var function = randomFunction(random, 6);
+            var simplified = simplify(function);
+            // Chunk contexts interpolate the markers, as generation does
+            var original = new ChunkContext(4, 8);
+            var rewritten = new ChunkContext(4, 8);
+            for (var index = 0; index < 200; index++) {
+                var x = random.nextInt(4_096) - 2_048;
+                var y = random.nextInt(384) - 64;
+                var z = random.nextInt(4_096) - 2_048;
+                original.setBlock(x, y, z);
+                rewritten.setBlock(x, y, z);
+                assertEquals(function.compute(original), simplified.compute(rewritten), () -> function + " at " + x + ", " + y + ", " + z);
+            }
+        }
+    }
+
+    /**
+     * Builds a tree from finite constants, gradients and noise, which never produce NaN.
+     */
+    private static DensityFunction randomFunction(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return switch (random.nextInt(4)) {
+                case 0, 1 -> constant(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+                case 2 -> new DensityFunctions.YClampedGradient(-64, 320, random.nextInt(3) - 1.0, random.nextInt(3) - 1.0);
+                default -> new DensityFunctions.Noise(NOISE, 1.0, 1.0);
+            };
+        }
+
+        var next = depth - 1;
+        return switch (random.nextInt(12)) {
+            case 0 -> new DensityFunctions.Add(randomFunction(random, next), randomFunction(random, next));
+            case 1 -> new DensityFunctions.Mul(randomFunction(random, next), randomFunction(random, next));
+            case 2 -> new DensityFunctions.Min(randomFunction(random, next), randomFunction(random, next));
+            case 3 -> new DensityFunctions.Max(randomFunction(random, next), randomFunction(random, next));
+            case 4 -> new DensityFunctions.Clamp(randomFunction(random, next), -random.nextInt(3), random.nextInt(3));
+            case 5 -> {
+                var types = DensityFunctions.Mapped.Type.values();
+                yield new DensityFunctions.Mapped(types[random.nextInt(types.length)], randomFunction(random, next));
+            }
+            case 6 -> {
+                var minInclusive = random.nextInt(5) - 2.0;
+                yield new DensityFunctions.RangeChoice(
+                        randomFunction(random, next),
+                        minInclusive,
+                        minInclusive + random.nextInt(3),
+                        randomFunction(random, next),
+                        randomFunction(random, next));
+            }
+            case 7 -> new DensityFunctions.BlendDensity(randomFunction(random, next));
+            case 8 -> new DensityFunctions.Interpolated(randomFunction(random, next));
+            case 9 -> new DensityFunctions.CacheOnce(randomFunction(random, next));
+            case 10 -> new DensityFunctions.Cache2D(randomFunction(random, next));
+            default -> new DensityFunctions.FlatCache(randomFunction(random, next));
+        };
+    }
+
+    private static DensityFunction simplify(DensityFunction function) {
+        return DensityFunctionSimplifier.simplify(function);
+    }
+
+    private static DensityFunctions.Constant constant(double value) {
+        return new DensityFunctions.Constant(value);
+    }
+
+    private static DensityFunctions.SplineConstant splineConstant(float value) {
+        return new DensityFunctions.SplineConstant(value);
+    }
+}
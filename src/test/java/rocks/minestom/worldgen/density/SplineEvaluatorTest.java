@@ -0,0 +1,164 @@
+package rocks.minestom.worldgen.density;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.noise.ScratchArrays;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares flattened splines with {@link DensityFunctions.SplineMultipoint#compute}, bit
+ * for bit, on nested and shared splines whose coordinates include NaN, infinities and
+ * values exactly on their locations.
+ */
+class SplineEvaluatorTest {
+    private static final int POSITIONS = 500;
+    private static final float[] SPECIAL_COORDINATES = {
+            Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, 0.0F, -0.0F, -1.0F, -0.5F, -0.25F, 0.25F, 0.5F, 1.0F
+    };
+
+    @Test
+    void flattenedSplinesMatchNodes() {
+        var random = new Random(13L);
+        for (var tree = 0; tree < 300; tree++) {
+            var spline = randomSpline(random);
+            var evaluator = SplineEvaluator.of(spline);
+            for (var index = 0; index < POSITIONS; index++) {
+                var position = new Position(random.nextInt(64), random.nextInt(64), random.nextInt(64));
+                assertEquals(spline.compute(position), evaluator.compute(position), () -> spline + " at " + position);
+            }
+        }
+    }
+
+    @Test
+    void filledSplinesMatchNodes() {
+        var random = new Random(14L);
+        for (var tree = 0; tree < 300; tree++) {
+            var spline = randomSpline(random);
+            var function = new DensityFunctions.Spline(spline);
+            var provider = new Column(random.nextInt(64), random.nextInt(64), random.nextInt(64));
+            var values = new double[random.nextInt(40)];
+            function.fillArray(values, provider);
+            for (var index = 0; index < values.length; index++) {
+                var position = provider.forIndex(index);
+                assertEquals(spline.compute(position), values[index], () -> spline + " at " + position);
+            }
+        }
+    }
+
+    @Test
+    void reboundCoordinatesMatchNodes() {
+        var random = new Random(15L);
+        for (var tree = 0; tree < 100; tree++) {
+            var spline = randomSpline(random);
+            var evaluator = SplineEvaluator.of(spline);
+            // Multiplying by one changes no value, NaN and signed zeros included
+            var coordinates = evaluator.coordinates();
+            for (var index = 0; index < coordinates.length; index++) {
+                coordinates[index] = new DensityFunctions.Mul(coordinates[index], new DensityFunctions.Constant(1.0));
+            }
+            var rebound = evaluator.withCoordinates(coordinates);
+            assertEquals(evaluator, rebound);
+            for (var index = 0; index < POSITIONS; index++) {
+                var position = new Position(random.nextInt(64), random.nextInt(64), random.nextInt(64));
+                assertEquals(spline.compute(position), rebound.compute(position), () -> spline + " at " + position);
+            }
+        }
+    }
+
+    /**
+     * Builds a spline over a few shared coordinates, whose values nest other splines,
+     * including ones already used elsewhere in the tree.
+     */
+    private static DensityFunctions.SplineNode randomSpline(Random random) {
+        var coordinates = new ArrayList<DensityFunction>();
+        for (var index = 1 + random.nextInt(3); index > 0; index--) {
+            coordinates.add(new Coordinate(random.nextLong()));
+        }
+        if (random.nextInt(10) == 0) {
+            return new DensityFunctions.SplineConstant(random.nextFloat());
+        }
+        return randomMultipoint(random, coordinates, new ArrayList<>(), 4);
+    }
+
+    private static DensityFunctions.SplineMultipoint randomMultipoint(
+            Random random, List<DensityFunction> coordinates, List<DensityFunctions.SplineMultipoint> built, int depth) {
+        var count = 1 + random.nextInt(12);
+        var locations = new float[count];
+        var derivatives = new float[count];
+        var values = new ArrayList<DensityFunctions.SplineNode>(count);
+        // Locations on quarters, so the special coordinates often land exactly on one
+        var location = -1.5F + 0.25F * random.nextInt(3);
+        for (var index = 0; index < count; index++) {
+            locations[index] = location;
+            location += 0.25F * (1 + random.nextInt(3));
+            derivatives[index] = random.nextInt(4) == 0 ? 0.0F : random.nextFloat() * 4.0F - 2.0F;
+            if (depth > 0 && random.nextInt(3) == 0) {
+                values.add(!built.isEmpty() && random.nextBoolean()
+                        ? built.get(random.nextInt(built.size()))
+                        : randomMultipoint(random, coordinates, built, depth - 1));
+            } else {
+                values.add(new DensityFunctions.SplineConstant(random.nextFloat() * 2.0F - 1.0F));
+            }
+        }
+
+        var coordinate = coordinates.get(random.nextInt(coordinates.size()));
+        var node = new DensityFunctions.SplineMultipoint(coordinate, locations, values, derivatives);
+        built.add(node);
+        return node;
+    }
+
+    /**
+     * A coordinate that mixes ordinary values with NaN, infinities, signed zeros and
+     * values that land exactly on common locations, depending on the position.
+     */
+    private record Coordinate(long salt) implements DensityFunction {
+        @Override
+        public double compute(Context context) {
+            var random = new Random(this.salt ^ ((long) context.blockX() * 3129871L) ^ ((long) context.blockY() * 116129781L) ^ context.blockZ());
+            return switch (random.nextInt(4)) {
+                case 0 -> SPECIAL_COORDINATES[random.nextInt(SPECIAL_COORDINATES.length)];
+                default -> random.nextDouble() * 4.0 - 2.0;
+            };
+        }
+    }
+
+    private record Position(int blockX, int blockY, int blockZ) implements DensityFunction.Context {
+    }
+
+    private static final class Column implements DensityFunction.ContextProvider {
+        private final int blockX;
+        private final int blockY;
+        private final int blockZ;
+        private final ScratchArrays scratch = new ScratchArrays();
+
+        private Column(int blockX, int blockY, int blockZ) {
+            this.blockX = blockX;
+            this.blockY = blockY;
+            this.blockZ = blockZ;
+        }
+
+        @Override
+        public DensityFunction.Context forIndex(int index) {
+            return new Position(this.blockX, this.blockY + index, this.blockZ);
+        }
+
+        @Override
+        public boolean isColumn() {
+            return true;
+        }
+
+        @Override
+        public int columnStepY() {
+            return 1;
+        }
+
+        @Override
+        public ScratchArrays scratch() {
+            return this.scratch;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package rocks.minestom.worldgen.noise;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImprovedNoiseTest {
+    @Test
+    void vectorColumnsMatchScalarColumns() {
+        var random = new Random(15L);
+        var backend = new VectorizedNoise();
+        for (var seed = 0L; seed < 16L; seed++) {
+            var noise = new ImprovedNoise(new XoroshiroRandomSource(seed));
+            for (var column = 0; column < 200; column++) {
+                // Lengths around the lane counts cover both whole vectors and the scalar tail
+                var count = random.nextInt(70);
+                var x = (random.nextDouble() - 0.5) * 1.0E6;
+                var z = (random.nextDouble() - 0.5) * 1.0E6;
+                var ys = new double[count];
+                var start = (random.nextDouble() - 0.5) * 1.0E4;
+                var step = random.nextDouble() * 2.0;
+                for (var index = 0; index < count; index++) {
+                    ys[index] = start + index * step;
+                }
+
+                var scalar = new double[count];
+                var vector = new double[count];
+                noise.fillColumn(x, z, ys, count, scalar, null);
+                noise.fillColumn(x, z, ys, count, vector, backend);
+                for (var index = 0; index < count; index++) {
+                    assertEquals(noise.noise(x, ys[index], z, 0.0, 0.0), scalar[index]);
+                    assertEquals(scalar[index], vector[index], "seed " + seed + " at " + x + ", " + ys[index] + ", " + z);
+                }
+            }
+        }
+    }
+}
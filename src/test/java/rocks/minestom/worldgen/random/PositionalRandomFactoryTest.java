@@ -0,0 +1,66 @@
+package rocks.minestom.worldgen.random;
+
+import org.junit.jupiter.api.Test;
+import rocks.minestom.worldgen.VMath;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the direct {@link PositionalRandomFactory#nextFloatAt} of each factory
+ * returns the first float of the source {@link PositionalRandomFactory#at} creates.
+ */
+class PositionalRandomFactoryTest {
+    private static final int[] EDGE_COORDINATES = {0, 1, -1, 64, -64, 30_000_000, -30_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    @Test
+    void xoroshiroFloatsMatchSources() {
+        var random = new Random(23L);
+        for (var factory = 0; factory < 64; factory++) {
+            assertMatchesSources(new XoroshiroRandomSource(random.nextLong()).forkPositional(), random);
+            assertMatchesSources(new XoroshiroRandomSource.XoroshiroPositionalRandomFactory(random.nextLong(), random.nextLong()), random);
+        }
+    }
+
+    @Test
+    void xoroshiroFloatsMatchSourcesForAllZeroSeeds() {
+        // The source replaces an all-zero state, which the direct path has to mirror
+        var random = new Random(24L);
+        assertMatchesSources(new XoroshiroRandomSource.XoroshiroPositionalRandomFactory(0L, 0L), random);
+        for (var position = 0; position < 1_000; position++) {
+            var x = coordinate(random);
+            var y = coordinate(random);
+            var z = coordinate(random);
+            var factory = new XoroshiroRandomSource.XoroshiroPositionalRandomFactory(VMath.getSeed(x, y, z), 0L);
+            assertEquals(factory.at(x, y, z).nextFloat(), factory.nextFloatAt(x, y, z), () -> "at " + x + ", " + y + ", " + z);
+        }
+    }
+
+    @Test
+    void legacyFloatsMatchSources() {
+        var random = new Random(25L);
+        for (var factory = 0; factory < 64; factory++) {
+            assertMatchesSources(new LegacyRandomSource(random.nextLong()).forkPositional(), random);
+            assertMatchesSources(new LegacyRandomSource.LegacyPositionalRandomFactory(random.nextLong()), random);
+        }
+        assertMatchesSources(new LegacyRandomSource.LegacyPositionalRandomFactory(0L), random);
+    }
+
+    private static void assertMatchesSources(PositionalRandomFactory factory, Random random) {
+        for (var position = 0; position < 1_000; position++) {
+            var x = coordinate(random);
+            var y = coordinate(random);
+            var z = coordinate(random);
+            assertEquals(factory.at(x, y, z).nextFloat(), factory.nextFloatAt(x, y, z), () -> "at " + x + ", " + y + ", " + z);
+        }
+    }
+
+    private static int coordinate(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> EDGE_COORDINATES[random.nextInt(EDGE_COORDINATES.length)];
+            case 1 -> random.nextInt();
+            default -> random.nextInt(8_192) - 4_096;
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package rocks.minestom.worldgen.surface;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.kyori.adventure.key.Key;
+import net.minestom.server.codec.Transcoder;
+import net.minestom.server.instance.block.Block;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rocks.minestom.worldgen.RandomState;
+import rocks.minestom.worldgen.biome.BiomeZoomer;
+import rocks.minestom.worldgen.datapack.DataPack;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares compiled surface rule programs with the rule trees they replace, on random
+ * trees run over random columns. Conditions are drawn from a small pool per tree, so
+ * programs share condition slots, per-column results and noises between rules, and
+ * biome conditions name more biomes than one bitset word holds.
+ */
+class SurfaceRulesProgramTest {
+    private static final int MIN_Y = -64;
+    private static final int MAX_Y = 319;
+    private static final int BIOMES = 90;
+    private static final int MENTIONED_BIOMES = 80;
+    private static final String[] BLOCKS = {
+            "minecraft:stone", "minecraft:dirt", "minecraft:grass_block", "minecraft:sand", "minecraft:gravel", "minecraft:snow_block"
+    };
+    private static final String[] NOISES = {"minecraft:surface", "test:patch_a", "test:patch_b"};
+
+    @TempDir
+    Path dataPackRoot;
+
+    @Test
+    void programsMatchRuleTrees() throws IOException {
+        var randomState = this.randomState();
+        var system = new SurfaceSystem(randomState, Block.STONE, 63, randomState.getOrCreateRandomFactory(Key.key("minecraft:surface")));
+        BiomeResolver biomeResolver = biome -> (Math.floorMod(biome.hashCode(), 100) - 30) / 100.0F;
+        var biomeZoomer = new BiomeZoomer((quartX, quartY, quartZ) -> biome(Math.floorMod(quartX * 31 + quartY * 7 + quartZ * 17, BIOMES)), 9L);
+
+        var random = new Random(21L);
+        for (var tree = 0; tree < 150; tree++) {
+            var conditions = new ArrayList<JsonObject>();
+            conditions.add(biomeCondition(random, 70));
+            for (var index = 2 + random.nextInt(10); index > 0; index--) {
+                conditions.add(randomCondition(random));
+            }
+            var rule = SurfaceRules.CODEC.decode(Transcoder.JSON, randomRule(random, conditions, 5)).orElseThrow();
+            var program = SurfaceRules.compile(rule, randomState);
+
+            // Each context sees the same updates; only the second one runs the program
+            var interpreted = new SurfaceRules.Context(system, randomState, biomeResolver, biomeZoomer, MIN_Y, MAX_Y);
+            var compiled = new SurfaceRules.Context(system, randomState, biomeResolver, biomeZoomer, MIN_Y, MAX_Y, program);
+            for (var column = 0; column < 40; column++) {
+                var blockX = random.nextInt(20_000) - 10_000;
+                var blockZ = random.nextInt(20_000) - 10_000;
+                var surfaceLevel = MIN_Y + random.nextInt(MAX_Y - MIN_Y + 1);
+                var steep = random.nextBoolean();
+                var waterHeight = random.nextInt(3) == 0 ? Integer.MIN_VALUE : surfaceLevel + random.nextInt(21) - 10;
+                interpreted.updateXZ(blockX, blockZ, surfaceLevel, steep, waterHeight);
+                compiled.updateXZ(blockX, blockZ, surfaceLevel, steep, waterHeight);
+
+                for (var blockY = Math.min(MAX_Y, surfaceLevel + 8); blockY >= Math.max(MIN_Y, surfaceLevel - 40); blockY--) {
+                    var depthAbove = 1 + random.nextInt(16);
+                    var depthBelow = 1 + random.nextInt(16);
+                    interpreted.updateY(blockY, depthAbove, depthBelow);
+                    compiled.updateY(blockY, depthAbove, depthBelow);
+                    var y = blockY;
+                    assertEquals(rule.tryApply(interpreted), program.tryApply(compiled),
+                            () -> "at " + blockX + ", " + y + ", " + blockZ + " for " + rule);
+                }
+            }
+        }
+    }
+
+    private RandomState randomState() throws IOException {
+        for (var noise : new String[]{"minecraft:surface", "minecraft:surface_secondary", "minecraft:clay_bands_offset", "test:patch_a", "test:patch_b"}) {
+            var key = Key.key(noise);
+            var path = this.dataPackRoot.resolve("data").resolve(key.namespace()).resolve("worldgen/noise").resolve(key.value() + ".json");
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, "{\"firstOctave\": -6, \"amplitudes\": [1.0, 1.0, 1.0]}");
+        }
+        return new RandomState(new DataPack(this.dataPackRoot), 3L, false);
+    }
+
+    private static JsonElement randomRule(Random random, List<JsonObject> conditions, int depth) {
+        var rule = new JsonObject();
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(6)) {
+            case 0 -> {
+                rule.addProperty("type", "minecraft:block");
+                var state = new JsonObject();
+                state.addProperty("Name", BLOCKS[random.nextInt(BLOCKS.length)]);
+                rule.add("result_state", state);
+            }
+            case 1 -> rule.addProperty("type", "minecraft:bandlands");
+            case 2, 3 -> {
+                rule.addProperty("type", "minecraft:sequence");
+                var sequence = new JsonArray();
+                for (var index = 1 + random.nextInt(4); index > 0; index--) {
+                    sequence.add(randomRule(random, conditions, depth - 1));
+                }
+                rule.add("sequence", sequence);
+            }
+            default -> {
+                rule.addProperty("type", "minecraft:condition");
+                var condition = conditions.get(random.nextInt(conditions.size()));
+                for (var negations = random.nextInt(4) == 0 ? 1 + random.nextInt(2) : 0; negations > 0; negations--) {
+                    condition = not(condition);
+                }
+                rule.add("if_true", condition);
+                rule.add("then_run", randomRule(random, conditions, depth - 1));
+            }
+        }
+        return rule;
+    }
+
+    private static JsonObject randomCondition(Random random) {
+        var condition = new JsonObject();
+        switch (random.nextInt(11)) {
+            case 0 -> {
+                return biomeCondition(random, 1 + random.nextInt(12));
+            }
+            case 1 -> {
+                condition.addProperty("type", "minecraft:noise_threshold");
+                condition.addProperty("noise", NOISES[random.nextInt(NOISES.length)]);
+                var minThreshold = random.nextDouble() * 1.5 - 1.0;
+                condition.addProperty("min_threshold", minThreshold);
+                condition.addProperty("max_threshold", minThreshold + random.nextDouble());
+            }
+            case 2 -> {
+                condition.addProperty("type", "minecraft:vertical_gradient");
+                condition.addProperty("random_name", "test:gradient_" + random.nextInt(3));
+                var trueY = random.nextInt(200) - 64;
+                condition.add("true_at_and_below", anchor(random, trueY));
+                condition.add("false_at_and_above", anchor(random, trueY + 1 + random.nextInt(16)));
+            }
+            case 3 -> {
+                condition.addProperty("type", "minecraft:y_above");
+                condition.add("anchor", anchor(random, random.nextInt(200) - 64));
+                condition.addProperty("surface_depth_multiplier", random.nextInt(3) - 1);
+                condition.addProperty("add_stone_depth", random.nextBoolean());
+            }
+            case 4 -> {
+                condition.addProperty("type", "minecraft:water");
+                condition.addProperty("offset", random.nextInt(5) - 2);
+                condition.addProperty("surface_depth_multiplier", random.nextInt(3) - 1);
+                condition.addProperty("add_stone_depth", random.nextBoolean());
+            }
+            case 5, 6 -> {
+                condition.addProperty("type", "minecraft:stone_depth");
+                condition.addProperty("offset", random.nextInt(4));
+                condition.addProperty("add_surface_depth", random.nextBoolean());
+                condition.addProperty("secondary_depth_range", random.nextBoolean() ? 0 : random.nextInt(7));
+                condition.addProperty("surface_type", random.nextBoolean() ? "floor" : "ceiling");
+            }
+            case 7 -> condition.addProperty("type", "minecraft:hole");
+            case 8 -> condition.addProperty("type", "minecraft:steep");
+            case 9 -> condition.addProperty("type", "minecraft:above_preliminary_surface");
+            default -> condition.addProperty("type", "minecraft:temperature");
+        }
+        return condition;
+    }
+
+    private static JsonObject biomeCondition(Random random, int count) {
+        var condition = new JsonObject();
+        condition.addProperty("type", "minecraft:biome");
+        var indices = new ArrayList<Integer>();
+        for (var index = 0; index < MENTIONED_BIOMES; index++) {
+            indices.add(index);
+        }
+        Collections.shuffle(indices, random);
+        var biomes = new JsonArray();
+        for (var index : indices.subList(0, count)) {
+            biomes.add(biome(index).asString());
+        }
+        condition.add("biome_is", biomes);
+        return condition;
+    }
+
+    private static JsonObject anchor(Random random, int blockY) {
+        var anchor = new JsonObject();
+        if (random.nextBoolean()) {
+            anchor.addProperty("absolute", blockY);
+        } else {
+            anchor.addProperty("above_bottom", blockY - MIN_Y);
+        }
+        return anchor;
+    }
+
+    private static JsonObject not(JsonObject condition) {
+        var not = new JsonObject();
+        not.addProperty("type", "minecraft:not");
+        not.add("invert", condition);
+        return not;
+    }
+
+    private static Key biome(int index) {
+        return Key.key("test", "biome_" + index);
+    }
+}
@@ -0,0 +1,112 @@
+package rocks.minestom.worldgen.terrain;
+
+import net.kyori.adventure.key.Key;
+import net.minestom.server.instance.block.Block;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rocks.minestom.worldgen.NoiseGeneratorSettingsLoader;
+import rocks.minestom.worldgen.NoiseGeneratorSettingsRuntime;
+import rocks.minestom.worldgen.datapack.DataPack;
+import rocks.minestom.worldgen.density.DensityFunction;
+import rocks.minestom.worldgen.density.DensityFunctions;
+import rocks.minestom.worldgen.noise.NormalNoise;
+import rocks.minestom.worldgen.random.XoroshiroRandomSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares terrain generated with the shortcuts that skip density evaluation against
+ * terrain generated without them, bit for bit.
+ */
+class TerrainGeneratorTest {
+    private static final int MIN_Y = -64;
+    private static final int HEIGHT = 384;
+    private static final int SEA_LEVEL = 63;
+    private static final int[][] CHUNKS = {{0, 0}, {16, 0}, {32, 0}, {16, 16}, {-48, 96}, {4_096, -8_192}};
+    private static final NormalNoise NOISE = noise(1L);
+    private static final NormalNoise CAVE_NOISE = noise(2L);
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 4})
+    void shortcutsMatchFullEvaluation(int router) {
+        var settings = new NoiseGeneratorSettingsRuntime(MIN_Y, HEIGHT, 4, 8, SEA_LEVEL, Block.STONE, Block.WATER,
+                syntheticRouter(router), null, null, null, null, null);
+        assertShortcutsMatch(settings);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"minecraft:overworld", "minecraft:nether", "minecraft:end"})
+    void vanillaRoutersMatch(String settings) {
+        var root = System.getProperty("rocks.minestom.worldgen.dataPack", "");
+        assumeTrue(!root.isBlank() && Files.isDirectory(Path.of(root)), "no data pack given with -PdataPack");
+
+        assertShortcutsMatch(new NoiseGeneratorSettingsLoader(new DataPack(Path.of(root))).load(Key.key(settings), 1234L));
+    }
+
+    private static void assertShortcutsMatch(NoiseGeneratorSettingsRuntime settings) {
+        // Chunks are generated in order by each generator, so its corner cache is exercised too
+        var reference = new TerrainGenerator(settings, false, false);
+        var culled = new TerrainGenerator(settings, true, false);
+        var classified = new TerrainGenerator(settings, false, true);
+        var both = new TerrainGenerator(settings, true, true);
+        for (var chunk : CHUNKS) {
+            var at = " at " + chunk[0] + ", " + chunk[1];
+            var expected = fill(reference, settings, chunk);
+            assertSameTerrain(expected, fill(culled, settings, chunk), "culled rows" + at);
+            assertSameTerrain(expected, fill(classified, settings, chunk), "classified cells" + at);
+            assertSameTerrain(expected, fill(both, settings, chunk), "culled rows and classified cells" + at);
+        }
+    }
+
+    private static TerrainData fill(TerrainGenerator generator, NoiseGeneratorSettingsRuntime settings, int[] chunk) {
+        var data = TerrainData.create(16, 16, settings.height());
+        generator.fill(chunk[0], chunk[1], 16, 16, null, data);
+        return data;
+    }
+
+    private static void assertSameTerrain(TerrainData expected, TerrainData actual, String label) {
+        assertArrayEquals(expected.surfaceHeights(), actual.surfaceHeights(), label);
+        assertArrayEquals(expected.waterHeights(), actual.waterHeights(), label);
+        var mask = expected.stoneMask();
+        for (var column = 0; column < mask.columns(); column++) {
+            for (var yIndex = 0; yIndex < mask.height(); yIndex++) {
+                if (mask.isStone(column, yIndex) != actual.stoneMask().isStone(column, yIndex)) {
+                    fail(label + ", column " + column + ", y index " + yIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Routers whose static bounds prove the bottom rows solid and the top rows empty, so
+     * every shortcut has something to skip.
+     */
+    private static DensityFunction syntheticRouter(int router) {
+        var gradient = new DensityFunctions.YClampedGradient(MIN_Y, MIN_Y + HEIGHT, 4.0, -4.0);
+        var interpolatedNoise = new DensityFunctions.Interpolated(new DensityFunctions.Noise(NOISE, 1.0, 1.0));
+        return switch (router) {
+            case 0 -> new DensityFunctions.Add(gradient, interpolatedNoise);
+            case 1 -> new DensityFunctions.Interpolated(new DensityFunctions.Add(gradient,
+                    new DensityFunctions.Mul(new DensityFunctions.Constant(0.5), new DensityFunctions.Noise(NOISE, 1.0, 1.0))));
+            case 2 -> new DensityFunctions.Min(
+                    new DensityFunctions.Add(gradient, interpolatedNoise),
+                    new DensityFunctions.Max(new DensityFunctions.Constant(-0.5),
+                            new DensityFunctions.Interpolated(new DensityFunctions.Noise(CAVE_NOISE, 2.0, 2.0))));
+            case 3 -> new DensityFunctions.RangeChoice(interpolatedNoise, -0.2, 0.2, gradient,
+                    new DensityFunctions.Add(gradient, new DensityFunctions.Constant(0.3)));
+            default -> new DensityFunctions.Clamp(new DensityFunctions.Add(
+                    new DensityFunctions.Add(gradient, new DensityFunctions.FlatCache(new DensityFunctions.Noise(NOISE, 1.0, 0.0))),
+                    new DensityFunctions.Cache2D(new DensityFunctions.Noise(CAVE_NOISE, 1.0, 0.0))), -1.0, 1.0);
+        };
+    }
+
+    private static NormalNoise noise(long seed) {
+        return NormalNoise.create(new XoroshiroRandomSource(seed),
+                new NormalNoise.NoiseParameters(-5, new double[]{1.0, 1.0, 0.5}));
+    }
+}
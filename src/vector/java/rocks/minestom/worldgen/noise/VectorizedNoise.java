@@ -0,0 +1,111 @@
+package rocks.minestom.worldgen.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+import rocks.minestom.worldgen.VMath;
+
+/**
+ * SIMD backend for {@link ImprovedNoise#fillColumn}, evaluating several Y samples of a
+ * column per instruction with the incubating Vector API.
+ * <p>
+ * Lattice hashing stays scalar, since it is a chain of dependent table lookups. The
+ * gradient dot products, fade curves and trilinear interpolation then run across lanes
+ * in the exact operation order of the scalar path, without fused multiply-adds, so every
+ * lane is bit-identical to {@link ImprovedNoise#noise}. Only loaded once
+ * {@link ImprovedNoise} has checked that the module is present.
+ * <p>
+ * The one backend instance is shared by every thread, so the lane scratch arrays are
+ * kept per thread rather than allocated per column.
+ */
+final class VectorizedNoise implements ColumnBackend {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    VectorizedNoise() {
+    }
+
+    /**
+     * Fills whole vectors of the column.
+     */
+    @Override
+    public int fillColumn(int[] permutations, double yo, int permX0, int permX1, int floorZ,
+            double localX, double localZ, double[] ys, int count, double[] out) {
+        var filled = count - count % LANES;
+        if (filled == 0) {
+            return 0;
+        }
+
+        var maskedZ = floorZ & 0xFF;
+        var buffers = BUFFERS.get();
+        var hashes = buffers.hashes;
+        var localYs = buffers.localYs;
+        var smoothX = DoubleVector.broadcast(SPECIES, VMath.smoothstep(localX));
+        var smoothW = DoubleVector.broadcast(SPECIES, VMath.smoothstep(localZ));
+
+        for (var start = 0; start < filled; start += LANES) {
+            for (var lane = 0; lane < LANES; lane++) {
+                var offsetY = ys[start + lane] + yo;
+                var floorY = VMath.floor(offsetY);
+                localYs[lane] = offsetY - (double) floorY;
+
+                var maskedY = floorY & 0xFF;
+                var permX0Y0 = permutations[permX0 + maskedY];
+                var permX0Y1 = permutations[permX0 + maskedY + 1];
+                var permX1Y0 = permutations[permX1 + maskedY];
+                var permX1Y1 = permutations[permX1 + maskedY + 1];
+                hashes[lane] = permutations[permX0Y0 + maskedZ] & 15;
+                hashes[LANES + lane] = permutations[permX1Y0 + maskedZ] & 15;
+                hashes[2 * LANES + lane] = permutations[permX0Y1 + maskedZ] & 15;
+                hashes[3 * LANES + lane] = permutations[permX1Y1 + maskedZ] & 15;
+                hashes[4 * LANES + lane] = permutations[permX0Y0 + maskedZ + 1] & 15;
+                hashes[5 * LANES + lane] = permutations[permX1Y0 + maskedZ + 1] & 15;
+                hashes[6 * LANES + lane] = permutations[permX0Y1 + maskedZ + 1] & 15;
+                hashes[7 * LANES + lane] = permutations[permX1Y1 + maskedZ + 1] & 15;
+            }
+
+            var localY = DoubleVector.fromArray(SPECIES, localYs, 0);
+            var localY1 = localY.sub(1.0);
+            var value000 = gradDot(hashes, 0, localX, localY, localZ);
+            var value100 = gradDot(hashes, 1, localX - 1.0, localY, localZ);
+            var value010 = gradDot(hashes, 2, localX, localY1, localZ);
+            var value110 = gradDot(hashes, 3, localX - 1.0, localY1, localZ);
+            var value001 = gradDot(hashes, 4, localX, localY, localZ - 1.0);
+            var value101 = gradDot(hashes, 5, localX - 1.0, localY, localZ - 1.0);
+            var value011 = gradDot(hashes, 6, localX, localY1, localZ - 1.0);
+            var value111 = gradDot(hashes, 7, localX - 1.0, localY1, localZ - 1.0);
+
+            var smoothY = smoothstep(localY);
+            var lower = lerp(smoothY, lerp(smoothX, value000, value100), lerp(smoothX, value010, value110));
+            var upper = lerp(smoothY, lerp(smoothX, value001, value101), lerp(smoothX, value011, value111));
+            lerp(smoothW, lower, upper).intoArray(out, start);
+        }
+
+        return filled;
+    }
+
+    private static DoubleVector gradDot(int[] hashes, int corner, double x, DoubleVector y, double z) {
+        var offset = corner * LANES;
+        var gradientX = DoubleVector.fromArray(SPECIES, ImprovedNoise.GRADIENT_X, 0, hashes, offset);
+        var gradientY = DoubleVector.fromArray(SPECIES, ImprovedNoise.GRADIENT_Y, 0, hashes, offset);
+        var gradientZ = DoubleVector.fromArray(SPECIES, ImprovedNoise.GRADIENT_Z, 0, hashes, offset);
+        return gradientX.mul(x).add(gradientY.mul(y)).add(gradientZ.mul(z));
+    }
+
+    private static DoubleVector smoothstep(DoubleVector value) {
+        return value.mul(value).mul(value).mul(value.mul(value.mul(6.0).sub(15.0)).add(10.0));
+    }
+
+    private static DoubleVector lerp(DoubleVector delta, DoubleVector start, DoubleVector end) {
+        return start.add(delta.mul(end.sub(start)));
+    }
+
+    /**
+     * Corner hashes, one run of {@code LANES} per cube corner, and the fractional Y of
+     * each lane.
+     */
+    private static final class Buffers {
+        private final int[] hashes = new int[8 * LANES];
+        private final double[] localYs = new double[LANES];
+    }
+}